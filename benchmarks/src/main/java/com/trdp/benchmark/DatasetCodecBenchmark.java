@@ -0,0 +1,122 @@
+package com.trdp.benchmark;
+
+import com.trdp.util.TrdpDataType;
+import com.trdp.util.TrdpDataset;
+import com.trdp.util.TrdpDatasetLayout;
+import com.trdp.util.TrdpDatasetView;
+import com.trdp.util.TrdpDecoder;
+import com.trdp.util.TrdpEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode of a typical door/brake status dataset through {@link TrdpDataset}
+ * through the lower level {@link TrdpEncoder}/{@link TrdpDecoder}, and through a
+ * compiled {@link TrdpDatasetView}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatasetCodecBenchmark {
+
+    private static final List<TrdpDataset.FieldDefinition> SCHEMA = List.of(
+        new TrdpDataset.FieldDefinition("doorsClosed", TrdpDataType.BOOL8),
+        new TrdpDataset.FieldDefinition("carNumber", TrdpDataType.UINT8),
+        new TrdpDataset.FieldDefinition("brakePressure", TrdpDataType.UINT16),
+        new TrdpDataset.FieldDefinition("speed", TrdpDataType.REAL32),
+        new TrdpDataset.FieldDefinition("odometer", TrdpDataType.UINT32),
+        new TrdpDataset.FieldDefinition("position", TrdpDataType.REAL64),
+        new TrdpDataset.FieldDefinition("timestamp", TrdpDataType.TIMEDATE64)
+    );
+
+    private Instant timestamp;
+    private byte[] encoded;
+    private TrdpEncoder encoder;
+    private TrdpDatasetView view;
+    private int speedField;
+    private int positionField;
+    private int timestampField;
+
+    @Setup
+    public void setup() {
+        timestamp = Instant.parse("2024-01-01T12:00:00.123456Z");
+        encoded = buildDataset().encode();
+        encoder = new TrdpEncoder(64);
+
+        TrdpDatasetLayout layout = new TrdpDatasetLayout(SCHEMA);
+        view = new TrdpDatasetView(layout);
+        speedField = layout.indexOf("speed");
+        positionField = layout.indexOf("position");
+        timestampField = layout.indexOf("timestamp");
+    }
+
+    private TrdpDataset buildDataset() {
+        return new TrdpDataset()
+            .addBool8("doorsClosed", true)
+            .addUInt8("carNumber", 3)
+            .addUInt16("brakePressure", 4500)
+            .addReal32("speed", 88.5f)
+            .addUInt32("odometer", 1_234_567L)
+            .addReal64("position", 52.520008)
+            .addTimeDate64("timestamp", timestamp);
+    }
+
+    @Benchmark
+    public byte[] datasetEncode() {
+        return buildDataset().encode();
+    }
+
+    @Benchmark
+    public TrdpDataset datasetDecode() {
+        return TrdpDataset.decode(encoded, SCHEMA);
+    }
+
+    @Benchmark
+    public int encoderEncode() {
+        encoder.reset();
+        encoder.putBool8(true)
+               .putUInt8(3)
+               .putUInt16(4500)
+               .putReal32(88.5f)
+               .putUInt32(1_234_567L)
+               .putReal64(52.520008)
+               .putTimeDate64(timestamp);
+        return encoder.position();
+    }
+
+    @Benchmark
+    public void decoderDecode(Blackhole blackhole) {
+        TrdpDecoder decoder = new TrdpDecoder(encoded);
+        blackhole.consume(decoder.getBool8());
+        blackhole.consume(decoder.getUInt8());
+        blackhole.consume(decoder.getUInt16());
+        blackhole.consume(decoder.getReal32());
+        blackhole.consume(decoder.getUInt32());
+        blackhole.consume(decoder.getReal64());
+        blackhole.consume(decoder.getTimeDate64());
+    }
+
+    @Benchmark
+    public void viewDecode(Blackhole blackhole) {
+        TrdpDatasetView dataset = view.wrap(encoded);
+        blackhole.consume(dataset.getReal32(speedField));
+        blackhole.consume(dataset.getReal64(positionField));
+        blackhole.consume(dataset.getTimeDate64Micros(timestampField));
+    }
+}
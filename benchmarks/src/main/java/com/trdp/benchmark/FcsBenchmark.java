@@ -0,0 +1,68 @@
+package com.trdp.benchmark;
+
+import com.trdp.util.FcsUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRC-32 throughput by payload size. The bitwise variant is the loop the library used
+ * before {@link FcsUtils} switched to {@link java.util.zip.CRC32}; it is kept here as
+ * the baseline the speedup is measured against.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FcsBenchmark {
+
+    @Param({"40", "116", "256", "1432"})
+    private int size;
+
+    private byte[] data;
+    private ByteBuffer directBuffer;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(42).nextBytes(data);
+        directBuffer = ByteBuffer.allocateDirect(size);
+        directBuffer.put(data).flip();
+    }
+
+    @Benchmark
+    public int fcsArray() {
+        return FcsUtils.calculateFcs(data, 0, size);
+    }
+
+    @Benchmark
+    public int fcsDirectBuffer() {
+        return FcsUtils.calculateFcs(directBuffer, 0, size);
+    }
+
+    @Benchmark
+    public int fcsBitwiseBaseline() {
+        int crc = 0xFFFFFFFF;
+        for (int i = 0; i < size; i++) {
+            crc ^= data[i] & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xEDB88320 : crc >>> 1;
+            }
+        }
+        return ~crc;
+    }
+}
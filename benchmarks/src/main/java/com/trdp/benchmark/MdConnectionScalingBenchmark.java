@@ -0,0 +1,178 @@
+package com.trdp.benchmark;
+
+import com.trdp.md.MdConfig;
+import com.trdp.md.MdExecutionMode;
+import com.trdp.md.MdReplier;
+import com.trdp.network.NioEventLoopGroup;
+import com.trdp.network.TcpChannel;
+import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One TCP MD request on each of {@code connections} open connections to a single
+ * replier, with a handler that blocks for {@code handlerMillis}, run on a fixed pool of
+ * platform threads ({@link MdConfig#DEFAULT_HANDLER_THREADS}), on one platform thread per
+ * connection, or on virtual threads.
+ *
+ * <p>Besides the time per round, each iteration reports the peak number of live
+ * platform threads and the committed thread stack memory from native memory tracking,
+ * which the forked JVM enables. Virtual thread stacks live on the heap instead; add
+ * {@code -prof gc} to see them. Virtual threads need the library jar built with JDK 21
+ * and a Java 21 runtime; on older runtimes that variant uses the platform pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:NativeMemoryTracking=summary")
+public class MdConnectionScalingBenchmark {
+
+    private static final int REPLIER_PORT = 19226;
+
+    public enum Handlers {
+        PLATFORM_POOL,
+        PLATFORM_THREAD_PER_CONNECTION,
+        VIRTUAL_THREADS
+    }
+
+    @Param({"PLATFORM_POOL", "PLATFORM_THREAD_PER_CONNECTION", "VIRTUAL_THREADS"})
+    private Handlers handlers;
+
+    @Param({"10", "100", "500"})
+    private int connections;
+
+    @Param({"0", "1"})
+    private int handlerMillis;
+
+    private MdReplier replier;
+    private NioEventLoopGroup clientLoops;
+    private TcpChannel[] clients;
+    private byte[] request;
+    private volatile CountDownLatch replies;
+
+    @Setup
+    public void setup() throws Exception {
+        replier = new MdReplier(REPLIER_PORT, (comId, requestData) -> {
+            if (handlerMillis > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(handlerMillis));
+            }
+            return requestData;
+        }, config());
+        replier.start();
+
+        clientLoops = new NioEventLoopGroup("benchmark-clients", 2);
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), REPLIER_PORT);
+        clients = new TcpChannel[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new TcpChannel(clientLoops.next(), address, (channel, frame) -> replies.countDown());
+        }
+
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(2000);
+        header.setReplyComId(2000);
+        request = new TrdpPacket(header, new byte[64]).encode();
+    }
+
+    private MdConfig config() {
+        MdConfig config = new MdConfig().setIoThreads(2);
+        switch (handlers) {
+            case PLATFORM_THREAD_PER_CONNECTION:
+                return config.setHandlerThreads(connections);
+            case VIRTUAL_THREADS:
+                return config.setExecutionMode(MdExecutionMode.VIRTUAL_THREADS);
+            default:
+                return config;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (TcpChannel client : clients) {
+            client.close();
+        }
+        clientLoops.close();
+        replier.close();
+    }
+
+    /**
+     * Thread memory of the benchmark JVM, sampled at the end of each iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ThreadMemory {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+        private static final Pattern NMT_THREAD_COMMITTED =
+            Pattern.compile("Thread \\(reserved=\\d+KB, committed=(\\d+)KB\\)");
+
+        public long peakPlatformThreads;
+        public long threadStackCommittedKb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            THREADS.resetPeakThreadCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void sample() {
+            peakPlatformThreads = THREADS.getPeakThreadCount();
+            threadStackCommittedKb = nmtThreadCommittedKb();
+        }
+
+        /**
+         * @return the committed memory of the NMT Thread category, or -1 if native memory
+         *         tracking is off.
+         */
+        private static long nmtThreadCommittedKb() {
+            try {
+                String summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmNativeMemory",
+                    new Object[] {new String[] {"summary"}}, new String[] {String[].class.getName()});
+                Matcher matcher = NMT_THREAD_COMMITTED.matcher(summary);
+                return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+
+    @Benchmark
+    public void requestOnEveryConnection(ThreadMemory memory) throws Exception {
+        CountDownLatch latch = new CountDownLatch(connections);
+        replies = latch;
+        for (TcpChannel client : clients) {
+            client.send(request, 0, request.length);
+        }
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new TimeoutException(latch.getCount() + " replies missing");
+        }
+    }
+}
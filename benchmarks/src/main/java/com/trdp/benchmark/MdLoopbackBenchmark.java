@@ -0,0 +1,67 @@
+package com.trdp.benchmark;
+
+import com.trdp.md.MdDestination;
+import com.trdp.md.MdReplier;
+import com.trdp.md.MdReply;
+import com.trdp.md.MdRequester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-to-reply latency of one UDP MD exchange over the loopback interface.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MdLoopbackBenchmark {
+
+    private static final int REPLIER_PORT = 19225;
+
+    @Param({"64", "1024"})
+    private int payloadSize;
+
+    private MdReplier replier;
+    private MdRequester requester;
+    private MdDestination destination;
+    private byte[] request;
+
+    @Setup
+    public void setup() throws Exception {
+        replier = new MdReplier(REPLIER_PORT, (comId, requestData) -> requestData);
+        replier.start();
+        requester = new MdRequester(0);
+        destination = requester.resolve(2000, "127.0.0.1", REPLIER_PORT);
+        request = new byte[payloadSize];
+    }
+
+    @TearDown
+    public void tearDown() {
+        requester.close();
+        replier.close();
+    }
+
+    @Benchmark
+    public MdReply requestToReply() throws Exception {
+        return requester.sendRequest(2000, request, "127.0.0.1", REPLIER_PORT).get(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public MdReply requestToReplyResolved() throws Exception {
+        return requester.sendRequest(destination, request).get(1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,101 @@
+package com.trdp.benchmark;
+
+import com.trdp.protocol.TrdpFrame;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.protocol.TrdpPdHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header and whole-packet encode/decode, comparing the allocating {@link TrdpPacket}
+ * path with the reusable {@link TrdpFrame} and {@link TrdpPacketView}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketCodecBenchmark {
+
+    @Param({"64", "1432"})
+    private int payloadSize;
+
+    private TrdpPdHeader header;
+    private byte[] payload;
+    private byte[] encodedHeader;
+    private byte[] encodedPacket;
+    private TrdpFrame frame;
+    private TrdpPacketView view;
+    private int sequenceCounter;
+
+    @Setup
+    public void setup() {
+        payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+
+        header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(1000);
+        header.setDatasetLength(payloadSize);
+        encodedHeader = header.encode();
+        encodedPacket = new TrdpPacket(header, payload).encode();
+
+        frame = new TrdpFrame(header);
+        view = new TrdpPacketView();
+    }
+
+    @Benchmark
+    public byte[] headerEncode() {
+        header.setSequenceCounter(sequenceCounter++);
+        return header.encode();
+    }
+
+    @Benchmark
+    public TrdpPdHeader headerDecode() {
+        return TrdpPdHeader.decode(encodedHeader);
+    }
+
+    @Benchmark
+    public byte[] packetEncode() {
+        header.setSequenceCounter(sequenceCounter++);
+        return new TrdpPacket(header, payload).encode();
+    }
+
+    @Benchmark
+    public TrdpPacket packetDecode() {
+        return TrdpPacket.decode(encodedPacket);
+    }
+
+    @Benchmark
+    public int frameEncode() {
+        frame.setSequenceCounter(sequenceCounter++);
+        frame.setPayload(payload, 0, payloadSize);
+        frame.seal();
+        return frame.length();
+    }
+
+    @Benchmark
+    public void viewDecode(Blackhole blackhole) {
+        TrdpPacketView packet = view.wrap(encodedPacket, 0, encodedPacket.length);
+        blackhole.consume(packet.verify());
+        blackhole.consume(packet.getComId());
+        blackhole.consume(packet.getSequenceCounter());
+        blackhole.consume(packet.payload());
+    }
+}
@@ -0,0 +1,60 @@
+package com.trdp.benchmark;
+
+import com.trdp.network.UdpTransport;
+import com.trdp.pd.PdPublisher;
+import com.trdp.protocol.TrdpConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish-to-receive latency of one PD telegram over the loopback interface.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdLoopbackBenchmark {
+
+    @Param({"64", "1432"})
+    private int payloadSize;
+
+    private UdpTransport receiver;
+    private PdPublisher publisher;
+    private byte[] payload;
+    private byte[] receiveBuffer;
+
+    @Setup
+    public void setup() throws IOException {
+        receiver = new UdpTransport(0);
+        publisher = new PdPublisher(1000, "127.0.0.1", receiver.getLocalPort());
+        payload = new byte[payloadSize];
+        receiveBuffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
+    }
+
+    @TearDown
+    public void tearDown() {
+        publisher.close();
+        receiver.close();
+    }
+
+    @Benchmark
+    public int publishToReceive() throws IOException {
+        publisher.publish(payload);
+        return receiver.receive(receiveBuffer, 1000);
+    }
+}
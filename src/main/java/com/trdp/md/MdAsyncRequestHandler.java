@@ -0,0 +1,15 @@
+package com.trdp.md;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Request handler that answers asynchronously. It is called on one of the replier's
+ * handler threads, or on a worker thread if a worker pool is configured, and should
+ * return quickly so that thread can take the next request; the reply is sent when the
+ * returned stage completes, from whichever thread completes it. Completing with
+ * {@code null} sends no reply.
+ */
+@FunctionalInterface
+public interface MdAsyncRequestHandler {
+    CompletionStage<byte[]> handleRequest(MdRequest request);
+}
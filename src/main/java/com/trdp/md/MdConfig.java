@@ -0,0 +1,320 @@
+package com.trdp.md;
+
+import com.trdp.network.NioEventLoopGroup;
+import com.trdp.network.TcpChannel;
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.util.HashedWheelTimer;
+import com.trdp.util.IntObjectMap;
+import com.trdp.util.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Tuning options shared by {@link MdRequester} and {@link MdReplier}.
+ *
+ * <p>The UDP socket and TCP connections of a requester or replier are spread over a
+ * fixed number of selector I/O threads, either its own {@code ioThreads} or a shared
+ * {@link NioEventLoopGroup}. A shared group or timer is not closed with the requester
+ * or replier that uses it.
+ *
+ * <p>A replier runs request handlers on {@code handlerThreads} platform threads, or
+ * on a virtual thread per request, so the selector threads only do I/O. With
+ * {@code workerThreads} set, it hands requests of both transports to a bounded worker
+ * queue instead; see {@link MdShedPolicy} for what
+ * happens when the queue is full and {@link MdPriority} for per-ComID ordering.
+ *
+ * <p>A replier keeps the replies to its last {@code replyCacheSize} UDP requests for
+ * {@code replyCacheTimeoutMs}, and answers retransmitted requests from there instead of
+ * calling the handler again.
+ *
+ * <p>A requester can retransmit UDP requests that get no reply. The first retransmission
+ * waits for the destination's retransmission timeout, estimated from measured round
+ * trip times and starting at {@code initialRtoMs}; each further one waits twice as long,
+ * up to {@code maxRetransmissions} times within {@code replyTimeoutMs}.
+ */
+public class MdConfig {
+    private static final Logger logger = LoggerFactory.getLogger(MdConfig.class);
+
+    public static final int DEFAULT_IO_THREADS = 1;
+    public static final int DEFAULT_HANDLER_THREADS = 4;
+    public static final int DEFAULT_WORKER_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_REPLY_CACHE_SIZE = 1024;
+    public static final int DEFAULT_INITIAL_RTO_MS = 1000;
+    public static final int DEFAULT_MIN_RTO_MS = 50;
+
+    private int ioThreads = DEFAULT_IO_THREADS;
+    private NioEventLoopGroup eventLoopGroup;
+    private int maxTcpQueuedBytes = TcpChannel.DEFAULT_MAX_QUEUED_BYTES;
+    private HashedWheelTimer timer;
+    private int maxPendingRequests = MdRequester.DEFAULT_MAX_PENDING_REQUESTS;
+    private MdExecutionMode executionMode = MdExecutionMode.PLATFORM_THREADS;
+    private int handlerThreads = DEFAULT_HANDLER_THREADS;
+    private int workerThreads;
+    private int workerQueueCapacity = DEFAULT_WORKER_QUEUE_CAPACITY;
+    private MdShedPolicy shedPolicy = MdShedPolicy.REPLY_ERROR;
+    private final IntObjectMap<MdPriority> comIdPriorities = new IntObjectMap<>();
+    private int replyCacheSize = DEFAULT_REPLY_CACHE_SIZE;
+    private int replyCacheTimeoutMs = TrdpConstants.DEFAULT_MD_TIMEOUT_MS;
+    private int replyTimeoutMs = TrdpConstants.DEFAULT_MD_TIMEOUT_MS;
+    private int maxRetransmissions;
+    private int initialRtoMs = DEFAULT_INITIAL_RTO_MS;
+    private int minRtoMs = DEFAULT_MIN_RTO_MS;
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public MdConfig setIoThreads(int ioThreads) {
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("At least one I/O thread is required");
+        }
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    public NioEventLoopGroup getEventLoopGroup() {
+        return eventLoopGroup;
+    }
+
+    /**
+     * Runs the UDP socket and TCP connections on a shared group instead of
+     * {@code ioThreads} own loops.
+     */
+    public MdConfig setEventLoopGroup(NioEventLoopGroup eventLoopGroup) {
+        this.eventLoopGroup = eventLoopGroup;
+        return this;
+    }
+
+    public int getMaxTcpQueuedBytes() {
+        return maxTcpQueuedBytes;
+    }
+
+    /**
+     * Limits the bytes queued for sending on each TCP connection; sends beyond it fail
+     * until a slow peer has read enough.
+     */
+    public MdConfig setMaxTcpQueuedBytes(int maxTcpQueuedBytes) {
+        if (maxTcpQueuedBytes <= 0) {
+            throw new IllegalArgumentException("TCP write queue limit must be positive");
+        }
+        this.maxTcpQueuedBytes = maxTcpQueuedBytes;
+        return this;
+    }
+
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Runs requester reply timeouts on a shared timer instead of an own one.
+     */
+    public MdConfig setTimer(HashedWheelTimer timer) {
+        this.timer = timer;
+        return this;
+    }
+
+    public int getMaxPendingRequests() {
+        return maxPendingRequests;
+    }
+
+    /**
+     * Sets how many requests a requester may have outstanding at once, a power of two.
+     */
+    public MdConfig setMaxPendingRequests(int maxPendingRequests) {
+        this.maxPendingRequests = maxPendingRequests;
+        return this;
+    }
+
+    public MdExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public MdConfig setExecutionMode(MdExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    public int getHandlerThreads() {
+        return handlerThreads;
+    }
+
+    /**
+     * Sets the number of platform threads a replier runs request handlers on when it has
+     * no worker pool. Unused in {@link MdExecutionMode#VIRTUAL_THREADS} mode.
+     */
+    public MdConfig setHandlerThreads(int handlerThreads) {
+        if (handlerThreads <= 0) {
+            throw new IllegalArgumentException("At least one handler thread is required");
+        }
+        this.handlerThreads = handlerThreads;
+        return this;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * Sets the number of replier worker threads; 0, the default, runs handlers on the
+     * handler threads without a bound on queued requests.
+     */
+    public MdConfig setWorkerThreads(int workerThreads) {
+        if (workerThreads < 0) {
+            throw new IllegalArgumentException("Worker thread count must not be negative");
+        }
+        this.workerThreads = workerThreads;
+        return this;
+    }
+
+    public int getWorkerQueueCapacity() {
+        return workerQueueCapacity;
+    }
+
+    /**
+     * Sets how many requests may wait for a worker, across all priority classes.
+     */
+    public MdConfig setWorkerQueueCapacity(int workerQueueCapacity) {
+        if (workerQueueCapacity <= 0) {
+            throw new IllegalArgumentException("Worker queue capacity must be positive");
+        }
+        this.workerQueueCapacity = workerQueueCapacity;
+        return this;
+    }
+
+    public MdShedPolicy getShedPolicy() {
+        return shedPolicy;
+    }
+
+    public MdConfig setShedPolicy(MdShedPolicy shedPolicy) {
+        this.shedPolicy = shedPolicy;
+        return this;
+    }
+
+    /**
+     * @return the priority class of {@code comId}, {@link MdPriority#NORMAL} unless set.
+     */
+    public MdPriority getComIdPriority(int comId) {
+        MdPriority priority = comIdPriorities.get(comId);
+        return priority != null ? priority : MdPriority.NORMAL;
+    }
+
+    public MdConfig setComIdPriority(int comId, MdPriority priority) {
+        comIdPriorities.put(comId, priority);
+        return this;
+    }
+
+    public int getReplyCacheSize() {
+        return replyCacheSize;
+    }
+
+    /**
+     * Sets how many UDP replies a replier keeps for retransmitted requests; 0 disables
+     * the cache, so every retransmission is handled again.
+     */
+    public MdConfig setReplyCacheSize(int replyCacheSize) {
+        if (replyCacheSize < 0) {
+            throw new IllegalArgumentException("Reply cache size must not be negative");
+        }
+        this.replyCacheSize = replyCacheSize;
+        return this;
+    }
+
+    public int getReplyCacheTimeoutMs() {
+        return replyCacheTimeoutMs;
+    }
+
+    /**
+     * Sets how long after a request arrived its reply is kept; it should cover the
+     * requesters' reply timeout.
+     */
+    public MdConfig setReplyCacheTimeoutMs(int replyCacheTimeoutMs) {
+        if (replyCacheTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Reply cache timeout must be positive");
+        }
+        this.replyCacheTimeoutMs = replyCacheTimeoutMs;
+        return this;
+    }
+
+    public int getReplyTimeoutMs() {
+        return replyTimeoutMs;
+    }
+
+    /**
+     * Sets how long a requester waits for a reply, including all retransmissions.
+     */
+    public MdConfig setReplyTimeoutMs(int replyTimeoutMs) {
+        if (replyTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Reply timeout must be positive");
+        }
+        this.replyTimeoutMs = replyTimeoutMs;
+        return this;
+    }
+
+    public int getMaxRetransmissions() {
+        return maxRetransmissions;
+    }
+
+    /**
+     * Sets how often a requester resends an unanswered UDP request; 0, the default, sends
+     * each request once.
+     */
+    public MdConfig setMaxRetransmissions(int maxRetransmissions) {
+        if (maxRetransmissions < 0) {
+            throw new IllegalArgumentException("Retransmission count must not be negative");
+        }
+        this.maxRetransmissions = maxRetransmissions;
+        return this;
+    }
+
+    public int getInitialRtoMs() {
+        return initialRtoMs;
+    }
+
+    /**
+     * Sets the retransmission timeout used for a destination before its first round trip
+     * has been measured.
+     */
+    public MdConfig setInitialRtoMs(int initialRtoMs) {
+        if (initialRtoMs <= 0) {
+            throw new IllegalArgumentException("Initial retransmission timeout must be positive");
+        }
+        this.initialRtoMs = initialRtoMs;
+        return this;
+    }
+
+    public int getMinRtoMs() {
+        return minRtoMs;
+    }
+
+    /**
+     * Sets the lower bound of the retransmission timeout, which keeps jitter on fast links
+     * from causing spurious retransmissions.
+     */
+    public MdConfig setMinRtoMs(int minRtoMs) {
+        if (minRtoMs <= 0) {
+            throw new IllegalArgumentException("Minimum retransmission timeout must be positive");
+        }
+        this.minRtoMs = minRtoMs;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if virtual threads were requested and the runtime has them.
+     */
+    boolean usesVirtualThreads() {
+        return executionMode == MdExecutionMode.VIRTUAL_THREADS && ThreadFactories.virtualThreadsSupported();
+    }
+
+    ThreadFactory threadFactory(String name) {
+        if (usesVirtualThreads()) {
+            return ThreadFactories.virtual(name);
+        }
+        if (executionMode == MdExecutionMode.VIRTUAL_THREADS) {
+            logger.warn("Virtual threads are not available on Java {}, using platform threads for {}",
+                        Runtime.version().feature(), name);
+        }
+        return ThreadFactories.platform(name);
+    }
+}
@@ -0,0 +1,80 @@
+package com.trdp.md;
+
+import com.trdp.network.TcpChannel;
+import com.trdp.protocol.TrdpFrame;
+import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpMessageType;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Pre-resolved target of MD requests, created by {@link MdRequester#resolve}.
+ *
+ * <p>Name resolution, the reply IP of the local host and the request header are all
+ * worked out once when the handle is created; the handle also caches the TCP
+ * connection it was last sent over and the round trip estimate of its address.
+ * Sending through a handle therefore does no lookups and builds no strings. Handles
+ * are thread-safe and meant to be kept and reused.
+ */
+public final class MdDestination {
+
+    private final InetSocketAddress address;
+    private final TransportProtocol protocol;
+    private final int comId;
+    private final int replyComId;
+    private final int replyIpAddress;
+    private final TrdpFrame frame;
+    private volatile TcpChannel connection;
+    private volatile MdRttEstimator rttEstimator;
+
+    MdDestination(InetSocketAddress address, TransportProtocol protocol, int comId, int replyComId,
+                  int replyIpAddress) {
+        this.address = address;
+        this.protocol = protocol;
+        this.comId = comId;
+        this.replyComId = replyComId;
+        this.replyIpAddress = replyIpAddress;
+
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(comId);
+        header.setReplyComId(replyComId);
+        header.setReplyIpAddress(replyIpAddress);
+        this.frame = new TrdpFrame(header);
+    }
+
+    /**
+     * Request frame with the header template already encoded. Callers synchronize on it
+     * around update and send.
+     */
+    TrdpFrame frame() {
+        return frame;
+    }
+
+    TcpChannel connection() {
+        return connection;
+    }
+
+    void setConnection(TcpChannel connection) {
+        this.connection = connection;
+    }
+
+    MdRttEstimator rttEstimator() {
+        return rttEstimator;
+    }
+
+    void setRttEstimator(MdRttEstimator rttEstimator) {
+        this.rttEstimator = rttEstimator;
+    }
+
+    public InetSocketAddress getAddress() { return address; }
+    public TransportProtocol getProtocol() { return protocol; }
+    public int getComId() { return comId; }
+    public int getReplyComId() { return replyComId; }
+    public int getReplyIpAddress() { return replyIpAddress; }
+
+    @Override
+    public String toString() {
+        return "MdDestination[" + address + ", " + protocol + ", ComID=" + comId + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package com.trdp.md;
+
+import java.io.IOException;
+
+/**
+ * Completes a request future when the replier answered with an {@code MD_ERROR} reply.
+ */
+public class MdErrorReplyException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int comId;
+    private final int replyStatus;
+
+    public MdErrorReplyException(int comId, int replyStatus) {
+        super("MD error reply: ComID=" + comId + ", ReplyStatus=" + replyStatus);
+        this.comId = comId;
+        this.replyStatus = replyStatus;
+    }
+
+    public int getComId() { return comId; }
+    public int getReplyStatus() { return replyStatus; }
+}
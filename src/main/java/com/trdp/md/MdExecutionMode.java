@@ -0,0 +1,20 @@
+package com.trdp.md;
+
+/**
+ * Threads that run MD request handlers.
+ */
+public enum MdExecutionMode {
+    /**
+     * Platform threads. Requests are handled on a fixed pool of
+     * {@link MdConfig#setHandlerThreads handler threads}, so a blocking handler holds up
+     * one of them but not the selector threads.
+     */
+    PLATFORM_THREADS,
+
+    /**
+     * Virtual threads, on Java 21 or later. Each request is handled on its own virtual
+     * thread, so any number of handlers may block at once. Falls back to
+     * {@link #PLATFORM_THREADS} on older runtimes.
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,295 @@
+package com.trdp.md;
+
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpStatistics;
+import com.trdp.util.HashedWheelTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Correlates outstanding MD requests with their replies.
+ *
+ * <p>Requests live in a preallocated, power-of-two sized slot array indexed by the low
+ * bits of their sequence counter, and every slot is its own reusable timer entry on a
+ * {@link HashedWheelTimer}. Adding, completing, cancelling and expiring a request are
+ * O(1) and neither box the sequence counter nor allocate timer tasks. A slot is locked
+ * only by the threads racing for that one request. When the slot for a new sequence
+ * counter is still taken, more requests are outstanding than the table holds and the
+ * new one is refused.
+ *
+ * <p>A UDP request can also carry its encoded frame for retransmission. Its slot then
+ * first expires after the destination's retransmission timeout, resends the frame with
+ * the same sequence counter, so a late reply to any copy completes the request, and
+ * reschedules itself with a doubled timeout until the retries run out, after which it
+ * waits for the reply timeout. Round trip samples feed the destination's
+ * {@link MdRttEstimator}, except for retransmitted requests, whose replies cannot be
+ * told apart.
+ */
+final class MdPendingRequests {
+    private static final Logger logger = LoggerFactory.getLogger(MdPendingRequests.class);
+
+    interface Retransmitter {
+        void retransmit(byte[] frame, InetSocketAddress address) throws IOException;
+    }
+
+    private final HashedWheelTimer timer;
+    private final Retransmitter retransmitter;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    MdPendingRequests(HashedWheelTimer timer, int capacity) {
+        this(timer, capacity, null);
+    }
+
+    MdPendingRequests(HashedWheelTimer timer, int capacity, Retransmitter retransmitter) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Pending request capacity must be a power of two");
+        }
+        this.timer = timer;
+        this.retransmitter = retransmitter;
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * @return {@code false} if the slot for {@code sequenceCounter} is still in use.
+     */
+    boolean add(int sequenceCounter, int comId, TransportProtocol protocol, CompletableFuture<MdReply> future,
+                TrdpStatistics statistics, long sentNanos, long timeoutNanos) {
+        return add(sequenceCounter, comId, protocol, future, statistics, sentNanos, timeoutNanos, null, null, null, 0);
+    }
+
+    /**
+     * Adds a request that samples round trip times into {@code rttEstimator}, if not
+     * {@code null}, and is retransmitted as {@code frame} to {@code address} up to
+     * {@code maxRetransmissions} times before {@code timeoutNanos} has passed.
+     *
+     * @return {@code false} if the slot for {@code sequenceCounter} is still in use.
+     */
+    boolean add(int sequenceCounter, int comId, TransportProtocol protocol, CompletableFuture<MdReply> future,
+                TrdpStatistics statistics, long sentNanos, long timeoutNanos, MdRttEstimator rttEstimator,
+                byte[] frame, InetSocketAddress address, int maxRetransmissions) {
+        Slot slot = slots[sequenceCounter & mask];
+        synchronized (slot) {
+            if (slot.future != null) {
+                return false;
+            }
+            slot.sequenceCounter = sequenceCounter;
+            slot.comId = comId;
+            slot.protocol = protocol;
+            slot.future = future;
+            slot.statistics = statistics;
+            slot.sentNanos = sentNanos;
+            slot.timeoutNanos = sentNanos + timeoutNanos;
+            slot.rttEstimator = rttEstimator;
+            slot.retransmissions = 0;
+            if (frame != null && maxRetransmissions > 0 && retransmitter != null) {
+                slot.frame = frame;
+                slot.address = address;
+                slot.retransmissionsLeft = maxRetransmissions;
+                slot.rtoNanos = rttEstimator.getRtoNanos();
+                timer.scheduleAt(slot, Math.min(sentNanos + slot.rtoNanos, slot.timeoutNanos));
+            } else {
+                timer.scheduleAt(slot, slot.timeoutNanos);
+            }
+        }
+        outstanding.incrementAndGet();
+        return true;
+    }
+
+    boolean isPending(int sequenceCounter) {
+        Slot slot = slots[sequenceCounter & mask];
+        synchronized (slot) {
+            return slot.future != null && slot.sequenceCounter == sequenceCounter;
+        }
+    }
+
+    /**
+     * Completes the request with {@code reply} and records its round trip time. Only
+     * requests that were never retransmitted update the RTT estimate.
+     *
+     * @return {@code false} if no request with this sequence counter is outstanding.
+     */
+    boolean complete(int sequenceCounter, MdReply reply, long nowNanos) {
+        CompletableFuture<MdReply> future;
+        TrdpStatistics statistics;
+        MdRttEstimator rttEstimator;
+        int comId;
+        long sentNanos;
+        Slot slot = slots[sequenceCounter & mask];
+        synchronized (slot) {
+            if (slot.future == null || slot.sequenceCounter != sequenceCounter) {
+                return false;
+            }
+            future = slot.future;
+            statistics = slot.statistics;
+            comId = slot.comId;
+            sentNanos = slot.sentNanos;
+            rttEstimator = slot.retransmissions == 0 ? slot.rttEstimator : null;
+            release(slot);
+        }
+        statistics.comId(comId).getRoundTripTime().record(nowNanos - sentNanos);
+        if (rttEstimator != null) {
+            rttEstimator.sample(nowNanos - sentNanos);
+        }
+        future.complete(reply);
+        return true;
+    }
+
+    /**
+     * Completes the request exceptionally, e.g. when the replier answered with an error.
+     *
+     * @return {@code false} if no request with this sequence counter is outstanding.
+     */
+    boolean fail(int sequenceCounter, Throwable error) {
+        CompletableFuture<MdReply> future;
+        Slot slot = slots[sequenceCounter & mask];
+        synchronized (slot) {
+            if (slot.future == null || slot.sequenceCounter != sequenceCounter) {
+                return false;
+            }
+            future = slot.future;
+            release(slot);
+        }
+        future.completeExceptionally(error);
+        return true;
+    }
+
+    /**
+     * Forgets a request without completing its future, e.g. when sending it failed.
+     */
+    void remove(int sequenceCounter) {
+        Slot slot = slots[sequenceCounter & mask];
+        synchronized (slot) {
+            if (slot.future != null && slot.sequenceCounter == sequenceCounter) {
+                release(slot);
+            }
+        }
+    }
+
+    /**
+     * Cancels the futures of all outstanding requests.
+     */
+    void cancelAll() {
+        for (Slot slot : slots) {
+            CompletableFuture<MdReply> future;
+            synchronized (slot) {
+                future = slot.future;
+                if (future == null) {
+                    continue;
+                }
+                release(slot);
+            }
+            future.cancel(true);
+        }
+    }
+
+    int getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    private void release(Slot slot) {
+        timer.cancel(slot);
+        slot.future = null;
+        slot.statistics = null;
+        slot.protocol = null;
+        slot.rttEstimator = null;
+        slot.frame = null;
+        slot.address = null;
+        slot.retransmissionsLeft = 0;
+        outstanding.decrementAndGet();
+    }
+
+    private void expire(Slot slot, long nowNanos) {
+        CompletableFuture<MdReply> future = null;
+        TrdpStatistics statistics;
+        TransportProtocol protocol;
+        int comId;
+        int sequenceCounter;
+        byte[] frame = null;
+        InetSocketAddress address = null;
+        synchronized (slot) {
+            // The slot may have been completed and reused after the timer picked it up
+            if (slot.future == null || nowNanos - slot.getDeadlineNanos() < 0) {
+                return;
+            }
+            statistics = slot.statistics;
+            protocol = slot.protocol;
+            comId = slot.comId;
+            sequenceCounter = slot.sequenceCounter;
+            if (slot.retransmissionsLeft > 0 && nowNanos - slot.timeoutNanos < 0) {
+                frame = slot.frame;
+                address = slot.address;
+                slot.retransmissionsLeft--;
+                slot.retransmissions++;
+                slot.rtoNanos = Math.min(slot.rtoNanos * 2, slot.rttEstimator.getMaxRtoNanos());
+                slot.rttEstimator.backoff(slot.rtoNanos);
+                // After the last retransmission, wait for the reply until the reply timeout
+                timer.scheduleAt(slot, slot.retransmissionsLeft > 0
+                    ? Math.min(nowNanos + slot.rtoNanos, slot.timeoutNanos) : slot.timeoutNanos);
+            } else {
+                future = slot.future;
+                release(slot);
+            }
+        }
+        if (frame != null) {
+            retransmit(frame, address, statistics, protocol, comId, sequenceCounter);
+            return;
+        }
+        statistics.transport(protocol).increment(TrdpCounter.MD_TIMEOUTS);
+        statistics.comId(comId).increment(TrdpCounter.MD_TIMEOUTS);
+        logger.warn("MD request timeout: ComID={}, SeqNo={}", comId, sequenceCounter);
+        future.completeExceptionally(new TimeoutException());
+    }
+
+    private void retransmit(byte[] frame, InetSocketAddress address, TrdpStatistics statistics,
+                            TransportProtocol protocol, int comId, int sequenceCounter) {
+        try {
+            retransmitter.retransmit(frame, address);
+        } catch (IOException e) {
+            logger.warn("MD request retransmission failed: ComID={}, SeqNo={}: {}",
+                        comId, sequenceCounter, e.getMessage());
+            return;
+        }
+        statistics.transport(protocol).increment(TrdpCounter.MD_RETRANSMISSIONS);
+        statistics.comId(comId).increment(TrdpCounter.MD_RETRANSMISSIONS);
+        statistics.recordTx(protocol, comId, frame.length - TrdpConstants.TRDP_MD_HEADER_SIZE - TrdpConstants.TRDP_FCS_SIZE);
+        logger.debug("Retransmitted MD request: ComID={}, SeqNo={}", comId, sequenceCounter);
+    }
+
+    private final class Slot extends HashedWheelTimer.Timeout {
+        private int sequenceCounter;
+        private int comId;
+        private TransportProtocol protocol;
+        private CompletableFuture<MdReply> future;
+        private TrdpStatistics statistics;
+        private long sentNanos;
+        private long timeoutNanos;
+        private MdRttEstimator rttEstimator;
+        private byte[] frame;
+        private InetSocketAddress address;
+        private int retransmissionsLeft;
+        private int retransmissions;
+        private long rtoNanos;
+
+        @Override
+        protected void expire(long nowNanos) {
+            MdPendingRequests.this.expire(this, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.trdp.md;
+
+/**
+ * Priority class of a ComID in the replier's worker queue. Queued requests of a higher
+ * class are always handled before those of a lower one.
+ */
+public enum MdPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -1,43 +1,177 @@
 package com.trdp.md;
 
-import com.trdp.network.ReceivedPacket; // Import ReceivedPacket
-import com.trdp.network.UdpTransport;
+import com.trdp.network.DatagramBatch;
+import com.trdp.network.NioEventLoop;
+import com.trdp.network.NioEventLoopGroup;
+import com.trdp.network.TcpChannel;
+import com.trdp.network.TcpFrameHandler;
+import com.trdp.network.UdpChannel;
 import com.trdp.protocol.TrdpConstants;
 import com.trdp.protocol.TrdpHeader;
 import com.trdp.protocol.TrdpMdHeader;
 import com.trdp.protocol.TrdpMessageType;
 import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.stats.LatencyHistogram;
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Answers MD requests on one UDP and one TCP port.
+ *
+ * <p>The UDP socket and accepted TCP connections are non-blocking and serviced by a fixed
+ * set of selector threads (see {@link MdConfig}), which only read and decode requests
+ * and write replies. UDP datagrams are drained in batches per wakeup. Decoded requests
+ * are handled on a pool of {@link MdConfig#setHandlerThreads handler threads}, or in
+ * {@link MdExecutionMode#VIRTUAL_THREADS} mode each on its own virtual thread, so a
+ * slow handler never holds up other requests. Replies are sent as they complete; TCP
+ * replies completing before the connection's next flush go out in one gathering write.
+ *
+ * <p>An {@link MdAsyncRequestHandler} keeps slow work off the handler threads: the reply
+ * is sent whenever the returned stage completes.
+ *
+ * <p>With {@link MdConfig#setWorkerThreads worker threads} configured, requests of both
+ * transports are queued to a bounded, per-ComID prioritized worker pool instead, and a
+ * full queue sheds requests according to the configured {@link MdShedPolicy}.
+ *
+ * <p>Encoded UDP replies are kept for a while (see {@link MdConfig#setReplyCacheSize}),
+ * so a request retransmitted after its reply was lost gets the same reply frame again
+ * without the handler running twice. A retransmission that arrives while the original
+ * is still being handled is dropped.
+ */
 public class MdReplier implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(MdReplier.class);
     
-    private final UdpTransport udpTransport;
-    private final ServerSocket tcpListener;
-    private final MdRequestHandler handler;
-    private final ExecutorService executor;
+    private final UdpChannel udpChannel;
+    private final ServerSocketChannel tcpListener;
+    private final MdAsyncRequestHandler handler;
+    private final AtomicInteger pendingReplies = new AtomicInteger();
+    // Runs request handlers off the selector threads, null when the worker pool does
+    private final Executor handlers;
+    // Platform handler threads behind handlers, null in virtual thread mode
+    private final ExecutorService handlerPool;
+    // Bounded handler queue, or null to run handlers on handlers
+    private final MdWorkerPool workerPool;
+    // Replies to recent UDP requests, or null if disabled
+    private final MdReplyCache replyCache;
+    private final MdConfig config;
+    private final NioEventLoopGroup ioGroup;
+    private final boolean ownsIoGroup;
+    private final Set<TcpChannel> tcpConnections = ConcurrentHashMap.newKeySet();
+    private final TcpFrameHandler tcpRequestHandler;
+    // Used by the UDP channel's loop thread only
+    private final TrdpPacketView udpView = new TrdpPacketView();
+    private volatile TrdpStatistics statistics = TrdpStatistics.global();
     private volatile boolean running;
     
     public MdReplier(int port, MdRequestHandler handler) throws IOException {
-        this.udpTransport = new UdpTransport(port);
-        this.tcpListener = new ServerSocket(port);
+        this(port, handler, new MdConfig());
+    }
+    
+    public MdReplier(int port, MdRequestHandler handler, MdConfig config) throws IOException {
+        this(port, blocking(handler), config);
+    }
+    
+    public MdReplier(int port, MdAsyncRequestHandler handler) throws IOException {
+        this(port, handler, new MdConfig());
+    }
+    
+    public MdReplier(int port, MdAsyncRequestHandler handler, MdConfig config) throws IOException {
+        this.ownsIoGroup = config.getEventLoopGroup() == null;
+        this.ioGroup = ownsIoGroup ? new NioEventLoopGroup("MD-Replier-IO", config.getIoThreads())
+                                   : config.getEventLoopGroup();
+        try {
+            this.udpChannel = new UdpChannel(ioGroup.next(), port, new DatagramBatch(), this::onUdpBatch);
+        } catch (IOException e) {
+            closeIoGroup();
+            throw e;
+        }
+        try {
+            this.tcpListener = ServerSocketChannel.open();
+            tcpListener.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            tcpListener.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            udpChannel.close();
+            closeIoGroup();
+            throw e;
+        }
         this.handler = handler;
-        this.executor = Executors.newCachedThreadPool();
+        this.config = config;
+        this.replyCache = config.getReplyCacheSize() == 0 ? null
+            : new MdReplyCache(config.getReplyCacheSize(), TimeUnit.MILLISECONDS.toNanos(config.getReplyCacheTimeoutMs()));
+        this.workerPool = config.getWorkerThreads() == 0 ? null
+            : new MdWorkerPool(config.getWorkerThreads(), config.getWorkerQueueCapacity(), config.getShedPolicy(),
+                               config.threadFactory("MD-Replier-Worker"), new MdWorkerPool.Handler() {
+                @Override
+                public void run(MdRequest request, TcpChannel connection) {
+                    handle(request, connection);
+                }
+
+                @Override
+                public void shed(MdRequest request, TcpChannel connection) {
+                    MdReplier.this.shed(request, connection);
+                }
+            });
+        if (workerPool != null) {
+            this.handlerPool = null;
+            this.handlers = null;
+        } else if (config.usesVirtualThreads()) {
+            ThreadFactory handlerThreads = config.threadFactory("MD-Replier-Handler");
+            this.handlerPool = null;
+            this.handlers = task -> handlerThreads.newThread(task).start();
+        } else {
+            this.handlerPool = Executors.newFixedThreadPool(config.getHandlerThreads(),
+                                                            config.threadFactory("MD-Replier-Handler"));
+            this.handlers = handlerPool;
+        }
+        this.tcpRequestHandler = new TcpFrameHandler() {
+            @Override
+            public void onFrame(TcpChannel channel, TrdpPacketView frame) {
+                processTcpRequest(frame, channel);
+            }
+
+            @Override
+            public void onClosed(TcpChannel channel) {
+                tcpConnections.remove(channel);
+                logger.debug("TCP connection from {} closed", channel.getRemoteAddress());
+            }
+        };
         
         logger.info("MD Replier created on port {}", port);
     }
     
+    private static MdAsyncRequestHandler blocking(MdRequestHandler handler) {
+        return request -> CompletableFuture.completedFuture(handler.handleRequest(request.getComId(), request.getData()));
+    }
+    
+    /**
+     * Starts answering requests.
+     *
+     * @throws IllegalStateException if the TCP listener could not be registered with its
+     *         selector thread, e.g. because a shared event loop group has been closed
+     */
     public void start() {
         if (running) {
             logger.warn("MD Replier already running");
@@ -45,174 +179,305 @@ public class MdReplier implements AutoCloseable {
         }
         
         running = true;
-        executor.submit(this::udpReceiveLoop);
-        executor.submit(this::tcpReceiveLoop);
+        try {
+            ioGroup.next().register(tcpListener, SelectionKey.OP_ACCEPT, key -> acceptTcpConnections())
+                .get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            running = false;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Failed to start accepting TCP connections",
+                                            e instanceof ExecutionException ? e.getCause() : e);
+        }
         logger.info("MD Replier started");
     }
     
-    private void udpReceiveLoop() {
-        byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
-        
-        while (running) {
-            try {
-                ReceivedPacket received = udpTransport.receiveWithSource(buffer, TrdpConstants.DEFAULT_MD_TIMEOUT_MS);
-                
-                if (received != null) {
-                    processUdpRequest(received.getData(), received.getLength(),
-                                      received.getSourceAddress(), received.getSourcePort());
-                }
-            } catch (IOException e) {
-                if (running) {
-                    logger.error("Error receiving UDP MD request", e);
-                }
-            }
+    private void onUdpBatch(DatagramBatch batch) {
+        if (!running) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            processUdpRequest(udpView.wrap(batch.buffer(), batch.offset(i), batch.length(i)),
+                              (InetSocketAddress) batch.source(i));
         }
     }
 
-    private void tcpReceiveLoop() {
-        while (running) {
+    private void acceptTcpConnections() throws IOException {
+        SocketChannel socketChannel;
+        while ((socketChannel = tcpListener.accept()) != null) {
+            logger.debug("Accepted TCP connection from {}", socketChannel.getRemoteAddress());
+            NioEventLoop loop = ioGroup.next();
             try {
-                Socket clientSocket = tcpListener.accept();
-                logger.debug("Accepted TCP connection from {}", clientSocket.getRemoteSocketAddress());
-                executor.submit(() -> handleTcpConnection(clientSocket));
-            } catch (IOException e) {
-                if (running) {
-                    logger.error("Error accepting TCP connection", e);
+                TcpChannel connection = new TcpChannel(loop, socketChannel, tcpRequestHandler);
+                connection.setMaxQueuedBytes(config.getMaxTcpQueuedBytes());
+                tcpConnections.add(connection);
+                if (!running) {
+                    connection.close();
                 }
+            } catch (IOException e) {
+                logger.error("Error registering TCP connection", e);
             }
         }
     }
-    
-    private void handleTcpConnection(Socket clientSocket) {
-        try (clientSocket) {
-            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
-            InputStream in = clientSocket.getInputStream();
 
-            while (running && !clientSocket.isClosed()) {
-                int bytesRead = in.read(buffer);
-                if (bytesRead > 0) {
-                    processTcpRequest(buffer, bytesRead, clientSocket);
-                } else {
-                    break; // Client closed connection
-                }
+    private void processUdpRequest(TrdpPacketView view, InetSocketAddress source) {
+        if (!isValidRequest(view, TransportProtocol.UDP)) {
+            return;
+        }
+        MdRequest request = toRequest(view, TransportProtocol.UDP, source);
+        if (replyCache != null) {
+            MdReplyCache.Entry cached = replyCache.claim(request, System.nanoTime());
+            if (cached != null) {
+                resendReply(request, cached.getReplyFrame());
+                return;
             }
-        } catch (IOException e) {
-            logger.error("Error handling TCP connection", e);
         }
+        dispatch(request, null);
     }
 
-    private void processUdpRequest(byte[] buffer, int length, InetAddress sourceAddress, int sourcePort) {
+    /**
+     * Answers a repeated UDP request with the reply frame of the original, if that one
+     * has been answered yet.
+     */
+    private void resendReply(MdRequest request, byte[] replyFrame) {
+        statistics.transport(TransportProtocol.UDP).increment(TrdpCounter.DUPLICATES);
+        statistics.comId(request.getComId()).increment(TrdpCounter.DUPLICATES);
+        if (replyFrame == null) {
+            logger.debug("Dropping repeated MD request still being handled: {}", request);
+            return;
+        }
         try {
-            byte[] packetData = new byte[length];
-            System.arraycopy(buffer, 0, packetData, 0, length);
-            
-            TrdpPacket requestPacket = TrdpPacket.decode(packetData);
-            
-            if (requestPacket.getHeader().getMessageType() != TrdpMessageType.MD_REQUEST) {
-                logger.warn("Received non-request MD message, ignoring");
-                return;
-            }
-            
-            byte[] replyData = handler.handleRequest(requestPacket.getHeader().getComId(), 
-                                                     requestPacket.getPayload());
-            
-            if (replyData != null) {
-                // Get the reply IP from the TRDP header (as per spec)
-                int replyIp = requestPacket.getHeader().getReplyIpAddress();
-                InetAddress replyAddress = InetAddress.getByAddress(new byte[] {
-                    (byte)((replyIp >> 24) & 0xFF),
-                    (byte)((replyIp >> 16) & 0xFF),
-                    (byte)((replyIp >> 8) & 0xFF),
-                    (byte)(replyIp & 0xFF)
-                });
-
-                // Get the reply port from the UDP packet source
-                int replyPort = sourcePort;
-
-                sendReply(requestPacket, replyData, replyAddress, replyPort);
-            }
+            sendUdp(replyFrame, request);
+            statistics.recordTx(TransportProtocol.UDP, request.getReplyComId(),
+                                replyFrame.length - TrdpConstants.TRDP_MD_HEADER_SIZE - TrdpConstants.TRDP_FCS_SIZE);
+            logger.debug("Resent cached MD reply: ComID={}, SeqNo={}",
+                       request.getReplyComId(), request.getSequenceCounter());
         } catch (Exception e) {
-            logger.error("Error processing MD request", e);
+            logger.error("Error resending MD reply for {}", request, e);
         }
     }
     
-    private void processTcpRequest(byte[] buffer, int length, Socket clientSocket) {
-        try {
-            byte[] packetData = new byte[length];
-            System.arraycopy(buffer, 0, packetData, 0, length);
+    private void processTcpRequest(TrdpPacketView view, TcpChannel connection) {
+        if (!isValidRequest(view, TransportProtocol.TCP)) {
+            return;
+        }
+        // The view is only valid during this call, the request holds a copy
+        dispatch(toRequest(view, TransportProtocol.TCP, connection.getRemoteAddress()), connection);
+    }
 
-            TrdpPacket requestPacket = TrdpPacket.decode(packetData);
+    private void dispatch(MdRequest request, TcpChannel connection) {
+        if (workerPool != null) {
+            workerPool.submit(request, connection, config.getComIdPriority(request.getComId()));
+        } else {
+            try {
+                handlers.execute(() -> handle(request, connection));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Dropping MD request {} received while closing", request);
+            }
+        }
+    }
 
-            if (requestPacket.getHeader().getMessageType() != TrdpMessageType.MD_REQUEST) {
-                logger.warn("Received non-request MD message, ignoring");
-                return;
+    private static MdRequest toRequest(TrdpPacketView view, TransportProtocol protocol, InetSocketAddress source) {
+        return new MdRequest(view.getComId(), view.getReplyComId(), view.getSequenceCounter(),
+                             view.getReplyIpAddress(), view.copyPayload(), protocol, source);
+    }
+
+    /**
+     * Passes a request to the handler and sends its reply once the handler completes,
+     * over {@code connection} or, if {@code null}, over UDP.
+     */
+    private void handle(MdRequest request, TcpChannel connection) {
+        CompletionStage<byte[]> reply;
+        try {
+            reply = handler.handleRequest(request);
+        } catch (Exception e) {
+            logger.error("Error processing MD request {}", request, e);
+            releaseCachedReply(request, connection);
+            return;
+        }
+        if (reply == null) {
+            releaseCachedReply(request, connection);
+            return;
+        }
+        pendingReplies.incrementAndGet();
+        reply.whenComplete((replyData, error) -> {
+            pendingReplies.decrementAndGet();
+            if (error != null) {
+                logger.error("Error processing MD request {}", request, error);
+                releaseCachedReply(request, connection);
+            } else if (replyData != null) {
+                sendReply(request, TrdpMessageType.MD_REPLY, TrdpConstants.MD_REPLY_STATUS_OK, replyData, connection);
+            } else {
+                releaseCachedReply(request, connection);
             }
+        });
+    }
 
-            byte[] replyData = handler.handleRequest(requestPacket.getHeader().getComId(),
-                                                     requestPacket.getPayload());
+    /**
+     * Gives up on a request the worker queue had no room for. Under
+     * {@link MdShedPolicy#REPLY_ERROR} the requester is told so right away.
+     */
+    private void shed(MdRequest request, TcpChannel connection) {
+        statistics.transport(request.getProtocol()).increment(TrdpCounter.MD_REQUESTS_SHED);
+        statistics.comId(request.getComId()).increment(TrdpCounter.MD_REQUESTS_SHED);
+        logger.debug("Shed MD request {}", request);
+        releaseCachedReply(request, connection);
+        if (config.getShedPolicy() == MdShedPolicy.REPLY_ERROR) {
+            sendReply(request, TrdpMessageType.MD_ERROR, TrdpConstants.MD_REPLY_STATUS_NO_REPLIER_MEMORY,
+                      new byte[0], connection);
+        }
+    }
 
-            if (replyData != null) {
-                sendReply(requestPacket, replyData, clientSocket);
+    private void sendReply(MdRequest request, TrdpMessageType messageType, int replyStatus, byte[] replyData,
+                           TcpChannel connection) {
+        try {
+            byte[] encodedPacket = encodeReply(messageType, replyStatus, request.getSequenceCounter(),
+                                               request.getReplyComId(), replyData);
+
+            if (connection != null) {
+                connection.send(encodedPacket, 0, encodedPacket.length);
+            } else {
+                if (replyCache != null && messageType == TrdpMessageType.MD_REPLY) {
+                    replyCache.complete(request, encodedPacket);
+                }
+                sendUdp(encodedPacket, request);
             }
+            statistics.recordTx(request.getProtocol(), request.getReplyComId(), replyData.length);
+
+            logger.debug("Sent {} {}: ComID={}, SeqNo={}",
+                       request.getProtocol(), messageType, request.getReplyComId(), request.getSequenceCounter());
         } catch (Exception e) {
-            logger.error("Error processing TCP MD request", e);
+            logger.error("Error sending MD reply for {}", request, e);
         }
     }
 
-    private void sendReply(TrdpPacket requestPacket, byte[] replyData, 
-                           InetAddress replyAddress, int replyPort) throws IOException {
-        
-        TrdpMdHeader replyHeader = new TrdpMdHeader();
-        replyHeader.setSequenceCounter(requestPacket.getHeader().getSequenceCounter());
-        replyHeader.setMessageType(TrdpMessageType.MD_REPLY);
-        replyHeader.setComId(requestPacket.getHeader().getReplyComId());
-        
-        TrdpPacket replyPacket = new TrdpPacket(replyHeader, replyData);
-        byte[] encodedPacket = replyPacket.encode();
-        
-        udpTransport.send(encodedPacket, replyAddress, replyPort);
-        
-        logger.debug("Sent UDP MD reply: ComID={}, SeqNo={}",
-                   replyHeader.getComId(), replyHeader.getSequenceCounter());
+    /**
+     * Sends a UDP reply to the reply IP from the TRDP header (as per spec) and the port
+     * the request came from.
+     */
+    private void sendUdp(byte[] frame, MdRequest request) throws IOException {
+        InetSocketAddress target = new InetSocketAddress(replyAddress(request), request.getSource().getPort());
+        if (!udpChannel.send(frame, 0, frame.length, target)) {
+            throw new IOException("UDP send queue full, reply to " + target + " dropped");
+        }
     }
 
-    private void sendReply(TrdpPacket requestPacket, byte[] replyData, Socket clientSocket) throws IOException {
-        TrdpMdHeader replyHeader = new TrdpMdHeader();
-        replyHeader.setSequenceCounter(requestPacket.getHeader().getSequenceCounter());
-        replyHeader.setMessageType(TrdpMessageType.MD_REPLY);
-        replyHeader.setComId(requestPacket.getHeader().getReplyComId());
+    /**
+     * @return the reply IP from the TRDP header (as per spec).
+     */
+    private static InetAddress replyAddress(MdRequest request) throws IOException {
+        int replyIp = request.getReplyIpAddress();
+        return InetAddress.getByAddress(new byte[] {
+            (byte)((replyIp >> 24) & 0xFF),
+            (byte)((replyIp >> 16) & 0xFF),
+            (byte)((replyIp >> 8) & 0xFF),
+            (byte)(replyIp & 0xFF)
+        });
+    }
+
+    private void releaseCachedReply(MdRequest request, TcpChannel connection) {
+        if (replyCache != null && connection == null) {
+            replyCache.release(request);
+        }
+    }
 
-        TrdpPacket replyPacket = new TrdpPacket(replyHeader, replyData);
-        byte[] encodedPacket = replyPacket.encode();
+    private boolean isValidRequest(TrdpPacketView request, TransportProtocol protocol) {
+        TrdpPacketView.Status status = request.verify();
+        if (status != TrdpPacketView.Status.VALID) {
+            statistics.recordInvalid(protocol, request, status);
+            logger.warn("Discarding invalid MD packet: {}", status);
+            return false;
+        }
+
+        if (request.getMessageType() != TrdpMessageType.MD_REQUEST) {
+            statistics.recordUnexpectedType(protocol, request.getComId());
+            logger.warn("Received non-request MD message, ignoring");
+            return false;
+        }
+        statistics.recordRx(protocol, request.getComId(), request.getPayloadLength());
+        return true;
+    }
 
-        OutputStream out = clientSocket.getOutputStream();
-        out.write(encodedPacket);
-        out.flush();
+    private byte[] encodeReply(TrdpMessageType messageType, int replyStatus, int sequenceCounter, int replyComId,
+                               byte[] replyData) {
+        TrdpMdHeader replyHeader = new TrdpMdHeader();
+        replyHeader.setSequenceCounter(sequenceCounter);
+        replyHeader.setMessageType(messageType);
+        replyHeader.setComId(replyComId);
+        replyHeader.setReplyStatus(replyStatus);
 
-        logger.debug("Sent TCP MD reply: ComID={}, SeqNo={}",
-                   replyHeader.getComId(), replyHeader.getSequenceCounter());
+        return new TrdpPacket(replyHeader, replyData).encode();
+    }
+    
+    public void setStatistics(TrdpStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
+    /**
+     * @return the number of handled requests whose reply is not yet complete.
+     */
+    public int getPendingReplyCount() {
+        return pendingReplies.get();
+    }
+    
+    /**
+     * @return the number of requests waiting for a worker, 0 without a worker pool.
+     */
+    public int getWorkerQueueDepth() {
+        return workerPool != null ? workerPool.getQueueDepth() : 0;
+    }
+    
+    public int getWorkerQueueDepth(MdPriority priority) {
+        return workerPool != null ? workerPool.getQueueDepth(priority) : 0;
+    }
+    
+    public int getPeakWorkerQueueDepth() {
+        return workerPool != null ? workerPool.getPeakQueueDepth() : 0;
+    }
+    
+    public long getShedRequestCount() {
+        return workerPool != null ? workerPool.getShedCount() : 0;
+    }
+    
+    /**
+     * @return the number of repeated UDP requests answered from the reply cache or
+     *         dropped because the original was still being handled.
+     */
+    public long getReplyCacheHits() {
+        return replyCache != null ? replyCache.getHits() : 0;
+    }
+    
+    /**
+     * @return time requests spent waiting for a worker, or {@code null} without a worker pool.
+     */
+    public LatencyHistogram getWorkerQueueWaitTime() {
+        return workerPool != null ? workerPool.getQueueWaitTime() : null;
     }
     
     @Override
     public void close() {
         running = false;
-        executor.shutdown();
-        try {
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-
+        udpChannel.close();
         try {
             tcpListener.close();
         } catch (IOException e) {
             logger.error("Error closing TCP listener", e);
         }
-
-        udpTransport.close();
+        tcpConnections.forEach(TcpChannel::close);
+        if (workerPool != null) {
+            workerPool.close();
+        }
+        if (handlerPool != null) {
+            handlerPool.shutdownNow();
+        }
+        closeIoGroup();
         logger.info("MD Replier closed");
     }
+
+    private void closeIoGroup() {
+        if (ownsIoGroup) {
+            ioGroup.close();
+        }
+    }
 }
@@ -0,0 +1,148 @@
+package com.trdp.md;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Remembers the encoded replies to recent UDP MD requests, so a request the requester
+ * retransmits after losing the reply is answered again without running the handler.
+ *
+ * <p>Requests are identified by their source address, sequence counter and ComID, and
+ * a repeat must also carry the same data. A request is claimed when it first arrives;
+ * a repeat that arrives while the first is still being handled is dropped, as the reply
+ * to the first one answers it. Entries expire a fixed time after the request arrived,
+ * and the oldest entry is evicted once the cache is full.
+ */
+final class MdReplyCache {
+
+    private final int capacity;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+    private long hits;
+
+    MdReplyCache(int capacity, long timeToLiveNanos) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Reply cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.timeToLiveNanos = timeToLiveNanos;
+    }
+
+    /**
+     * Looks up a repeat of {@code request}, or claims an entry for it if there is none.
+     *
+     * @return {@code null} if the request is new and should be handled, otherwise the
+     *         entry of the earlier request, whose reply frame is {@code null} while it
+     *         is still being handled.
+     */
+    synchronized Entry claim(MdRequest request, long nowNanos) {
+        expire(nowNanos);
+        Key key = new Key(request);
+        Entry entry = entries.get(key);
+        if (entry != null && Arrays.equals(entry.requestData, request.getData())) {
+            hits++;
+            return entry;
+        }
+        if (entry != null) {
+            // Same sequence counter but different data, e.g. a restarted requester
+            entries.remove(key);
+        } else if (entries.size() == capacity) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        entries.put(key, new Entry(request.getData(), nowNanos));
+        return null;
+    }
+
+    /**
+     * Stores the reply frame for a claimed request. The frame must not be modified
+     * afterwards.
+     */
+    synchronized void complete(MdRequest request, byte[] replyFrame) {
+        Entry entry = entries.get(new Key(request));
+        if (entry != null && entry.requestData == request.getData()) {
+            entry.replyFrame = replyFrame;
+        }
+    }
+
+    /**
+     * Drops the claim of a request that will not be answered, so a repeat is handled.
+     */
+    synchronized void release(MdRequest request) {
+        Key key = new Key(request);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.requestData == request.getData()) {
+            entries.remove(key);
+        }
+    }
+
+    private void expire(long nowNanos) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && nowNanos - iterator.next().createdNanos >= timeToLiveNanos) {
+            iterator.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of repeated requests found in the cache.
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    static final class Entry {
+        private final byte[] requestData;
+        private final long createdNanos;
+        private volatile byte[] replyFrame;
+
+        private Entry(byte[] requestData, long createdNanos) {
+            this.requestData = requestData;
+            this.createdNanos = createdNanos;
+        }
+
+        /**
+         * @return the encoded reply, or {@code null} while the request is being handled.
+         */
+        byte[] getReplyFrame() {
+            return replyFrame;
+        }
+    }
+
+    private static final class Key {
+        private final InetSocketAddress source;
+        private final int sequenceCounter;
+        private final int comId;
+
+        Key(MdRequest request) {
+            this.source = request.getSource();
+            this.sequenceCounter = request.getSequenceCounter();
+            this.comId = request.getComId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return sequenceCounter == key.sequenceCounter && comId == key.comId && Objects.equals(source, key.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(source) + sequenceCounter) + comId;
+        }
+    }
+}
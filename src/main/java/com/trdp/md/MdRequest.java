@@ -0,0 +1,45 @@
+package com.trdp.md;
+
+import java.net.InetSocketAddress;
+
+/**
+ * MD request as handed to an {@link MdAsyncRequestHandler}. The data is a copy owned by
+ * the request, so it may be kept after the handler returns.
+ */
+public final class MdRequest {
+    private final int comId;
+    private final int replyComId;
+    private final int sequenceCounter;
+    private final int replyIpAddress;
+    private final byte[] data;
+    private final TransportProtocol protocol;
+    private final InetSocketAddress source;
+
+    public MdRequest(int comId, int replyComId, int sequenceCounter, int replyIpAddress, byte[] data,
+                     TransportProtocol protocol, InetSocketAddress source) {
+        this.comId = comId;
+        this.replyComId = replyComId;
+        this.sequenceCounter = sequenceCounter;
+        this.replyIpAddress = replyIpAddress;
+        this.data = data;
+        this.protocol = protocol;
+        this.source = source;
+    }
+
+    public int getComId() { return comId; }
+    public int getReplyComId() { return replyComId; }
+    public int getSequenceCounter() { return sequenceCounter; }
+    public int getReplyIpAddress() { return replyIpAddress; }
+    public byte[] getData() { return data; }
+    public TransportProtocol getProtocol() { return protocol; }
+
+    /**
+     * @return the address the request was received from.
+     */
+    public InetSocketAddress getSource() { return source; }
+
+    @Override
+    public String toString() {
+        return "MdRequest[ComID=" + comId + ", SeqNo=" + sequenceCounter + ", " + protocol + ", from " + source + "]";
+    }
+}
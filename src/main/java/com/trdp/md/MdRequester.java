@@ -1,57 +1,121 @@
 package com.trdp.md;
 
-import com.trdp.network.TcpTransport;
-import com.trdp.network.UdpTransport;
+import com.trdp.network.DatagramBatch;
+import com.trdp.network.NioEventLoopGroup;
+import com.trdp.network.TcpChannel;
+import com.trdp.network.TcpFrameHandler;
+import com.trdp.network.UdpChannel;
 import com.trdp.protocol.TrdpConstants;
-import com.trdp.protocol.TrdpHeader;
-import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpFrame;
 import com.trdp.protocol.TrdpMessageType;
-import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.stats.TrdpStatistics;
+import com.trdp.util.HashedWheelTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch; // Import CountDownLatch
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Sends MD requests and correlates their replies.
+ *
+ * <p>UDP replies arrive on the requester's own non-blocking socket, drained in batches
+ * by one of a fixed set of selector threads (see {@link MdConfig}). A request the socket
+ * send buffer cannot take right away is queued and sent once it drains. TCP requests go
+ * over one non-blocking connection per destination, shared by all requests to it and
+ * serviced by the same selector threads, so any number of requests can be in flight on
+ * a connection and replies are matched by sequence counter in whatever order they come
+ * back. A connection that fails is dropped and reopened by the next
+ * request to that destination; requests still in flight on it fail at once with a
+ * {@link ClosedChannelException} instead of waiting for the reply timeout.
+ *
+ * <p>The round trip time to every UDP destination is tracked by an
+ * {@link MdRttEstimator}. With {@link MdConfig#setMaxRetransmissions retransmissions}
+ * enabled, an unanswered UDP request is resent once the estimated retransmission
+ * timeout has passed, with exponential backoff, so a lost datagram costs about one
+ * round trip instead of the whole reply timeout. Retransmissions keep the sequence
+ * counter, so a late reply to any copy completes the request.
+ */
 public class MdRequester implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(MdRequester.class);
     
-    private final UdpTransport udpTransport;
-    private final ConcurrentHashMap<String, TcpTransport> tcpConnections;
+    public static final int DEFAULT_MAX_PENDING_REQUESTS = 4096;
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    
+    private final UdpChannel udpChannel;
+    private final MdConfig config;
+    private final ConcurrentHashMap<InetSocketAddress, TcpChannel> tcpConnections;
+    // Sequence counters of the requests awaiting a reply on each TCP connection
+    private final ConcurrentHashMap<TcpChannel, Set<Integer>> tcpInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InetSocketAddress, MdRttEstimator> rttEstimators = new ConcurrentHashMap<>();
+    private final long replyTimeoutNanos;
+    private final TcpFrameHandler tcpReplyHandler;
+    private final NioEventLoopGroup ioGroup;
+    private final boolean ownsIoGroup;
     private final AtomicInteger sequenceCounter;
-    private final ConcurrentHashMap<Integer, CompletableFuture<MdReply>> pendingRequests;
-    private volatile boolean running;
-    private final CountDownLatch listenerReadyLatch = new CountDownLatch(1); // Add this latch
+    private final HashedWheelTimer timer;
+    private final boolean ownsTimer;
+    private final MdPendingRequests pendingRequests;
+    private volatile TrdpStatistics statistics = TrdpStatistics.global();
+    // Used by the UDP channel's loop thread only
+    private final TrdpPacketView udpView = new TrdpPacketView();
 
     public MdRequester(int localPort) throws IOException {
-        this.udpTransport = new UdpTransport(localPort);
-        this.tcpConnections = new ConcurrentHashMap<>();
-        this.sequenceCounter = new AtomicInteger(0);
-        this.pendingRequests = new ConcurrentHashMap<>();
-        this.running = true;
-        
-        startUdpReplyListener();
-        
-        // Add this block to wait for the listener thread to be ready
+        this(localPort, new MdConfig());
+    }
+    
+    /**
+     * Creates a requester whose reply timeouts run on a shared {@code timer}, or on its
+     * own timer if {@code null}. At most {@code maxPendingRequests} (a power of two)
+     * requests can be outstanding at once.
+     */
+    public MdRequester(int localPort, HashedWheelTimer timer, int maxPendingRequests) throws IOException {
+        this(localPort, new MdConfig().setTimer(timer).setMaxPendingRequests(maxPendingRequests));
+    }
+    
+    public MdRequester(int localPort, MdConfig config) throws IOException {
+        this.config = config;
+        this.replyTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getReplyTimeoutMs());
+        this.ownsIoGroup = config.getEventLoopGroup() == null;
+        this.ioGroup = ownsIoGroup ? new NioEventLoopGroup("MD-Requester-IO", config.getIoThreads())
+                                   : config.getEventLoopGroup();
+        this.ownsTimer = config.getTimer() == null;
+        this.timer = ownsTimer ? new HashedWheelTimer("MD-Requester-Timeouts", DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE)
+                               : config.getTimer();
         try {
-            if (!listenerReadyLatch.await(5, TimeUnit.SECONDS)) {
-                // Handle timeout: close transport and throw exception
-                running = false;
-                udpTransport.close();
-                throw new IOException("MD Requester listener thread failed to start in time.");
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            // Handle interruption: close transport and throw exception
-            running = false;
-            udpTransport.close();
-            throw new IOException("Interrupted while waiting for listener to start", e);
+            this.pendingRequests = new MdPendingRequests(this.timer, config.getMaxPendingRequests(),
+                (frame, address) -> sendUdp(frame, 0, frame.length, address));
+            this.udpChannel = new UdpChannel(ioGroup.next(), localPort, new DatagramBatch(), this::onUdpBatch);
+        } catch (IllegalArgumentException | IOException e) {
+            closeTimer();
+            closeIoGroup();
+            throw e;
         }
+        this.tcpConnections = new ConcurrentHashMap<>();
+        this.tcpReplyHandler = new TcpFrameHandler() {
+            @Override
+            public void onFrame(TcpChannel channel, TrdpPacketView frame) {
+                processReply(frame, TransportProtocol.TCP);
+            }
+
+            @Override
+            public void onClosed(TcpChannel channel) {
+                tcpConnections.remove(channel.getRemoteAddress(), channel);
+                failInFlight(channel);
+            }
+        };
+        this.sequenceCounter = new AtomicInteger(0);
         
         logger.info("MD Requester created on port {}", localPort);
     }
@@ -69,131 +133,206 @@ public class MdRequester implements AutoCloseable {
     public CompletableFuture<MdReply> sendRequest(int comId, byte[] data,
                                                    String destinationAddress, int destinationPort,
                                                    int replyComId, TransportProtocol protocol) {
+        MdDestination destination;
+        try {
+            destination = resolve(comId, replyComId, destinationAddress, destinationPort, protocol);
+        } catch (IOException e) {
+            CompletableFuture<MdReply> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return sendRequest(destination, data);
+    }
+
+    public MdDestination resolve(int comId, String destinationAddress, int destinationPort) throws IOException {
+        return resolve(comId, comId, destinationAddress, destinationPort, TransportProtocol.UDP);
+    }
+
+    /**
+     * Resolves a destination once into a handle that can be passed to
+     * {@link #sendRequest(MdDestination, byte[])} any number of times.
+     */
+    public MdDestination resolve(int comId, int replyComId, String destinationAddress, int destinationPort,
+                                 TransportProtocol protocol) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(destinationAddress), destinationPort);
+        byte[] addrBytes = InetAddress.getLocalHost().getAddress();
+        int replyIp = ((addrBytes[0] & 0xFF) << 24) |
+                      ((addrBytes[1] & 0xFF) << 16) |
+                      ((addrBytes[2] & 0xFF) << 8) |
+                      (addrBytes[3] & 0xFF);
+        return new MdDestination(address, protocol, comId, replyComId, replyIp);
+    }
+
+    /**
+     * Sends a request through a pre-resolved destination. The request frame is rebuilt
+     * in place from the handle's header template, without name lookups.
+     */
+    public CompletableFuture<MdReply> sendRequest(MdDestination destination, byte[] data) {
         if (data.length > TrdpConstants.TRDP_MAX_MD_DATA_SIZE) {
             CompletableFuture<MdReply> future = new CompletableFuture<>();
             future.completeExceptionally(new IllegalArgumentException("Data size exceeds maximum MD data size"));
             return future;
         }
         
+        int comId = destination.getComId();
+        TransportProtocol protocol = destination.getProtocol();
         int seqNo = sequenceCounter.getAndIncrement();
         CompletableFuture<MdReply> future = new CompletableFuture<>();
         
         try {
-            InetAddress localAddress = InetAddress.getLocalHost();
-            byte[] addrBytes = localAddress.getAddress();
-            int replyIp = ((addrBytes[0] & 0xFF) << 24) |
-                         ((addrBytes[1] & 0xFF) << 16) |
-                         ((addrBytes[2] & 0xFF) << 8) |
-                         (addrBytes[3] & 0xFF);
-            
-            TrdpMdHeader header = new TrdpMdHeader();
-            header.setSequenceCounter(seqNo);
-            header.setMessageType(TrdpMessageType.MD_REQUEST);
-            header.setComId(comId);
-            header.setReplyComId(replyComId);
-            header.setReplyIpAddress(replyIp);
-            
-            TrdpPacket packet = new TrdpPacket(header, data);
-            byte[] encodedPacket = packet.encode();
+            TcpChannel tcpChannel = protocol == TransportProtocol.TCP ? connectionFor(destination) : null;
             
-            pendingRequests.put(seqNo, future);
+            MdRttEstimator rttEstimator = tcpChannel == null ? rttEstimatorFor(destination) : null;
+            int maxRetransmissions = tcpChannel == null ? config.getMaxRetransmissions() : 0;
             
-            if (protocol == TransportProtocol.UDP) {
-                udpTransport.send(encodedPacket, InetAddress.getByName(destinationAddress), destinationPort);
-            } else {
-                String destination = destinationAddress + ":" + destinationPort;
-                TcpTransport tcpTransport = tcpConnections.computeIfAbsent(destination, key -> {
-                    try {
-                        TcpTransport newTransport = new TcpTransport(destinationAddress, destinationPort);
-                        startTcpReplyListener(newTransport);
-                        return newTransport;
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to create TCP connection", e);
-                    }
-                });
-                tcpTransport.send(encodedPacket);
+            TrdpStatistics stats = statistics;
+            TrdpFrame frame = destination.frame();
+            synchronized (frame) {
+                frame.setSequenceCounter(seqNo);
+                frame.setPayload(data, 0, data.length);
+                frame.seal();
+                
+                // The destination's frame is reused by the next request, retransmissions need their own copy
+                byte[] retransmitFrame = maxRetransmissions > 0 ? Arrays.copyOf(frame.array(), frame.length()) : null;
+                if (!pendingRequests.add(seqNo, comId, protocol, future, stats, System.nanoTime(), replyTimeoutNanos,
+                                         rttEstimator, retransmitFrame, destination.getAddress(), maxRetransmissions)) {
+                    future.completeExceptionally(new IllegalStateException(
+                        "More than " + pendingRequests.getCapacity() + " MD requests outstanding"));
+                    return future;
+                }
+                
+                if (tcpChannel != null) {
+                    trackInFlight(tcpChannel, seqNo, future);
+                }
+                if (tcpChannel == null) {
+                    sendUdp(frame.array(), 0, frame.length(), destination.getAddress());
+                } else {
+                    tcpChannel.send(frame.array(), 0, frame.length());
+                }
             }
+            stats.recordTx(protocol, comId, data.length);
 
-            logger.debug("Sent MD request: ComID={}, SeqNo={}, ReplyComID={}, ReplyIP={}, Size={}, Protocol={}",
-                       comId, seqNo, replyComId, localAddress.getHostAddress(), data.length, protocol);
-            
-            future.orTimeout(TrdpConstants.DEFAULT_MD_TIMEOUT_MS, TimeUnit.MILLISECONDS)
-                  .whenComplete((reply, ex) -> {
-                      if (ex != null) {
-                          pendingRequests.remove(seqNo);
-                          logger.warn("MD request timeout: ComID={}, SeqNo={}", comId, seqNo);
-                      }
-                  });
+            if (logger.isDebugEnabled()) {
+                logger.debug("Sent MD request: ComID={}, SeqNo={}, ReplyComID={}, Destination={}, Size={}, Protocol={}",
+                           comId, seqNo, destination.getReplyComId(), destination.getAddress(), data.length, protocol);
+            }
             
         } catch (IOException e) {
-            future.completeExceptionally(e);
             pendingRequests.remove(seqNo);
+            future.completeExceptionally(e);
         }
         
         return future;
     }
     
-    private void startUdpReplyListener() {
-        Thread listener = new Thread(() -> {
-            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
-            
-            listenerReadyLatch.countDown(); // Add this line to signal readiness
-            
-            while (running) {
-                try {
-                    int length = udpTransport.receive(buffer, TrdpConstants.DEFAULT_MD_TIMEOUT_MS);
-                    if (length > 0) {
-                        processReply(buffer, length);
-                    }
-                } catch (IOException e) {
-                    if (running) {
-                        logger.error("Error receiving MD reply", e);
-                    }
-                }
+    private void trackInFlight(TcpChannel channel, int seqNo, CompletableFuture<MdReply> future) {
+        Set<Integer> inFlight = tcpInFlight.computeIfAbsent(channel, c -> ConcurrentHashMap.newKeySet());
+        inFlight.add(seqNo);
+        future.whenComplete((reply, error) -> inFlight.remove(seqNo));
+        // Closed before the set was registered: the send fails and nothing else will remove it
+        if (!channel.isOpen()) {
+            tcpInFlight.remove(channel, inFlight);
+        }
+    }
+    
+    private void failInFlight(TcpChannel channel) {
+        Set<Integer> inFlight = tcpInFlight.remove(channel);
+        if (inFlight == null) {
+            return;
+        }
+        for (Integer seqNo : inFlight) {
+            if (pendingRequests.fail(seqNo, new ClosedChannelException())) {
+                logger.debug("Failed MD request SeqNo={}, TCP connection to {} closed", seqNo, channel.getRemoteAddress());
             }
-        }, "MD-Requester-Listener");
-        listener.setDaemon(true);
-        listener.start();
+        }
     }
-
-    private void startTcpReplyListener(TcpTransport tcpTransport) {
-        Thread listener = new Thread(() -> {
-            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
-
-            while (running && !tcpTransport.isClosed()) {
+    
+    private void sendUdp(byte[] frame, int offset, int length, InetSocketAddress address) throws IOException {
+        if (!udpChannel.send(frame, offset, length, address)) {
+            throw new IOException("UDP send queue full, request to " + address + " dropped");
+        }
+    }
+    
+    private MdRttEstimator rttEstimatorFor(MdDestination destination) {
+        MdRttEstimator rttEstimator = destination.rttEstimator();
+        if (rttEstimator == null) {
+            rttEstimator = rttEstimators.computeIfAbsent(destination.getAddress(), address -> new MdRttEstimator(
+                TimeUnit.MILLISECONDS.toNanos(config.getInitialRtoMs()),
+                TimeUnit.MILLISECONDS.toNanos(config.getMinRtoMs()),
+                replyTimeoutNanos));
+            destination.setRttEstimator(rttEstimator);
+        }
+        return rttEstimator;
+    }
+    
+    /**
+     * @return the round trip estimate of a UDP destination, or {@code null} if no request
+     *         has been sent to it yet.
+     */
+    public MdRttEstimator getRttEstimator(InetSocketAddress destination) {
+        return rttEstimators.get(destination);
+    }
+    
+    private TcpChannel connectionFor(MdDestination destination) throws IOException {
+        TcpChannel connection = destination.connection();
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        try {
+            connection = tcpConnections.compute(destination.getAddress(), (address, existing) -> {
+                if (existing != null && existing.isOpen()) {
+                    return existing;
+                }
                 try {
-                    int length = tcpTransport.receive(buffer, TrdpConstants.DEFAULT_MD_TIMEOUT_MS);
-                    if (length > 0) {
-                        processReply(buffer, length);
-                    }
+                    logger.debug("Opening TCP MD connection to {}", address);
+                    TcpChannel channel = new TcpChannel(ioGroup.next(), address, tcpReplyHandler);
+                    channel.setMaxQueuedBytes(config.getMaxTcpQueuedBytes());
+                    return channel;
                 } catch (IOException e) {
-                    if (running) {
-                        logger.error("Error receiving TCP MD reply", e);
-                    }
+                    throw new UncheckedIOException(e);
                 }
-            }
-        });
-        listener.setDaemon(true);
-        listener.start();
+            });
+        } catch (UncheckedIOException e) {
+            throw new IOException("Failed to create TCP connection", e.getCause());
+        }
+        destination.setConnection(connection);
+        return connection;
     }
     
-    private void processReply(byte[] buffer, int length) {
+    private void onUdpBatch(DatagramBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            processReply(udpView.wrap(batch.buffer(), batch.offset(i), batch.length(i)), TransportProtocol.UDP);
+        }
+    }
+
+    private void processReply(TrdpPacketView packet, TransportProtocol protocol) {
         try {
-            byte[] packetData = new byte[length];
-            System.arraycopy(buffer, 0, packetData, 0, length);
-            
-            TrdpPacket packet = TrdpPacket.decode(packetData);
+            TrdpPacketView.Status status = packet.verify();
+            if (status != TrdpPacketView.Status.VALID) {
+                statistics.recordInvalid(protocol, packet, status);
+                logger.warn("Discarding invalid MD reply: {}", status);
+                return;
+            }
             
-            if (packet.getHeader().getMessageType() == TrdpMessageType.MD_REPLY) {
-                int seqNo = packet.getHeader().getSequenceCounter();
-                CompletableFuture<MdReply> future = pendingRequests.remove(seqNo);
+            if (packet.getMessageType() == TrdpMessageType.MD_ERROR) {
+                statistics.recordRx(protocol, packet.getComId(), packet.getPayloadLength());
+                int seqNo = packet.getSequenceCounter();
+                if (pendingRequests.fail(seqNo, new MdErrorReplyException(packet.getComId(), packet.getReplyStatus()))) {
+                    logger.debug("Received MD error: ComID={}, SeqNo={}, status={}",
+                               packet.getComId(), seqNo, packet.getReplyStatus());
+                }
+            } else if (packet.getMessageType() != TrdpMessageType.MD_REPLY) {
+                statistics.recordUnexpectedType(protocol, packet.getComId());
+            } else {
+                statistics.recordRx(protocol, packet.getComId(), packet.getPayloadLength());
+                int seqNo = packet.getSequenceCounter();
                 
-                if (future != null) {
-                    MdReply reply = new MdReply(packet.getHeader().getComId(), 
-                                               packet.getPayload(), seqNo);
-                    future.complete(reply);
-                    logger.debug("Received MD reply: ComID={}, SeqNo={}", 
-                               packet.getHeader().getComId(), seqNo);
+                if (pendingRequests.isPending(seqNo)) {
+                    MdReply reply = new MdReply(packet.getComId(), packet.copyPayload(), seqNo);
+                    if (pendingRequests.complete(seqNo, reply, System.nanoTime())) {
+                        logger.debug("Received MD reply: ComID={}, SeqNo={}", 
+                                   packet.getComId(), seqNo);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -201,22 +340,35 @@ public class MdRequester implements AutoCloseable {
         }
     }
     
+    public void setStatistics(TrdpStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
+    public int getPendingRequestCount() {
+        return pendingRequests.getOutstandingCount();
+    }
+    
+    private void closeTimer() {
+        if (ownsTimer) {
+            timer.close();
+        }
+    }
+    
     @Override
     public void close() {
-        running = false;
-        pendingRequests.values().forEach(f -> f.cancel(true));
-        pendingRequests.clear();
+        pendingRequests.cancelAll();
+        closeTimer();
 
-        tcpConnections.values().forEach(transport -> {
-            try {
-                transport.close();
-            } catch (IOException e) {
-                logger.error("Error closing TCP transport", e);
-            }
-        });
+        tcpConnections.values().forEach(TcpChannel::close);
         tcpConnections.clear();
-
-        udpTransport.close();
+        udpChannel.close();
+        closeIoGroup();
         logger.info("MD Requester closed");
     }
+    
+    private void closeIoGroup() {
+        if (ownsIoGroup) {
+            ioGroup.close();
+        }
+    }
 }
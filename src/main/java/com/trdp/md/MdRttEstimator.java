@@ -0,0 +1,75 @@
+package com.trdp.md;
+
+/**
+ * Round trip time estimate and retransmission timeout for one MD destination.
+ *
+ * <p>Follows RFC 6298: every round trip sample updates a smoothed RTT and its mean
+ * deviation, and the retransmission timeout is the smoothed RTT plus four deviations,
+ * clamped to a configured range. Per Karn's algorithm, callers only sample requests
+ * that were never retransmitted, and a timeout that backs off is kept until the next
+ * valid sample.
+ */
+public final class MdRttEstimator {
+
+    private final long minRtoNanos;
+    private final long maxRtoNanos;
+    private long smoothedRttNanos;
+    private long rttVariationNanos;
+    private long rtoNanos;
+    private long sampleCount;
+
+    MdRttEstimator(long initialRtoNanos, long minRtoNanos, long maxRtoNanos) {
+        this.minRtoNanos = minRtoNanos;
+        this.maxRtoNanos = maxRtoNanos;
+        this.rtoNanos = clamp(initialRtoNanos);
+    }
+
+    synchronized void sample(long rttNanos) {
+        if (sampleCount == 0) {
+            smoothedRttNanos = rttNanos;
+            rttVariationNanos = rttNanos / 2;
+        } else {
+            rttVariationNanos += (Math.abs(smoothedRttNanos - rttNanos) - rttVariationNanos) / 4;
+            smoothedRttNanos += (rttNanos - smoothedRttNanos) / 8;
+        }
+        sampleCount++;
+        rtoNanos = clamp(smoothedRttNanos + 4 * rttVariationNanos);
+    }
+
+    /**
+     * Raises the timeout to a request's backed-off timeout.
+     */
+    synchronized void backoff(long backedOffRtoNanos) {
+        rtoNanos = Math.max(rtoNanos, clamp(backedOffRtoNanos));
+    }
+
+    private long clamp(long nanos) {
+        return Math.min(Math.max(nanos, minRtoNanos), maxRtoNanos);
+    }
+
+    /**
+     * @return the time to wait for a reply before retransmitting a request.
+     */
+    public synchronized long getRtoNanos() {
+        return rtoNanos;
+    }
+
+    /**
+     * @return the smoothed round trip time, 0 before the first sample.
+     */
+    public synchronized long getSmoothedRttNanos() {
+        return smoothedRttNanos;
+    }
+
+    public synchronized long getRttVariationNanos() {
+        return rttVariationNanos;
+    }
+
+    public synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    long getMaxRtoNanos() {
+        return maxRtoNanos;
+    }
+}
@@ -0,0 +1,24 @@
+package com.trdp.md;
+
+/**
+ * What a replier does with a request that arrives while its worker queue is full.
+ */
+public enum MdShedPolicy {
+    /**
+     * Drop the new request.
+     */
+    REJECT_NEWEST,
+
+    /**
+     * Drop the oldest queued request of the lowest priority class at or below the new
+     * request's, and queue the new one. If there is none, drop the new request.
+     */
+    REJECT_OLDEST,
+
+    /**
+     * Answer the new request at once with an {@code MD_ERROR} reply of status
+     * {@link com.trdp.protocol.TrdpConstants#MD_REPLY_STATUS_NO_REPLIER_MEMORY}, so the
+     * requester fails fast instead of timing out.
+     */
+    REPLY_ERROR
+}
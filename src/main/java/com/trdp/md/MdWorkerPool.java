@@ -0,0 +1,212 @@
+package com.trdp.md;
+
+import com.trdp.network.TcpChannel;
+import com.trdp.stats.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of MD requests in front of a fixed number of handler threads.
+ *
+ * <p>Requests wait in one FIFO per {@link MdPriority}, and workers always take from the
+ * highest non-empty class. The total number of queued requests is capped; when the
+ * queue is full the {@link MdShedPolicy} picks a request to give up, which is passed to
+ * {@link Handler#shed} on the submitting thread. Queue depth, its peak, the number of
+ * shed requests and the time requests wait before a worker picks them up are exposed
+ * for monitoring.
+ */
+final class MdWorkerPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MdWorkerPool.class);
+
+    private static final MdPriority[] PRIORITIES = MdPriority.values();
+
+    interface Handler {
+        void run(MdRequest request, TcpChannel connection);
+
+        void shed(MdRequest request, TcpChannel connection);
+    }
+
+    private final int capacity;
+    private final MdShedPolicy shedPolicy;
+    private final Handler handler;
+    private final ArrayDeque<Job>[] queues;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final LatencyHistogram queueWaitTime = new LatencyHistogram();
+    private volatile int size;
+    private volatile int peakSize;
+    private boolean closed;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    MdWorkerPool(int workers, int capacity, MdShedPolicy shedPolicy, ThreadFactory threads, Handler handler) {
+        if (workers <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Worker pool needs at least one worker and one queue slot");
+        }
+        this.capacity = capacity;
+        this.shedPolicy = shedPolicy;
+        this.handler = handler;
+        this.queues = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+        for (int i = 0; i < workers; i++) {
+            threads.newThread(this::work).start();
+        }
+    }
+
+    /**
+     * Queues a request, or sheds a request if the queue is full.
+     *
+     * @return {@code false} if the new request itself was shed.
+     */
+    boolean submit(MdRequest request, TcpChannel connection, MdPriority priority) {
+        Job job = new Job(request, connection, System.nanoTime());
+        Job victim = null;
+        lock.lock();
+        try {
+            if (closed) {
+                victim = job;
+            } else if (size < capacity) {
+                queues[priority.ordinal()].addLast(job);
+                size++;
+                if (size > peakSize) {
+                    peakSize = size;
+                }
+                notEmpty.signal();
+            } else if (shedPolicy == MdShedPolicy.REJECT_OLDEST && (victim = pollOldest(priority)) != null) {
+                queues[priority.ordinal()].addLast(job);
+                notEmpty.signal();
+            } else {
+                victim = job;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (victim == null) {
+            return true;
+        }
+        shedCount.incrementAndGet();
+        try {
+            handler.shed(victim.request, victim.connection);
+        } catch (Exception e) {
+            logger.error("Error shedding MD request {}", victim.request, e);
+        }
+        return victim != job;
+    }
+
+    private Job pollOldest(MdPriority atOrBelow) {
+        for (int i = queues.length - 1; i >= atOrBelow.ordinal(); i--) {
+            Job job = queues[i].pollFirst();
+            if (job != null) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private Job take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (size == 0) {
+                if (closed) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+            for (ArrayDeque<Job> queue : queues) {
+                Job job = queue.pollFirst();
+                if (job != null) {
+                    size--;
+                    return job;
+                }
+            }
+            throw new IllegalStateException("Worker queue size out of sync");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        try {
+            Job job;
+            while ((job = take()) != null) {
+                queueWaitTime.record(System.nanoTime() - job.enqueuedNanos);
+                try {
+                    handler.run(job.request, job.connection);
+                } catch (Exception e) {
+                    logger.error("Error in MD worker for {}", job.request, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getQueueDepth() {
+        return size;
+    }
+
+    int getQueueDepth(MdPriority priority) {
+        lock.lock();
+        try {
+            return queues[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getPeakQueueDepth() {
+        return peakSize;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getShedCount() {
+        return shedCount.get();
+    }
+
+    LatencyHistogram getQueueWaitTime() {
+        return queueWaitTime;
+    }
+
+    /**
+     * Stops the workers once they finish their current request. Queued requests are
+     * dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (ArrayDeque<Job> queue : queues) {
+                queue.clear();
+            }
+            size = 0;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Job {
+        final MdRequest request;
+        final TcpChannel connection;
+        final long enqueuedNanos;
+
+        Job(MdRequest request, TcpChannel connection, long enqueuedNanos) {
+            this.request = request;
+            this.connection = connection;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
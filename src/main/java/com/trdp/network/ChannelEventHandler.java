@@ -0,0 +1,12 @@
+package com.trdp.network;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+
+/**
+ * Callback invoked on the {@link NioEventLoop} thread when a registered channel is ready.
+ */
+@FunctionalInterface
+public interface ChannelEventHandler {
+    void onReady(SelectionKey key) throws IOException;
+}
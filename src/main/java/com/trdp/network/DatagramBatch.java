@@ -0,0 +1,107 @@
+package com.trdp.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Preallocated ring of receive slots filled by draining every ready datagram of a
+ * non-blocking channel in one go, so a burst costs one wakeup instead of one per packet.
+ *
+ * <p>All slots live in a single direct buffer; datagram {@code i} occupies
+ * {@link #length(int) length(i)} bytes starting at {@link #offset(int) offset(i)} of
+ * {@link #buffer()}. Keeping one backing buffer lets a reused
+ * {@link com.trdp.protocol.TrdpPacketView} wrap every slot without re-creating its views.
+ * A batch is refilled by each receive and must only be used by the receiving thread.
+ */
+public final class DatagramBatch {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final ByteBuffer buffer;
+    private final int slotSize;
+    private final int[] lengths;
+    private final SocketAddress[] sources;
+    private int size;
+
+    public DatagramBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DatagramBatch(int capacity) {
+        this(capacity, UdpChannel.RECEIVE_BUFFER_SIZE);
+    }
+
+    public DatagramBatch(int capacity, int slotSize) {
+        if (capacity <= 0 || slotSize <= 0) {
+            throw new IllegalArgumentException("Batch capacity and slot size must be positive");
+        }
+        this.buffer = ByteBuffer.allocateDirect(capacity * slotSize);
+        this.slotSize = slotSize;
+        this.lengths = new int[capacity];
+        this.sources = new SocketAddress[capacity];
+    }
+
+    /**
+     * Replaces the contents with up to {@link #capacity()} datagrams that are ready on
+     * {@code channel}, without blocking. Returns the number received.
+     */
+    int receive(DatagramChannel channel) throws IOException {
+        int count = 0;
+        while (count < lengths.length) {
+            int offset = count * slotSize;
+            buffer.limit(offset + slotSize).position(offset);
+            SocketAddress source = channel.receive(buffer);
+            if (source == null) {
+                break;
+            }
+            lengths[count] = buffer.position() - offset;
+            sources[count] = source;
+            count++;
+        }
+        size = count;
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return lengths.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the backing buffer; use {@link #offset(int)} and {@link #length(int)} to
+     * locate a datagram rather than its position and limit.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset(int index) {
+        checkIndex(index);
+        return index * slotSize;
+    }
+
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    public SocketAddress source(int index) {
+        checkIndex(index);
+        return sources[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Datagram " + index + " out of range for batch of " + size);
+        }
+    }
+}
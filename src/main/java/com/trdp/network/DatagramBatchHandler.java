@@ -0,0 +1,11 @@
+package com.trdp.network;
+
+/**
+ * Receives all datagrams drained from a {@link UdpChannel} in one wakeup. The batch is
+ * owned by the channel and refilled on the next wakeup, so it is only valid during the
+ * callback.
+ */
+@FunctionalInterface
+public interface DatagramBatchHandler {
+    void onBatch(DatagramBatch batch);
+}
@@ -0,0 +1,13 @@
+package com.trdp.network;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Receives datagrams from a {@link UdpChannel}. The buffer is positioned at the start of
+ * the datagram and owned by the channel, so it is only valid during the callback.
+ */
+@FunctionalInterface
+public interface DatagramHandler {
+    void onDatagram(ByteBuffer datagram, SocketAddress source);
+}
@@ -0,0 +1,158 @@
+package com.trdp.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Set of pre-encoded datagrams sent back to back by {@link UdpTransport#sendBatch(DatagramSendBatch)}.
+ *
+ * <p>Frames are copied into slots of one preallocated direct buffer when added, so the
+ * send loop hands native memory straight to the socket and does no per-datagram
+ * allocation or logging. After a send the batch reports how long the whole batch took
+ * and which datagrams failed; a failed datagram does not stop the rest. A batch is
+ * reused after {@link #clear()} and must be filled and sent by one thread at a time.
+ */
+public final class DatagramSendBatch {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final ByteBuffer buffer;
+    private final int slotSize;
+    private final int[] lengths;
+    private final SocketAddress[] targets;
+    private final IOException[] failures;
+    private int size;
+    private int sentCount;
+    private int failedCount;
+    private long sendNanos;
+
+    public DatagramSendBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DatagramSendBatch(int capacity) {
+        this(capacity, UdpChannel.RECEIVE_BUFFER_SIZE);
+    }
+
+    public DatagramSendBatch(int capacity, int slotSize) {
+        if (capacity <= 0 || slotSize <= 0) {
+            throw new IllegalArgumentException("Batch capacity and slot size must be positive");
+        }
+        this.buffer = ByteBuffer.allocateDirect(capacity * slotSize);
+        this.slotSize = slotSize;
+        this.lengths = new int[capacity];
+        this.targets = new SocketAddress[capacity];
+        this.failures = new IOException[capacity];
+    }
+
+    /**
+     * Copies a datagram into the next free slot.
+     *
+     * @return {@code false} if the batch is full
+     */
+    public boolean add(byte[] data, int offset, int length, SocketAddress target) {
+        if (length > slotSize) {
+            throw new IllegalArgumentException("Datagram of " + length + " bytes exceeds the " + slotSize + " byte slot size");
+        }
+        if (size == lengths.length) {
+            return false;
+        }
+        buffer.limit(buffer.capacity()).position(size * slotSize);
+        buffer.put(data, offset, length);
+        lengths[size] = length;
+        targets[size] = target;
+        size++;
+        return true;
+    }
+
+    /**
+     * Sends every datagram in order on a blocking channel, which waits out a full socket
+     * send buffer. Any error is recorded for that datagram and the remaining ones are
+     * still sent.
+     */
+    int send(DatagramChannel channel) {
+        long start = System.nanoTime();
+        int sent = 0;
+        for (int i = 0; i < size; i++) {
+            int offset = i * slotSize;
+            buffer.limit(offset + lengths[i]).position(offset);
+            try {
+                channel.send(buffer, targets[i]);
+                failures[i] = null;
+                sent++;
+            } catch (IOException e) {
+                failures[i] = e;
+            }
+        }
+        sendNanos = System.nanoTime() - start;
+        sentCount = sent;
+        failedCount = size - sent;
+        return sent;
+    }
+
+    /**
+     * Removes all datagrams and the results of the last send.
+     */
+    public void clear() {
+        Arrays.fill(targets, 0, size, null);
+        Arrays.fill(failures, 0, size, null);
+        size = 0;
+        sentCount = 0;
+        failedCount = 0;
+        sendNanos = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return lengths.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == lengths.length;
+    }
+
+    public SocketAddress target(int index) {
+        checkIndex(index);
+        return targets[index];
+    }
+
+    /**
+     * @return the error that prevented datagram {@code index} from being sent, or
+     *         {@code null} if it was sent (or the batch was not sent yet).
+     */
+    public IOException failure(int index) {
+        checkIndex(index);
+        return failures[index];
+    }
+
+    public int getSentCount() {
+        return sentCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return the wall time of the last send, from the first datagram to the last.
+     */
+    public long getSendNanos() {
+        return sendNanos;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Datagram " + index + " out of range for batch of " + size);
+        }
+    }
+}
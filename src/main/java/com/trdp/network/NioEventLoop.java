@@ -0,0 +1,180 @@
+package com.trdp.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Single-threaded {@link Selector} loop that services any number of non-blocking
+ * channels. One loop (or a few, with channels spread across them) replaces the
+ * thread-per-socket model of {@link UdpTransport}.
+ */
+public class NioEventLoop implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(NioEventLoop.class);
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks;
+    private final Consumer<SelectionKey> dispatcher;
+    private volatile boolean running;
+
+    public NioEventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.dispatcher = this::dispatch;
+        this.running = true;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        logger.debug("NIO event loop {} started", name);
+    }
+
+    /**
+     * Registers a channel with this loop. The registration itself runs on the loop
+     * thread; the returned future completes with the selection key.
+     */
+    public CompletableFuture<SelectionKey> register(SelectableChannel channel, int ops,
+                                                    ChannelEventHandler handler) {
+        CompletableFuture<SelectionKey> future = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                future.complete(channel.register(selector, ops, handler));
+            } catch (IOException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs a task on the loop thread, immediately if already on it.
+     */
+    public void execute(Runnable task) {
+        if (inEventLoop()) {
+            task.run();
+            return;
+        }
+        enqueue(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Queues a task for the loop thread without running it inline, so work submitted
+     * while handling ready channels is run once after all of them.
+     */
+    public void executeLater(Runnable task) {
+        enqueue(task);
+        if (!inEventLoop()) {
+            selector.wakeup();
+        }
+    }
+
+    private void enqueue(Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("Event loop is closed");
+        }
+        tasks.add(task);
+        // Closed in between: the loop may already have run its last tasks, so take the
+        // task back unless it was picked up
+        if (!running && tasks.remove(task)) {
+            throw new IllegalStateException("Event loop is closed");
+        }
+    }
+
+    /**
+     * Wakes the loop so cancelled keys are deregistered and their sockets released.
+     */
+    public void wakeup() {
+        if (running) {
+            selector.wakeup();
+        }
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                runTasks();
+                selector.select(dispatcher);
+            } catch (ClosedChannelException e) {
+                logger.debug("Channel closed during selection", e);
+            } catch (IOException e) {
+                if (running) {
+                    logger.error("Error in NIO event loop", e);
+                }
+            }
+        }
+        runTasks();
+
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                logger.error("Error closing channel", e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.error("Error closing selector", e);
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Error in NIO event loop task", e);
+            }
+        }
+    }
+
+    private void dispatch(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            ((ChannelEventHandler) key.attachment()).onReady(key);
+        } catch (Exception e) {
+            logger.error("Error handling channel event", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        if (!inEventLoop()) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.debug("NIO event loop {} closed", thread.getName());
+    }
+}
@@ -0,0 +1,49 @@
+package com.trdp.network;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of {@link NioEventLoop}s that channels are spread across round-robin, so the
+ * number of I/O threads stays the same however many connections are open.
+ */
+public class NioEventLoopGroup implements AutoCloseable {
+
+    private final NioEventLoop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public NioEventLoopGroup(String name, int size) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Event loop group needs at least one loop");
+        }
+        this.loops = new NioEventLoop[size];
+        try {
+            for (int i = 0; i < size; i++) {
+                loops[i] = new NioEventLoop(name + "-" + i);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the loop for the next channel.
+     */
+    public NioEventLoop next() {
+        return loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+    }
+
+    public int size() {
+        return loops.length;
+    }
+
+    @Override
+    public void close() {
+        for (NioEventLoop loop : loops) {
+            if (loop != null) {
+                loop.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.trdp.network;
+
+import com.trdp.protocol.TrdpPacketView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking TCP connection carrying TRDP frames, serviced by a shared {@link NioEventLoop}.
+ *
+ * <p>Incoming bytes are split into frames by a {@link TcpFrameDecoder} and handed to the
+ * {@link TcpFrameHandler} on the loop thread. {@link #send} may be called from any
+ * thread: frames are copied into a write queue and the loop writes everything queued
+ * since its last flush with one gathering write, so many small pipelined frames leave in
+ * as few segments as the socket allows. A full socket send buffer parks the rest of the
+ * queue until the channel is writable again; the sender is never blocked. Instead, once
+ * a peer that stopped reading lets {@link #setMaxQueuedBytes queued bytes} reach the
+ * limit, further sends fail until the queue drains.
+ */
+public class TcpChannel implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TcpChannel.class);
+
+    public static final int DEFAULT_MAX_QUEUED_BYTES = 1024 * 1024;
+
+    // Upper bound on frames passed to a single gathering write
+    private static final int MAX_GATHERED_FRAMES = 64;
+
+    private final NioEventLoop eventLoop;
+    private final SocketChannel channel;
+    private final InetSocketAddress remoteAddress;
+    private final TcpFrameHandler handler;
+    private final TcpFrameDecoder decoder = new TcpFrameDecoder();
+    private final TrdpPacketView view = new TrdpPacketView();
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer[] writeBatch = new ByteBuffer[MAX_GATHERED_FRAMES];
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // Bytes of frames accepted by send and not yet completely written
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private volatile int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+    private final Runnable flushTask = this::flush;
+    private volatile SelectionKey key;
+    private volatile boolean connected;
+    private int pendingWrites;
+
+    // Written only by the loop thread
+    private volatile long writeCount;
+    private volatile long framesSent;
+
+    /**
+     * Opens a connection to {@code address}. The connect completes on the loop thread;
+     * frames sent before that are queued.
+     */
+    public TcpChannel(NioEventLoop eventLoop, InetSocketAddress address, TcpFrameHandler handler) throws IOException {
+        this(eventLoop, connect(address), address, handler);
+    }
+
+    /**
+     * Takes over an already connected channel, e.g. one returned by a server socket accept.
+     */
+    public TcpChannel(NioEventLoop eventLoop, SocketChannel channel, TcpFrameHandler handler) throws IOException {
+        this(eventLoop, channel, (InetSocketAddress) channel.getRemoteAddress(), handler);
+    }
+
+    private TcpChannel(NioEventLoop eventLoop, SocketChannel channel, InetSocketAddress remoteAddress,
+                       TcpFrameHandler handler) throws IOException {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.remoteAddress = remoteAddress;
+        this.handler = handler;
+        this.connected = channel.isConnected();
+
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            eventLoop.register(channel, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this::onReady)
+                .whenComplete((registered, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to register TCP channel to {}", remoteAddress, error);
+                        close();
+                        return;
+                    }
+                    key = registered;
+                    if (!writeQueue.isEmpty()) {
+                        scheduleFlush();
+                    }
+                });
+        } catch (IOException | IllegalStateException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Event loop is closed", e);
+        }
+    }
+
+    private static SocketChannel connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Queues a copy of the given frame bytes for sending.
+     *
+     * @throws ClosedChannelException if the connection has been closed
+     * @throws IOException if the frame would take the queued bytes past the limit
+     */
+    public void send(byte[] data, int offset, int length) throws IOException {
+        if (closed.get()) {
+            throw new ClosedChannelException();
+        }
+        if (queuedBytes.addAndGet(length) > maxQueuedBytes) {
+            queuedBytes.addAndGet(-length);
+            throw new IOException("Write queue to " + remoteAddress + " is full (" + maxQueuedBytes + " bytes)");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        frame.put(data, offset, length).flip();
+        writeQueue.add(frame);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                eventLoop.executeLater(flushTask);
+            } catch (IllegalStateException e) {
+                close();
+            }
+        }
+    }
+
+    private void onReady(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                finishConnect(key);
+                return;
+            }
+            if (key.isReadable()) {
+                onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+        } catch (CancelledKeyException e) {
+            // Closed by another thread while the event was handled
+            close();
+        }
+    }
+
+    private void finishConnect(SelectionKey key) {
+        try {
+            if (!channel.finishConnect()) {
+                return;
+            }
+        } catch (IOException e) {
+            logger.warn("TCP connection to {} failed: {}", remoteAddress, e.getMessage());
+            close();
+            return;
+        }
+        connected = true;
+        key.interestOps(SelectionKey.OP_READ);
+        logger.debug("TCP channel connected to {}", remoteAddress);
+        flush();
+    }
+
+    private void onReadable() {
+        int bytesRead;
+        try {
+            bytesRead = decoder.readFrom(channel);
+            while (decoder.next(view)) {
+                try {
+                    handler.onFrame(this, view);
+                } catch (Exception e) {
+                    logger.error("Error in TCP frame handler", e);
+                }
+            }
+        } catch (ProtocolException e) {
+            logger.warn("Closing TCP channel to {}: {}", remoteAddress, e.getMessage());
+            close();
+            return;
+        } catch (IOException e) {
+            logger.debug("TCP channel to {} failed: {}", remoteAddress, e.getMessage());
+            close();
+            return;
+        }
+        if (bytesRead < 0) {
+            logger.debug("TCP channel closed by {}", remoteAddress);
+            close();
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        SelectionKey key = this.key;
+        if (!connected || key == null || !key.isValid()) {
+            return;
+        }
+        try {
+            while (true) {
+                ByteBuffer next;
+                while (pendingWrites < writeBatch.length && (next = writeQueue.poll()) != null) {
+                    writeBatch[pendingWrites++] = next;
+                }
+                if (pendingWrites == 0) {
+                    break;
+                }
+                channel.write(writeBatch, 0, pendingWrites);
+                writeCount++;
+
+                int written = 0;
+                long writtenBytes = 0;
+                while (written < pendingWrites && !writeBatch[written].hasRemaining()) {
+                    writtenBytes += writeBatch[written].capacity();
+                    written++;
+                }
+                queuedBytes.addAndGet(-writtenBytes);
+                System.arraycopy(writeBatch, written, writeBatch, 0, pendingWrites - written);
+                Arrays.fill(writeBatch, pendingWrites - written, pendingWrites, null);
+                pendingWrites -= written;
+                framesSent += written;
+
+                if (pendingWrites > 0) {
+                    // Socket send buffer is full, resume when writable
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            logger.debug("TCP write to {} failed: {}", remoteAddress, e.getMessage());
+            close();
+        } catch (CancelledKeyException e) {
+            // Closed by another thread during the flush
+            close();
+        }
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public NioEventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    public boolean isConnected() {
+        return connected && !closed.get();
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * @return the number of write calls issued, each carrying one or more frames.
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * @return the bytes of frames queued by {@link #send} that are not completely written.
+     */
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    public int getMaxQueuedBytes() {
+        return maxQueuedBytes;
+    }
+
+    /**
+     * Limits the bytes queued for a peer that does not keep up, 1 MiB by default.
+     */
+    public void setMaxQueuedBytes(int maxQueuedBytes) {
+        if (maxQueuedBytes <= 0) {
+            throw new IllegalArgumentException("Write queue limit must be positive");
+        }
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        SelectionKey key = this.key;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Error closing TCP channel", e);
+        }
+        writeQueue.clear();
+        eventLoop.wakeup();
+        logger.debug("TCP channel to {} closed", remoteAddress);
+
+        try {
+            handler.onClosed(this);
+        } catch (Exception e) {
+            logger.error("Error in TCP close handler", e);
+        }
+    }
+}
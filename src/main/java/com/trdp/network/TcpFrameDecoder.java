@@ -0,0 +1,143 @@
+package com.trdp.network;
+
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacketView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Splits a TCP byte stream into TRDP frames.
+ *
+ * <p>A frame's length is taken from the dataset length in its header, so a single read
+ * may yield several frames and a frame may arrive over several reads. Bytes are
+ * accumulated in one buffer that is only compacted when a partial frame reaches its end;
+ * complete frames are handed out by wrapping a reused {@link TrdpPacketView} in place.
+ * A view returned by {@link #next(TrdpPacketView)} stays valid until the next read.
+ * Frames are not FCS checked here; a header with an unknown message type or an
+ * oversized dataset length is a {@link ProtocolException}, since the stream cannot be
+ * resynchronized after it. A decoder is not thread-safe.
+ */
+public final class TcpFrameDecoder {
+
+    public static final int MAX_FRAME_SIZE = TrdpConstants.TRDP_MAX_PACKET_SIZE + TrdpConstants.TRDP_FCS_SIZE;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    // Enough header to read the message type and either header's dataset length
+    private static final int MIN_PREFIX = TrdpConstants.PD_DATASET_LENGTH_OFFSET + 4;
+
+    private final byte[] data;
+    private final ByteBuffer buffer;
+    private int readIndex;
+    private int writeIndex;
+
+    public TcpFrameDecoder() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public TcpFrameDecoder(int bufferSize) {
+        if (bufferSize < MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("Buffer must hold at least one " + MAX_FRAME_SIZE + " byte frame");
+        }
+        this.data = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Performs one blocking read from {@code in} into the free part of the buffer.
+     *
+     * @return the number of bytes read, or -1 at end of stream
+     */
+    public int readFrom(InputStream in) throws IOException {
+        ensureWritable();
+        int read = in.read(data, writeIndex, data.length - writeIndex);
+        if (read > 0) {
+            writeIndex += read;
+        }
+        return read;
+    }
+
+    /**
+     * Reads whatever {@code channel} has available into the free part of the buffer.
+     *
+     * @return the number of bytes read, or -1 at end of stream
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        ensureWritable();
+        buffer.limit(data.length).position(writeIndex);
+        int read = channel.read(buffer);
+        if (read > 0) {
+            writeIndex += read;
+        }
+        return read;
+    }
+
+    /**
+     * Wraps {@code view} around the next complete frame.
+     *
+     * @return {@code false} if no complete frame is buffered yet
+     * @throws ProtocolException if the next frame's header cannot be framed
+     */
+    public boolean next(TrdpPacketView view) throws ProtocolException {
+        int available = writeIndex - readIndex;
+        if (available < MIN_PREFIX) {
+            return false;
+        }
+        int frameLength = frameLength(readIndex);
+        if (available < frameLength) {
+            return false;
+        }
+        view.wrap(data, readIndex, frameLength);
+        readIndex += frameLength;
+        if (readIndex == writeIndex) {
+            readIndex = 0;
+            writeIndex = 0;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of buffered bytes not yet returned as frames.
+     */
+    public int buffered() {
+        return writeIndex - readIndex;
+    }
+
+    public void reset() {
+        readIndex = 0;
+        writeIndex = 0;
+    }
+
+    private int frameLength(int offset) throws ProtocolException {
+        int typeCode = buffer.getShort(offset + TrdpConstants.MESSAGE_TYPE_OFFSET) & 0xFFFF;
+        TrdpMessageType type = TrdpMessageType.fromCodeOrNull(typeCode);
+        if (type == null) {
+            throw new ProtocolException("Unknown TRDP message type 0x" + Integer.toHexString(typeCode) + " in TCP stream");
+        }
+        boolean md = type.isMd();
+        int datasetLength = buffer.getInt(offset + (md ? TrdpConstants.MD_DATASET_LENGTH_OFFSET
+                                                       : TrdpConstants.PD_DATASET_LENGTH_OFFSET));
+        int maxDataset = md ? TrdpConstants.TRDP_MAX_MD_DATA_SIZE : TrdpConstants.TRDP_MAX_PD_DATA_SIZE;
+        if (datasetLength < 0 || datasetLength > maxDataset) {
+            throw new ProtocolException("Invalid dataset length " + datasetLength + " in TCP stream");
+        }
+        int headerSize = md ? TrdpConstants.TRDP_MD_HEADER_SIZE : TrdpConstants.TRDP_PD_HEADER_SIZE;
+        return headerSize + datasetLength + TrdpConstants.TRDP_FCS_SIZE;
+    }
+
+    private void ensureWritable() {
+        if (writeIndex < data.length) {
+            return;
+        }
+        // Only reached with a partial frame at the end of the buffer
+        int remaining = writeIndex - readIndex;
+        System.arraycopy(data, readIndex, data, 0, remaining);
+        readIndex = 0;
+        writeIndex = remaining;
+    }
+}
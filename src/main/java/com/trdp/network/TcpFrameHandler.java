@@ -0,0 +1,18 @@
+package com.trdp.network;
+
+import com.trdp.protocol.TrdpPacketView;
+
+/**
+ * Callback for frames received on a {@link TcpChannel}, invoked on its event loop thread.
+ * The view is reused and only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface TcpFrameHandler {
+    void onFrame(TcpChannel channel, TrdpPacketView frame);
+
+    /**
+     * Called once when the connection is closed, by either side or after an error.
+     */
+    default void onClosed(TcpChannel channel) {
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 
@@ -19,14 +20,26 @@ public class TcpTransport implements AutoCloseable {
         logger.info("TCP Transport connected to {}:{}", host, port);
     }
 
+    /**
+     * Connects to an already resolved address, without a name lookup.
+     */
+    public TcpTransport(InetSocketAddress address) throws IOException {
+        this.socket = new Socket(address.getAddress(), address.getPort());
+        logger.info("TCP Transport connected to {}", address);
+    }
+
     public void send(byte[] data) throws IOException {
+        send(data, 0, data.length);
+    }
+
+    public void send(byte[] data, int offset, int length) throws IOException {
         if (socket == null || socket.isClosed()) {
             throw new IOException("TCP socket not connected.");
         }
         OutputStream out = socket.getOutputStream();
-        out.write(data);
+        out.write(data, offset, length);
         out.flush();
-        logger.trace("Sent {} bytes", data.length);
+        logger.trace("Sent {} bytes", length);
     }
 
     public int receive(byte[] buffer, int timeoutMs) throws IOException {
@@ -46,6 +59,27 @@ public class TcpTransport implements AutoCloseable {
         }
     }
 
+    /**
+     * Reads available stream bytes into {@code decoder}, waiting up to {@code timeoutMs}.
+     *
+     * @return the number of bytes read, 0 on timeout or -1 if the peer closed the connection
+     */
+    public int receive(TcpFrameDecoder decoder, int timeoutMs) throws IOException {
+        if (socket == null || socket.isClosed()) {
+            throw new IOException("TCP socket not connected.");
+        }
+        socket.setSoTimeout(timeoutMs);
+        try {
+            int bytesRead = decoder.readFrom(socket.getInputStream());
+            if (bytesRead > 0) {
+                logger.trace("Received {} bytes", bytesRead);
+            }
+            return bytesRead;
+        } catch (SocketTimeoutException e) {
+            return 0; // Timeout
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (socket != null && !socket.isClosed()) {
@@ -0,0 +1,313 @@
+package com.trdp.network;
+
+import com.trdp.protocol.TrdpConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking UDP endpoint serviced by a shared {@link NioEventLoop}.
+ *
+ * <p>Datagrams are read into a direct buffer owned by the channel and handed to the
+ * {@link DatagramHandler} on the loop thread. In batch mode every ready datagram is
+ * first drained into a {@link DatagramBatch} and the {@link DatagramBatchHandler} is
+ * invoked once per wakeup.
+ *
+ * <p>Sending is allowed from any thread. A datagram the socket send buffer cannot take
+ * right now is copied into a send queue, which the loop drains in order once the socket
+ * is writable again, so the sender is never blocked and nothing is dropped until the
+ * {@link #setMaxQueuedBytes queued bytes} reach the limit.
+ */
+public class UdpChannel implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(UdpChannel.class);
+
+    public static final int RECEIVE_BUFFER_SIZE = TrdpConstants.TRDP_MAX_PACKET_SIZE + TrdpConstants.TRDP_FCS_SIZE;
+    
+    // Upper bound on datagrams read per wakeup so one busy socket cannot starve the others
+    private static final int MAX_READS_PER_WAKEUP = 32;
+
+    public static final int DEFAULT_MAX_QUEUED_BYTES = 1024 * 1024;
+
+    private final NioEventLoop eventLoop;
+    private final DatagramChannel channel;
+    private final DatagramHandler handler;
+    private final ByteBuffer receiveBuffer;
+    private final DatagramBatchHandler batchHandler;
+    private final DatagramBatch batch;
+    private final SelectionKey key;
+    private final Queue<QueuedDatagram> sendQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Bytes of datagrams in the send queue
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private volatile int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+    private final Runnable flushTask = this::flush;
+
+    public UdpChannel(NioEventLoop eventLoop, DatagramHandler handler) throws IOException {
+        this(eventLoop, 0, handler);
+    }
+
+    public UdpChannel(NioEventLoop eventLoop, int port, DatagramHandler handler) throws IOException {
+        this(eventLoop, port, handler, null, null);
+    }
+
+    /**
+     * Creates a channel in batch mode. Up to {@code batch.capacity()} datagrams are
+     * drained per wakeup before {@code handler} is invoked.
+     */
+    public UdpChannel(NioEventLoop eventLoop, int port, DatagramBatch batch,
+                      DatagramBatchHandler handler) throws IOException {
+        this(eventLoop, port, null, batch, handler);
+    }
+
+    private UdpChannel(NioEventLoop eventLoop, int port, DatagramHandler handler,
+                       DatagramBatch batch, DatagramBatchHandler batchHandler) throws IOException {
+        this.eventLoop = eventLoop;
+        this.handler = handler;
+        this.receiveBuffer = handler != null ? ByteBuffer.allocateDirect(RECEIVE_BUFFER_SIZE) : null;
+        this.batch = batch;
+        this.batchHandler = batchHandler;
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(port));
+            this.key = awaitRegistration(eventLoop.register(channel, SelectionKey.OP_READ, this::onReady));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        logger.debug("UDP Channel created on port {}", getLocalPort());
+    }
+
+    private static SelectionKey awaitRegistration(Future<SelectionKey> future) throws IOException {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                                                      : new IOException("Channel registration failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Channel registration timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while registering channel", e);
+        }
+    }
+
+    public MembershipKey joinMulticastGroup(InetAddress group) throws IOException {
+        NetworkInterface networkInterface = NetworkInterface.getByInetAddress(
+            InetAddress.getLocalHost());
+
+        if (networkInterface == null) {
+            networkInterface = NetworkInterface.getNetworkInterfaces().nextElement();
+        }
+
+        return joinMulticastGroup(group, networkInterface);
+    }
+
+    public MembershipKey joinMulticastGroup(InetAddress group, NetworkInterface networkInterface) throws IOException {
+        MembershipKey membership = channel.join(group, networkInterface);
+        logger.debug("Joined multicast group {} on port {}", group.getHostAddress(), getLocalPort());
+        return membership;
+    }
+
+    /**
+     * Sends the remaining bytes of {@code data}, or queues a copy if the socket send
+     * buffer is full. Returns {@code false} if the send queue is full as well and the
+     * datagram was dropped.
+     */
+    public boolean send(ByteBuffer data, SocketAddress target) throws IOException {
+        int length = data.remaining();
+        // Datagrams already queued go first
+        if (sendQueue.isEmpty() && (write(data, target) > 0 || length == 0)) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Sent {} bytes to {}", length, target);
+            }
+            return true;
+        }
+        if (queuedBytes.addAndGet(length) > maxQueuedBytes) {
+            queuedBytes.addAndGet(-length);
+            return false;
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        copy.put(data).flip();
+        sendQueue.add(new QueuedDatagram(copy, target));
+        scheduleFlush();
+        return true;
+    }
+
+    public boolean send(byte[] data, int offset, int length, SocketAddress target) throws IOException {
+        return send(ByteBuffer.wrap(data, offset, length), target);
+    }
+
+    /**
+     * Sends one datagram without blocking, returning the bytes sent, 0 if the socket
+     * send buffer is full.
+     */
+    int write(ByteBuffer data, SocketAddress target) throws IOException {
+        return channel.send(data, target);
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                eventLoop.executeLater(flushTask);
+            } catch (IllegalStateException e) {
+                close();
+            }
+        }
+    }
+
+    private void onReady(SelectionKey key) throws IOException {
+        try {
+            if (key.isReadable()) {
+                onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+        } catch (CancelledKeyException e) {
+            // Closed by another thread while the event was handled
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            QueuedDatagram next;
+            while ((next = sendQueue.peek()) != null) {
+                if (write(next.data, next.target) == 0 && next.data.hasRemaining()) {
+                    // Socket send buffer is full, resume when writable
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                sendQueue.poll();
+                queuedBytes.addAndGet(-next.data.capacity());
+            }
+            if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            QueuedDatagram dropped = sendQueue.poll();
+            if (dropped != null) {
+                queuedBytes.addAndGet(-dropped.data.capacity());
+                logger.debug("Dropping queued datagram to {}: {}", dropped.target, e.getMessage());
+                scheduleFlush();
+            }
+        } catch (CancelledKeyException e) {
+            // Closed by another thread during the flush
+        }
+    }
+
+    private void onReadable() throws IOException {
+        if (batchHandler != null) {
+            onReadableBatch();
+            return;
+        }
+        SocketAddress source;
+        int reads = 0;
+        while (reads++ < MAX_READS_PER_WAKEUP && (source = channel.receive(receiveBuffer.clear())) != null) {
+            receiveBuffer.flip();
+            if (logger.isTraceEnabled()) {
+                logger.trace("Received {} bytes from {}", receiveBuffer.remaining(), source);
+            }
+            try {
+                handler.onDatagram(receiveBuffer, source);
+            } catch (Exception e) {
+                logger.error("Error in datagram handler", e);
+            }
+        }
+    }
+
+    private void onReadableBatch() throws IOException {
+        if (batch.receive(channel) == 0) {
+            return;
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Received batch of {} datagrams", batch.size());
+        }
+        try {
+            batchHandler.onBatch(batch);
+        } catch (Exception e) {
+            logger.error("Error in datagram batch handler", e);
+        }
+    }
+
+    public int getLocalPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    public NioEventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    /**
+     * @return the bytes of datagrams waiting in the send queue.
+     */
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    public int getMaxQueuedBytes() {
+        return maxQueuedBytes;
+    }
+
+    /**
+     * Limits the bytes queued while the socket send buffer is full, 1 MiB by default.
+     */
+    public void setMaxQueuedBytes(int maxQueuedBytes) {
+        if (maxQueuedBytes <= 0) {
+            throw new IllegalArgumentException("Send queue limit must be positive");
+        }
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    @Override
+    public void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Error closing UDP channel", e);
+        }
+        sendQueue.clear();
+        eventLoop.wakeup();
+        logger.debug("UDP Channel closed");
+    }
+
+    private static final class QueuedDatagram {
+        private final ByteBuffer data;
+        private final SocketAddress target;
+
+        QueuedDatagram(ByteBuffer data, SocketAddress target) {
+            this.data = data;
+            this.target = target;
+        }
+    }
+}
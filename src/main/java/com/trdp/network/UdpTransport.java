@@ -5,89 +5,154 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 
+/**
+ * Blocking UDP socket for a dedicated receiving thread.
+ *
+ * <p>Sends block while the socket send buffer is full, like a plain
+ * {@link DatagramSocket}, and receives wait up to the given timeout. Batched receive
+ * lives on the event-loop driven {@link UdpChannel}.
+ */
 public class UdpTransport implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(UdpTransport.class);
-    
-    private final MulticastSocket socket;
+
+    private final DatagramChannel channel;
+    private final DatagramSocket socket;
     private final int port;
-    
+    private final DatagramPacket receivePacket = new DatagramPacket(new byte[0], 0);
+    private final Object sendLock = new Object();
+    private ByteBuffer sendBuffer;
+    private InetSocketAddress sendTarget;
+
     public UdpTransport() throws IOException {
         this(0);
     }
-    
+
     public UdpTransport(int port) throws IOException {
         this.port = port;
-        this.socket = new MulticastSocket(port);
-        this.socket.setReuseAddress(true);
-        
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.socket = channel.socket();
+
         if (port > 0) {
             logger.debug("UDP Transport created on port {}", port);
         } else {
-            logger.debug("UDP Transport created on ephemeral port {}", socket.getLocalPort());
+            logger.debug("UDP Transport created on ephemeral port {}", getLocalPort());
         }
     }
-    
+
     public void joinMulticastGroup(InetAddress group) throws IOException {
         NetworkInterface networkInterface = NetworkInterface.getByInetAddress(
             InetAddress.getLocalHost());
-        
+
         if (networkInterface == null) {
             networkInterface = NetworkInterface.getNetworkInterfaces().nextElement();
         }
-        
-        socket.joinGroup(new InetSocketAddress(group, port), networkInterface);
+
+        channel.join(group, networkInterface);
         logger.debug("Joined multicast group {} on port {}", group.getHostAddress(), port);
     }
-    
+
     public void send(byte[] data, InetAddress address, int port) throws IOException {
-        DatagramPacket packet = new DatagramPacket(data, data.length, address, port);
-        socket.send(packet);
-        logger.trace("Sent {} bytes to {}:{}", data.length, address.getHostAddress(), port);
+        send(data, 0, data.length, address, port);
     }
-    
-    public int receive(byte[] buffer, int timeoutMs) throws IOException {
-        socket.setSoTimeout(timeoutMs);
-        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-        
-        try {
-            socket.receive(packet);
-            logger.trace("Received {} bytes from {}:{}", 
-                       packet.getLength(), 
-                       packet.getAddress().getHostAddress(), 
-                       packet.getPort());
-            return packet.getLength();
-        } catch (SocketTimeoutException e) {
-            return 0;
+
+    /**
+     * Sends a range of {@code data}. The buffer wrapper and target address are reused
+     * while they do not change, so repeated sends of a pre-encoded frame do not allocate.
+     */
+    public void send(byte[] data, int offset, int length, InetAddress address, int port) throws IOException {
+        synchronized (sendLock) {
+            if (sendBuffer == null || sendBuffer.array() != data) {
+                sendBuffer = ByteBuffer.wrap(data);
+            }
+            if (sendTarget == null || sendTarget.getPort() != port || !sendTarget.getAddress().equals(address)) {
+                sendTarget = new InetSocketAddress(address, port);
+            }
+            sendBuffer.limit(offset + length).position(offset);
+            channel.send(sendBuffer, sendTarget);
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Sent {} bytes to {}:{}", length, address.getHostAddress(), port);
         }
     }
-    
+
+    /**
+     * Sends all datagrams of {@code batch} back to back from the calling thread. Per
+     * datagram failures and the batch send time are reported by the batch itself.
+     *
+     * @return the number of datagrams sent
+     */
+    public int sendBatch(DatagramSendBatch batch) {
+        int sent;
+        synchronized (sendLock) {
+            sent = batch.send(channel);
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Sent batch of {}/{} datagrams in {} ns", sent, batch.size(), batch.getSendNanos());
+        }
+        return sent;
+    }
+
+    /**
+     * Receives one datagram into {@code buffer}. The receive methods reuse an internal
+     * {@link DatagramPacket} and are meant to be called from a single receiving thread.
+     */
+    public int receive(byte[] buffer, int timeoutMs) throws IOException {
+        DatagramPacket packet = receiveInto(buffer, timeoutMs);
+        return packet != null ? packet.getLength() : 0;
+    }
+
     public ReceivedPacket receiveWithSource(byte[] buffer, int timeoutMs) throws IOException {
+        DatagramPacket packet = receiveInto(buffer, timeoutMs);
+        if (packet == null) {
+            return null;
+        }
+        return new ReceivedPacket(buffer, packet.getLength(),
+                                packet.getAddress(), packet.getPort());
+    }
+
+    private DatagramPacket receiveInto(byte[] buffer, int timeoutMs) throws IOException {
         socket.setSoTimeout(timeoutMs);
-        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-        
+        DatagramPacket packet = receivePacket;
+        packet.setData(buffer, 0, buffer.length);
+
         try {
             socket.receive(packet);
-            logger.trace("Received {} bytes from {}:{}", 
-                       packet.getLength(), 
-                       packet.getAddress().getHostAddress(), 
-                       packet.getPort());
-            return new ReceivedPacket(buffer, packet.getLength(), 
-                                    packet.getAddress(), packet.getPort());
+            if (logger.isTraceEnabled()) {
+                logger.trace("Received {} bytes from {}:{}",
+                           packet.getLength(),
+                           packet.getAddress().getHostAddress(),
+                           packet.getPort());
+            }
+            return packet;
         } catch (SocketTimeoutException e) {
             return null;
         }
     }
-    
+
     public int getLocalPort() {
         return socket.getLocalPort();
     }
-    
+
     @Override
     public void close() {
-        if (socket != null && !socket.isClosed()) {
-            socket.close();
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            channel.close();
             logger.debug("UDP Transport closed");
+        } catch (IOException e) {
+            logger.error("Error closing UDP transport", e);
         }
     }
 }
@@ -0,0 +1,258 @@
+package com.trdp.pd;
+
+import com.trdp.md.TransportProtocol;
+import com.trdp.network.DatagramSendBatch;
+import com.trdp.network.UdpTransport;
+import com.trdp.protocol.TrdpFrame;
+import com.trdp.stats.LatencyHistogram;
+import com.trdp.stats.TrdpStatistics;
+import com.trdp.util.HashedWheelTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes any number of PD telegrams cyclically from one hashed timer wheel thread.
+ *
+ * <p>Each telegram keeps its own pre-encoded {@link TrdpFrame}; the payload supplier
+ * writes into it directly on every cycle. Cycle instants are anchored to a common time
+ * origin, so telegrams do not drift, and when no phase offset is given the telegram is
+ * placed on the least loaded tick of its cycle to avoid bursts at cycle boundaries.
+ *
+ * <p>Telegrams due on the same tick are collected in a {@link DatagramSendBatch} and
+ * sent back to back once the tick's expiries have run. Batch send times and failed
+ * sends are tracked per publisher.
+ */
+public class PdCyclicPublisher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PdCyclicPublisher.class);
+
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    public static final long DEFAULT_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+
+    private final HashedWheelTimer timer;
+    private final UdpTransport transport;
+    private final int[] slotLoad;
+    private final List<PdCyclicTelegram> telegrams;
+    private final DatagramSendBatch sendBatch;
+    private final PdCyclicTelegram[] batchTelegrams;
+    private final LatencyHistogram batchSendTime;
+    private volatile TrdpStatistics statistics = TrdpStatistics.global();
+    private volatile long batchCount;
+    private volatile long sendFailureCount;
+    private volatile int lastBatchSize;
+
+    public PdCyclicPublisher() throws IOException {
+        this(DEFAULT_TICK_NANOS, DEFAULT_SPIN_NANOS);
+    }
+
+    public PdCyclicPublisher(long tickNanos, long spinNanos) throws IOException {
+        this.transport = new UdpTransport();
+        this.timer = new HashedWheelTimer("PD-Cyclic-Publisher", tickNanos, DEFAULT_WHEEL_SIZE, spinNanos);
+        this.slotLoad = new int[DEFAULT_WHEEL_SIZE];
+        this.telegrams = new ArrayList<>();
+        this.sendBatch = new DatagramSendBatch();
+        this.batchTelegrams = new PdCyclicTelegram[sendBatch.capacity()];
+        this.batchSendTime = new LatencyHistogram();
+        this.timer.setTickListener(this::flush);
+
+        logger.info("PD Cyclic Publisher created with {} us tick", TimeUnit.NANOSECONDS.toMicros(tickNanos));
+    }
+
+    /**
+     * Adds a telegram with an automatically chosen phase offset.
+     */
+    public PdCyclicTelegram add(int comId, String destinationAddress, int destinationPort,
+                                long cycleTimeUs, PdPayloadSupplier supplier) throws IOException {
+        return add(comId, destinationAddress, destinationPort, cycleTimeUs, -1, supplier);
+    }
+
+    /**
+     * Adds a telegram sent every {@code cycleTimeUs}, offset by {@code phaseOffsetUs} from
+     * the common cycle origin. A negative phase offset selects one automatically.
+     */
+    public PdCyclicTelegram add(int comId, String destinationAddress, int destinationPort,
+                                long cycleTimeUs, long phaseOffsetUs, PdPayloadSupplier supplier) throws IOException {
+        long tickNanos = timer.getTickNanos();
+        long cycleNanos = TimeUnit.MICROSECONDS.toNanos(cycleTimeUs);
+        if (cycleNanos < tickNanos) {
+            throw new IllegalArgumentException("Cycle time must be at least one scheduler tick");
+        }
+        InetAddress address = InetAddress.getByName(destinationAddress);
+
+        PdCyclicTelegram telegram;
+        synchronized (telegrams) {
+            int cycleTicks = (int) Math.min(cycleNanos / tickNanos, slotLoad.length);
+            int slot = phaseOffsetUs < 0
+                ? leastLoadedSlot(cycleTicks)
+                : (int) ((TimeUnit.MICROSECONDS.toNanos(phaseOffsetUs) / tickNanos) % cycleTicks);
+            long phaseNanos = phaseOffsetUs < 0 ? slot * tickNanos : TimeUnit.MICROSECONDS.toNanos(phaseOffsetUs);
+            adjustLoad(slot, cycleTicks, 1);
+
+            telegram = new PdCyclicTelegram(this, comId, address, destinationPort,
+                                            cycleNanos, phaseNanos, slot, supplier);
+            telegrams.add(telegram);
+        }
+
+        long origin = timer.getStartNanos() + telegram.getPhaseNanos();
+        long now = System.nanoTime();
+        long elapsedCycles = now - origin < 0 ? 0 : (now - origin) / cycleNanos + 1;
+        telegram.setPlannedNanos(origin + elapsedCycles * cycleNanos);
+        synchronized (telegrams) {
+            telegram.setActive(true);
+            timer.scheduleAt(telegram, telegram.getPlannedNanos());
+        }
+
+        logger.info("Cyclic PD telegram added: ComID={}, Cycle={}us, Phase={}us, Destination={}:{}",
+                    comId, cycleTimeUs, telegram.getPhaseOffsetUs(), destinationAddress, destinationPort);
+        return telegram;
+    }
+
+    public boolean remove(PdCyclicTelegram telegram) {
+        synchronized (telegrams) {
+            if (!telegrams.remove(telegram)) {
+                return false;
+            }
+            int cycleTicks = (int) Math.min(telegram.getCycleNanos() / timer.getTickNanos(), slotLoad.length);
+            adjustLoad(telegram.getPhaseSlot(), cycleTicks, -1);
+            telegram.setActive(false);
+            timer.cancel(telegram);
+        }
+        logger.info("Cyclic PD telegram removed: ComID={}", telegram.getComId());
+        return true;
+    }
+
+    public Collection<PdCyclicTelegram> getTelegrams() {
+        synchronized (telegrams) {
+            return new ArrayList<>(telegrams);
+        }
+    }
+
+    public void setStatistics(TrdpStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return the time taken to send each batch of telegrams due on the same tick.
+     */
+    public LatencyHistogram getBatchSendTime() {
+        return batchSendTime;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getSendFailureCount() {
+        return sendFailureCount;
+    }
+
+    private int leastLoadedSlot(int cycleTicks) {
+        int best = 0;
+        long bestLoad = Long.MAX_VALUE;
+        for (int slot = 0; slot < cycleTicks; slot++) {
+            long load = 0;
+            for (int i = slot; i < slotLoad.length; i += cycleTicks) {
+                load += slotLoad[i];
+            }
+            if (load < bestLoad) {
+                bestLoad = load;
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    private void adjustLoad(int slot, int cycleTicks, int delta) {
+        for (int i = slot; i < slotLoad.length; i += cycleTicks) {
+            slotLoad[i] += delta;
+        }
+    }
+
+    /**
+     * Queues the telegram's refreshed frame for the batch sent at the end of the tick.
+     */
+    void send(PdCyclicTelegram telegram) {
+        try {
+            if (!telegram.prepare()) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error in PD payload supplier for ComID {}", telegram.getComId(), e);
+            return;
+        }
+        if (sendBatch.isFull()) {
+            flush();
+        }
+        TrdpFrame frame = telegram.getFrame();
+        batchTelegrams[sendBatch.size()] = telegram;
+        sendBatch.add(frame.array(), 0, frame.length(), telegram.getDestination());
+    }
+
+    private void flush() {
+        int size = sendBatch.size();
+        if (size == 0) {
+            return;
+        }
+        long sendStart = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            batchTelegrams[i].recordSendStart(sendStart);
+        }
+        transport.sendBatch(sendBatch);
+        batchSendTime.record(sendBatch.getSendNanos());
+        TrdpStatistics stats = statistics;
+        IOException firstFailure = null;
+        for (int i = 0; i < size; i++) {
+            PdCyclicTelegram telegram = batchTelegrams[i];
+            batchTelegrams[i] = null;
+            IOException failure = sendBatch.failure(i);
+            if (failure == null) {
+                telegram.recordSent();
+                stats.recordTx(TransportProtocol.UDP, telegram.getComId(), telegram.getFrame().payloadLength());
+            } else if (firstFailure == null) {
+                firstFailure = failure;
+            }
+        }
+        int failed = sendBatch.getFailedCount();
+        batchCount++;
+        lastBatchSize = size;
+        if (failed > 0) {
+            sendFailureCount += failed;
+            logger.error("Failed to send {} of {} cyclic PD telegrams", failed, size, firstFailure);
+        }
+        sendBatch.clear();
+    }
+
+    void reschedule(PdCyclicTelegram telegram) {
+        // Checked under the same lock as remove() so a removed telegram is never re-armed
+        synchronized (telegrams) {
+            if (telegram.isActive()) {
+                timer.scheduleAt(telegram, telegram.getPlannedNanos());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (telegrams) {
+            for (PdCyclicTelegram telegram : telegrams) {
+                telegram.setActive(false);
+                timer.cancel(telegram);
+            }
+            telegrams.clear();
+        }
+        timer.close();
+        transport.close();
+        logger.info("PD Cyclic Publisher closed");
+    }
+}
@@ -0,0 +1,165 @@
+package com.trdp.pd;
+
+import com.trdp.protocol.TrdpFrame;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPdHeader;
+import com.trdp.util.HashedWheelTimer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * One cyclically published PD telegram owned by a {@link PdCyclicPublisher}.
+ *
+ * <p>Timing statistics are written by the scheduler thread only and can be read from
+ * any thread. The send count only includes telegrams the socket accepted. Jitter is
+ * the lateness of the actual send start against the planned cycle instant, taken just
+ * before the batch carrying the telegram is sent, so it includes the time spent
+ * refreshing the other telegrams due on the same tick; an overrun is a whole cycle
+ * that had to be skipped because the scheduler fell further behind than one cycle.
+ */
+public final class PdCyclicTelegram extends HashedWheelTimer.Timeout {
+
+    private final PdCyclicPublisher owner;
+    private final int comId;
+    private final InetAddress destinationAddress;
+    private final int destinationPort;
+    private final InetSocketAddress destination;
+    private final long cycleNanos;
+    private final long phaseNanos;
+    private final int phaseSlot;
+    private final PdPayloadSupplier supplier;
+    private final TrdpFrame frame;
+    private int sequenceCounter;
+    private long plannedNanos;
+    // Planned instant of the cycle whose frame is waiting in the publisher's batch
+    private long duePlannedNanos;
+
+    private volatile boolean active;
+    private volatile long cycleCount;
+    private volatile long sendCount;
+    private volatile long overrunCount;
+    private volatile long lastJitterNanos;
+    private volatile long maxJitterNanos;
+    private volatile long totalJitterNanos;
+    private volatile long jitterCount;
+
+    PdCyclicTelegram(PdCyclicPublisher owner, int comId, InetAddress destinationAddress, int destinationPort,
+                     long cycleNanos, long phaseNanos, int phaseSlot, PdPayloadSupplier supplier) {
+        this.owner = owner;
+        this.comId = comId;
+        this.destinationAddress = destinationAddress;
+        this.destinationPort = destinationPort;
+        this.destination = new InetSocketAddress(destinationAddress, destinationPort);
+        this.cycleNanos = cycleNanos;
+        this.phaseNanos = phaseNanos;
+        this.phaseSlot = phaseSlot;
+        this.supplier = supplier;
+
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(comId);
+        this.frame = new TrdpFrame(header);
+    }
+
+    @Override
+    protected void expire(long nowNanos) {
+        cycleCount++;
+        duePlannedNanos = plannedNanos;
+        owner.send(this);
+
+        plannedNanos += cycleNanos;
+        if (plannedNanos - nowNanos <= 0) {
+            long missed = (nowNanos - plannedNanos) / cycleNanos + 1;
+            overrunCount += missed;
+            plannedNanos += missed * cycleNanos;
+        }
+        owner.reschedule(this);
+    }
+
+    /**
+     * Refills the frame from the supplier. Returns {@code false} if the supplier
+     * skipped this cycle.
+     */
+    boolean prepare() {
+        int length = supplier.supply(frame.array(), frame.payloadOffset(), frame.maxPayloadLength());
+        if (length < 0) {
+            return false;
+        }
+        frame.setSequenceCounter(sequenceCounter++);
+        frame.setPayloadLength(length);
+        frame.seal();
+        return true;
+    }
+
+    void recordSent() {
+        sendCount++;
+    }
+
+    /**
+     * Records the jitter of the frame queued by the last {@link #prepare()}, whose batch
+     * starts sending at {@code sendStartNanos}.
+     */
+    void recordSendStart(long sendStartNanos) {
+        long jitter = Math.max(0, sendStartNanos - duePlannedNanos);
+        jitterCount++;
+        lastJitterNanos = jitter;
+        totalJitterNanos += jitter;
+        if (jitter > maxJitterNanos) {
+            maxJitterNanos = jitter;
+        }
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void setPlannedNanos(long plannedNanos) {
+        this.plannedNanos = plannedNanos;
+    }
+
+    long getPlannedNanos() {
+        return plannedNanos;
+    }
+
+    TrdpFrame getFrame() {
+        return frame;
+    }
+
+    InetSocketAddress getDestination() {
+        return destination;
+    }
+
+    long getCycleNanos() {
+        return cycleNanos;
+    }
+
+    long getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    int getPhaseSlot() {
+        return phaseSlot;
+    }
+
+    public int getComId() { return comId; }
+    public InetAddress getDestinationAddress() { return destinationAddress; }
+    public int getDestinationPort() { return destinationPort; }
+    public long getCycleTimeUs() { return cycleNanos / 1000; }
+    public long getPhaseOffsetUs() { return phaseNanos / 1000; }
+
+    public long getCycleCount() { return cycleCount; }
+    public long getSendCount() { return sendCount; }
+    public long getOverrunCount() { return overrunCount; }
+    public long getLastJitterNanos() { return lastJitterNanos; }
+    public long getMaxJitterNanos() { return maxJitterNanos; }
+
+    public long getMeanJitterNanos() {
+        long count = jitterCount;
+        return count == 0 ? 0 : totalJitterNanos / count;
+    }
+}
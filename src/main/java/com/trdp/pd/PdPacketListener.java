@@ -0,0 +1,12 @@
+package com.trdp.pd;
+
+import com.trdp.protocol.TrdpPacketView;
+
+/**
+ * Zero-copy variant of {@link PdDataListener}. The view wraps the receive buffer and is
+ * only valid for the duration of the callback; copy the payload if it must be retained.
+ */
+@FunctionalInterface
+public interface PdPacketListener {
+    void onPacketReceived(TrdpPacketView packet);
+}
@@ -0,0 +1,30 @@
+package com.trdp.pd;
+
+import java.util.function.Supplier;
+
+/**
+ * Supplies the payload of a cyclic PD telegram by writing it straight into the
+ * telegram's pre-encoded frame.
+ */
+@FunctionalInterface
+public interface PdPayloadSupplier {
+
+    /**
+     * @return the number of bytes written, or a negative value to skip this cycle.
+     */
+    int supply(byte[] buffer, int offset, int maxLength);
+
+    static PdPayloadSupplier of(Supplier<byte[]> supplier) {
+        return (buffer, offset, maxLength) -> {
+            byte[] data = supplier.get();
+            if (data == null) {
+                return -1;
+            }
+            if (data.length > maxLength) {
+                throw new IllegalArgumentException("Data size exceeds maximum PD data size");
+            }
+            System.arraycopy(data, 0, buffer, offset, data.length);
+            return data.length;
+        };
+    }
+}
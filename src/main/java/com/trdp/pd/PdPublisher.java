@@ -1,11 +1,12 @@
 package com.trdp.pd;
 
+import com.trdp.md.TransportProtocol;
 import com.trdp.network.UdpTransport;
 import com.trdp.protocol.TrdpConstants;
-import com.trdp.protocol.TrdpHeader;
+import com.trdp.protocol.TrdpFrame;
 import com.trdp.protocol.TrdpPdHeader;
 import com.trdp.protocol.TrdpMessageType;
-import com.trdp.protocol.TrdpPacket;
+import com.trdp.stats.TrdpStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +22,8 @@ public class PdPublisher implements AutoCloseable {
     private final InetAddress destinationAddress;
     private final int destinationPort;
     private final AtomicInteger sequenceCounter;
+    private final TrdpFrame frame;
+    private volatile TrdpStatistics statistics = TrdpStatistics.global();
     
     public PdPublisher(int comId, String destinationAddress, int destinationPort) throws IOException {
         this.comId = comId;
@@ -29,27 +32,48 @@ public class PdPublisher implements AutoCloseable {
         this.transport = new UdpTransport();
         this.sequenceCounter = new AtomicInteger(0);
         
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(comId);
+        header.setEtbTopoCnt(0);
+        header.setOpTrnTopoCnt(0);
+        this.frame = new TrdpFrame(header);
+        
         logger.info("PD Publisher created for ComID {} to {}:{}", comId, destinationAddress, destinationPort);
     }
     
     public void publish(byte[] data) throws IOException {
-        if (data.length > TrdpConstants.TRDP_MAX_PD_DATA_SIZE) {
+        publish(data, 0, data.length);
+    }
+    
+    /**
+     * Publishes a telegram by rewriting the pre-encoded frame in place: only the
+     * sequence counter, payload, dataset length and FCS fields change between cycles,
+     * and the same buffer is handed to the socket, so publishing does not allocate.
+     */
+    public void publish(byte[] data, int offset, int length) throws IOException {
+        if (length > TrdpConstants.TRDP_MAX_PD_DATA_SIZE) {
             throw new IllegalArgumentException("Data size exceeds maximum PD data size");
         }
         
-        TrdpHeader header = new TrdpPdHeader();
-        header.setSequenceCounter(sequenceCounter.getAndIncrement());
-        header.setMessageType(TrdpMessageType.PD);
-        header.setComId(comId);
-        ((TrdpPdHeader) header).setEtbTopoCnt(0);
-        ((TrdpPdHeader) header).setOpTrnTopoCnt(0);
-        
-        TrdpPacket packet = new TrdpPacket(header, data);
-        byte[] encodedPacket = packet.encode();
+        int seqNo;
+        synchronized (frame) {
+            seqNo = sequenceCounter.getAndIncrement();
+            frame.setSequenceCounter(seqNo);
+            frame.setPayload(data, offset, length);
+            frame.seal();
+            
+            transport.send(frame.array(), 0, frame.length(), destinationAddress, destinationPort);
+        }
+        statistics.recordTx(TransportProtocol.UDP, comId, length);
         
-        transport.send(encodedPacket, destinationAddress, destinationPort);
-        logger.debug("Published PD message: ComID={}, SeqNo={}, Size={}", comId, 
-                    header.getSequenceCounter(), data.length);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Published PD message: ComID={}, SeqNo={}, Size={}", comId, seqNo, length);
+        }
+    }
+    
+    public void setStatistics(TrdpStatistics statistics) {
+        this.statistics = statistics;
     }
     
     @Override
@@ -0,0 +1,252 @@
+package com.trdp.pd;
+
+import com.trdp.md.TransportProtocol;
+import com.trdp.network.DatagramBatch;
+import com.trdp.network.NioEventLoop;
+import com.trdp.network.UdpChannel;
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.stats.ComIdStatistics;
+import com.trdp.stats.TrdpStatistics;
+import com.trdp.util.IntObjectMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Receives PD telegrams for any number of ComIDs on a single socket.
+ *
+ * <p>Each datagram's ComID is read straight from the header and looked up in a
+ * primitive int-keyed table before anything else is done; telegrams nobody subscribed
+ * to are dropped without FCS checks or copies. Adding ComIDs therefore does not
+ * multiply per-packet work the way one {@link PdSubscriber} per ComID does.
+ * Every wakeup drains all queued datagrams into a {@link DatagramBatch} before
+ * dispatching them. Listeners are invoked on the event loop thread.
+ */
+public class PdReceiveHub implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PdReceiveHub.class);
+
+    private final NioEventLoop eventLoop;
+    private final boolean ownsEventLoop;
+    private final UdpChannel channel;
+    private final TrdpPacketView view;
+    private final Object registrationLock = new Object();
+    private volatile IntObjectMap<Subscription> subscriptions;
+    private volatile TrdpStatistics statistics = TrdpStatistics.global();
+    private volatile PdSequenceTracker sequenceTracker;
+
+    public PdReceiveHub(int port) throws IOException {
+        this(new NioEventLoop("PD-Receive-Hub-" + port), true, port);
+    }
+
+    public PdReceiveHub(NioEventLoop eventLoop, int port) throws IOException {
+        this(eventLoop, false, port);
+    }
+
+    private PdReceiveHub(NioEventLoop eventLoop, boolean ownsEventLoop, int port) throws IOException {
+        this.eventLoop = eventLoop;
+        this.ownsEventLoop = ownsEventLoop;
+        this.view = new TrdpPacketView();
+        this.subscriptions = new IntObjectMap<>();
+        try {
+            this.channel = new UdpChannel(eventLoop, port, new DatagramBatch(), this::onBatch);
+        } catch (IOException e) {
+            if (ownsEventLoop) {
+                eventLoop.close();
+            }
+            throw e;
+        }
+
+        logger.info("PD Receive Hub created on port {}", port);
+    }
+
+    public void joinMulticastGroup(String multicastGroup) throws IOException {
+        channel.joinMulticastGroup(InetAddress.getByName(multicastGroup));
+    }
+
+    public void subscribe(int comId, PdPacketListener listener) {
+        update(comId, subscription -> subscription.withPacketListener(listener, true));
+        logger.debug("Added packet listener to PD Receive Hub for ComID {}", comId);
+    }
+
+    public void unsubscribe(int comId, PdPacketListener listener) {
+        update(comId, subscription -> subscription.withPacketListener(listener, false));
+        logger.debug("Removed packet listener from PD Receive Hub for ComID {}", comId);
+    }
+
+    public void subscribe(int comId, PdDataListener listener) {
+        update(comId, subscription -> subscription.withDataListener(listener, true));
+        logger.debug("Added listener to PD Receive Hub for ComID {}", comId);
+    }
+
+    public void unsubscribe(int comId, PdDataListener listener) {
+        update(comId, subscription -> subscription.withDataListener(listener, false));
+        logger.debug("Removed listener from PD Receive Hub for ComID {}", comId);
+    }
+
+    public boolean isSubscribed(int comId) {
+        return subscriptions.containsKey(comId);
+    }
+
+    private void update(int comId, UnaryOperator<Subscription> change) {
+        synchronized (registrationLock) {
+            IntObjectMap<Subscription> copy = subscriptions.copy();
+            Subscription current = copy.get(comId);
+            Subscription updated = change.apply(current != null ? current : Subscription.EMPTY);
+            if (updated.isEmpty()) {
+                copy.remove(comId);
+            } else {
+                copy.put(comId, updated);
+            }
+            subscriptions = copy;
+        }
+    }
+
+    private void onBatch(DatagramBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            onDatagram(batch.buffer(), batch.offset(i), batch.length(i), batch.source(i));
+        }
+    }
+
+    private void onDatagram(ByteBuffer datagram, int offset, int length, SocketAddress source) {
+        if (length < TrdpConstants.TRDP_PD_HEADER_SIZE + TrdpConstants.TRDP_FCS_SIZE) {
+            return;
+        }
+
+        TrdpPacketView packet = view.wrap(datagram, offset, length);
+        Subscription subscription = subscriptions.get(packet.getComId());
+        if (subscription == null) {
+            return;
+        }
+
+        TrdpPacketView.Status status = packet.verify();
+        if (status != TrdpPacketView.Status.VALID) {
+            statistics.recordInvalid(TransportProtocol.UDP, packet, status);
+            logger.warn("Discarding invalid PD packet for ComID {}: {}", packet.getComId(), status);
+            return;
+        }
+        if (packet.getMessageType() != TrdpMessageType.PD) {
+            statistics.recordUnexpectedType(TransportProtocol.UDP, packet.getComId());
+            logger.warn("Received non-PD message, ignoring");
+            return;
+        }
+
+        ComIdStatistics comIdStatistics = statistics.recordRx(TransportProtocol.UDP, packet.getComId(),
+                                                              packet.getPayloadLength());
+        PdSequenceTracker tracker = sequenceTracker;
+        if (tracker == null) {
+            comIdStatistics.recordSequence(packet.getSequenceCounter());
+        } else if (tracker.track(sourceIp(source), packet.getComId(), packet.getSequenceCounter(),
+                                 comIdStatistics) != PdSequenceTracker.Verdict.FRESH) {
+            return;
+        }
+        subscription.dispatch(packet);
+    }
+
+    private static int sourceIp(SocketAddress source) {
+        // Inet4Address.hashCode() is the address itself, read without copying its bytes
+        return source instanceof InetSocketAddress ? ((InetSocketAddress) source).getAddress().hashCode() : 0;
+    }
+
+    /**
+     * Enables dropping duplicate and stale telegrams per (source, ComID) before they are
+     * dispatched, or disables it with {@code null}. The tracker is then used by the event
+     * loop thread only and must not be shared.
+     */
+    public void setSequenceTracker(PdSequenceTracker sequenceTracker) {
+        this.sequenceTracker = sequenceTracker;
+    }
+
+    public void setStatistics(TrdpStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public int getLocalPort() {
+        return channel.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        channel.close();
+        if (ownsEventLoop) {
+            eventLoop.close();
+        }
+        logger.info("PD Receive Hub closed");
+    }
+
+    /**
+     * Immutable listener set for one ComID; replaced as a whole on every change.
+     */
+    private static final class Subscription {
+        static final Subscription EMPTY = new Subscription(new PdPacketListener[0], new PdDataListener[0]);
+
+        private final PdPacketListener[] packetListeners;
+        private final PdDataListener[] dataListeners;
+
+        private Subscription(PdPacketListener[] packetListeners, PdDataListener[] dataListeners) {
+            this.packetListeners = packetListeners;
+            this.dataListeners = dataListeners;
+        }
+
+        Subscription withPacketListener(PdPacketListener listener, boolean add) {
+            return new Subscription(change(packetListeners, listener, add), dataListeners);
+        }
+
+        Subscription withDataListener(PdDataListener listener, boolean add) {
+            return new Subscription(packetListeners, change(dataListeners, listener, add));
+        }
+
+        private static <T> T[] change(T[] listeners, T listener, boolean add) {
+            if (add) {
+                T[] result = Arrays.copyOf(listeners, listeners.length + 1);
+                result[listeners.length] = listener;
+                return result;
+            }
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i].equals(listener)) {
+                    T[] result = Arrays.copyOf(listeners, listeners.length - 1);
+                    System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+                    return result;
+                }
+            }
+            return listeners;
+        }
+
+        boolean isEmpty() {
+            return packetListeners.length == 0 && dataListeners.length == 0;
+        }
+
+        void dispatch(TrdpPacketView packet) {
+            for (PdPacketListener listener : packetListeners) {
+                try {
+                    listener.onPacketReceived(packet);
+                } catch (Exception e) {
+                    logger.error("Error in PD listener callback", e);
+                }
+            }
+
+            if (dataListeners.length == 0) {
+                return;
+            }
+
+            int comId = packet.getComId();
+            byte[] data = packet.copyPayload();
+            int sequenceNumber = packet.getSequenceCounter();
+            for (PdDataListener listener : dataListeners) {
+                try {
+                    listener.onDataReceived(comId, data, sequenceNumber);
+                } catch (Exception e) {
+                    logger.error("Error in PD listener callback", e);
+                }
+            }
+        }
+    }
+}
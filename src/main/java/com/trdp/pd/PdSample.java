@@ -0,0 +1,54 @@
+package com.trdp.pd;
+
+import com.trdp.protocol.TrdpConstants;
+
+import java.util.Arrays;
+
+/**
+ * Reusable copy of one PD value read from a {@link PdTrafficStore}. A reader keeps one
+ * sample per thread and passes it to every read, so reading does not allocate.
+ */
+public final class PdSample {
+
+    private final byte[] data;
+    private int comId;
+    private int length;
+    private int sequenceCounter;
+    private long receiveTimeNanos;
+
+    public PdSample() {
+        this(TrdpConstants.TRDP_MAX_PD_DATA_SIZE);
+    }
+
+    public PdSample(int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    void set(int comId, int length, int sequenceCounter, long receiveTimeNanos) {
+        this.comId = comId;
+        this.length = length;
+        this.sequenceCounter = sequenceCounter;
+        this.receiveTimeNanos = receiveTimeNanos;
+    }
+
+    /**
+     * @return the backing array; only the first {@link #getLength()} bytes are valid.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public byte[] copyData() {
+        return Arrays.copyOf(data, length);
+    }
+
+    public int getCapacity() { return data.length; }
+    public int getComId() { return comId; }
+    public int getLength() { return length; }
+    public int getSequenceCounter() { return sequenceCounter; }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the value was stored.
+     */
+    public long getReceiveTimeNanos() { return receiveTimeNanos; }
+}
@@ -0,0 +1,135 @@
+package com.trdp.pd;
+
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpCounters;
+
+/**
+ * Tracks the latest sequence counter per (source IPv4 address, ComID) pair and
+ * classifies each received telegram as fresh, duplicate or stale.
+ *
+ * <p>State lives in a primitive open-addressing table keyed by
+ * {@code sourceIp << 32 | comId}, so tracking does not box or allocate once a source is
+ * known. A counter that falls back by more than the restart window is taken as a
+ * publisher restart and accepted. The tracker is not thread-safe; it is meant to be
+ * driven by a single receive thread such as a {@link PdReceiveHub} event loop.
+ */
+public class PdSequenceTracker {
+
+    public static final int DEFAULT_RESTART_WINDOW = 64;
+
+    public enum Verdict {
+        FRESH,
+        DUPLICATE,
+        STALE
+    }
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int restartWindow;
+    private long[] keys;
+    private int[] sequences;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public PdSequenceTracker() {
+        this(DEFAULT_RESTART_WINDOW);
+    }
+
+    public PdSequenceTracker(int restartWindow) {
+        if (restartWindow < 0) {
+            throw new IllegalArgumentException("Restart window must not be negative");
+        }
+        this.restartWindow = restartWindow;
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        sequences = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public static long key(int sourceIp, int comId) {
+        return ((long) sourceIp << 32) | (comId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Classifies a telegram and, if it is fresh, makes its counter the latest for the
+     * source. Gaps, duplicates and stale telegrams are added to {@code counters} if it
+     * is not {@code null}.
+     */
+    public Verdict track(int sourceIp, int comId, int sequenceCounter, TrdpCounters counters) {
+        long key = key(sourceIp, comId);
+        int index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return advance(index, sequenceCounter, counters);
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        sequences[index] = sequenceCounter;
+        used[index] = true;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return Verdict.FRESH;
+    }
+
+    private Verdict advance(int index, int sequenceCounter, TrdpCounters counters) {
+        // Signed distance, so counter wrap-around is handled naturally
+        int distance = sequenceCounter - sequences[index];
+        if (distance == 0) {
+            if (counters != null) {
+                counters.increment(TrdpCounter.DUPLICATES);
+            }
+            return Verdict.DUPLICATE;
+        }
+        if (distance < 0 && distance >= -restartWindow) {
+            if (counters != null) {
+                counters.increment(TrdpCounter.OUT_OF_ORDER);
+            }
+            return Verdict.STALE;
+        }
+        if (distance > 1 && counters != null) {
+            counters.add(TrdpCounter.SEQUENCE_GAPS, distance - 1);
+        }
+        sequences[index] = sequenceCounter;
+        return Verdict.FRESH;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSequences = sequences;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = hash(oldKeys[i]) & mask;
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                sequences[index] = oldSequences[i];
+                used[index] = true;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        allocate(64);
+        size = 0;
+    }
+}
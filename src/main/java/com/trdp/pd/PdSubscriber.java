@@ -1,9 +1,15 @@
 package com.trdp.pd;
 
+import com.trdp.md.TransportProtocol;
+import com.trdp.network.DatagramBatch;
+import com.trdp.network.NioEventLoop;
+import com.trdp.network.UdpChannel;
 import com.trdp.network.UdpTransport;
 import com.trdp.protocol.TrdpConstants;
 import com.trdp.protocol.TrdpMessageType;
-import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.stats.ComIdStatistics;
+import com.trdp.stats.TrdpStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,15 +24,22 @@ public class PdSubscriber implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(PdSubscriber.class);
     
     private final UdpTransport transport;
+    private final UdpChannel channel;
     private final int comId;
     private final CopyOnWriteArrayList<PdDataListener> listeners;
+    private final CopyOnWriteArrayList<PdPacketListener> packetListeners;
     private final ExecutorService executor;
+    private final TrdpPacketView channelView;
+    private volatile TrdpStatistics statistics = TrdpStatistics.global();
     private volatile boolean running;
     
     public PdSubscriber(int comId, String multicastGroup, int port) throws IOException {
         this.comId = comId;
         this.transport = new UdpTransport(port);
+        this.channel = null;
+        this.channelView = null;
         this.listeners = new CopyOnWriteArrayList<>();
+        this.packetListeners = new CopyOnWriteArrayList<>();
         this.executor = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r, "PD-Subscriber-" + comId);
             t.setDaemon(true);
@@ -37,6 +50,28 @@ public class PdSubscriber implements AutoCloseable {
         logger.info("PD Subscriber created for ComID {} on {}:{}", comId, multicastGroup, port);
     }
     
+    /**
+     * Creates a subscriber serviced by a shared {@link NioEventLoop} instead of its own
+     * socket thread. Listeners are then invoked on the event loop thread.
+     */
+    public PdSubscriber(int comId, String multicastGroup, int port, NioEventLoop eventLoop) throws IOException {
+        this.comId = comId;
+        this.transport = null;
+        this.executor = null;
+        this.channelView = new TrdpPacketView();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.packetListeners = new CopyOnWriteArrayList<>();
+        this.channel = new UdpChannel(eventLoop, port, new DatagramBatch(), this::onBatch);
+        
+        try {
+            channel.joinMulticastGroup(InetAddress.getByName(multicastGroup));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        logger.info("PD Subscriber created for ComID {} on {}:{} (event loop)", comId, multicastGroup, port);
+    }
+    
     public void start() {
         if (running) {
             logger.warn("PD Subscriber already running for ComID {}", comId);
@@ -44,18 +79,27 @@ public class PdSubscriber implements AutoCloseable {
         }
         
         running = true;
-        executor.submit(this::receiveLoop);
+        if (executor != null) {
+            executor.submit(this::receiveLoop);
+        }
         logger.info("PD Subscriber started for ComID {}", comId);
     }
     
+    private void onBatch(DatagramBatch batch) {
+        if (running) {
+            processBatch(batch, channelView);
+        }
+    }
+    
     private void receiveLoop() {
         byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
+        TrdpPacketView view = new TrdpPacketView();
         
         while (running) {
             try {
                 int length = transport.receive(buffer, TrdpConstants.DEFAULT_PD_TIMEOUT_MS);
                 if (length > 0) {
-                    processReceivedData(buffer, length);
+                    processReceivedData(view.wrap(buffer, 0, length));
                 }
             } catch (IOException e) {
                 if (running) {
@@ -65,27 +109,52 @@ public class PdSubscriber implements AutoCloseable {
         }
     }
     
-    private void processReceivedData(byte[] buffer, int length) {
+    private void processBatch(DatagramBatch batch, TrdpPacketView view) {
+        for (int i = 0; i < batch.size(); i++) {
+            processReceivedData(view.wrap(batch.buffer(), batch.offset(i), batch.length(i)));
+        }
+    }
+    
+    private void processReceivedData(TrdpPacketView packet) {
         try {
-            byte[] packetData = new byte[length];
-            System.arraycopy(buffer, 0, packetData, 0, length);
-            
-            TrdpPacket packet = TrdpPacket.decode(packetData);
+            TrdpPacketView.Status status = packet.verify();
+            if (status != TrdpPacketView.Status.VALID) {
+                statistics.recordInvalid(TransportProtocol.UDP, packet, status);
+                logger.warn("Discarding invalid PD packet: {}", status);
+                return;
+            }
             
-            if (packet.getHeader().getMessageType() != TrdpMessageType.PD) {
+            if (packet.getMessageType() != TrdpMessageType.PD) {
+                statistics.recordUnexpectedType(TransportProtocol.UDP, packet.getComId());
                 logger.warn("Received non-PD message, ignoring");
                 return;
             }
             
-            if (packet.getHeader().getComId() == comId) {
-                notifyListeners(packet.getPayload(), packet.getHeader().getSequenceCounter());
+            if (packet.getComId() == comId) {
+                ComIdStatistics comIdStatistics = statistics.recordRx(TransportProtocol.UDP, comId, packet.getPayloadLength());
+                comIdStatistics.recordSequence(packet.getSequenceCounter());
+                notifyListeners(packet);
             }
         } catch (Exception e) {
             logger.error("Error processing received PD packet", e);
         }
     }
     
-    private void notifyListeners(byte[] data, int sequenceNumber) {
+    private void notifyListeners(TrdpPacketView packet) {
+        for (PdPacketListener listener : packetListeners) {
+            try {
+                listener.onPacketReceived(packet);
+            } catch (Exception e) {
+                logger.error("Error in PD listener callback", e);
+            }
+        }
+        
+        if (listeners.isEmpty()) {
+            return;
+        }
+        
+        byte[] data = packet.copyPayload();
+        int sequenceNumber = packet.getSequenceCounter();
         for (PdDataListener listener : listeners) {
             try {
                 listener.onDataReceived(comId, data, sequenceNumber);
@@ -105,9 +174,41 @@ public class PdSubscriber implements AutoCloseable {
         logger.debug("Removed listener from PD Subscriber for ComID {}", comId);
     }
     
+    /**
+     * Registers a listener that receives the packet in place, without a payload copy.
+     */
+    public void addPacketListener(PdPacketListener listener) {
+        packetListeners.add(listener);
+        logger.debug("Added packet listener to PD Subscriber for ComID {}", comId);
+    }
+    
+    public void removePacketListener(PdPacketListener listener) {
+        packetListeners.remove(listener);
+        logger.debug("Removed packet listener from PD Subscriber for ComID {}", comId);
+    }
+
+    /**
+     * Registers this subscriber's ComID in {@code store} and keeps its slot updated
+     * from the receive path.
+     */
+    public void addTrafficStore(PdTrafficStore store) {
+        store.register(comId);
+        addPacketListener(store);
+    }
+
+    public void setStatistics(TrdpStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
     @Override
     public void close() {
         running = false;
+        if (channel != null) {
+            channel.close();
+            logger.info("PD Subscriber closed for ComID {}", comId);
+            return;
+        }
+        
         executor.shutdown();
         try {
             if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -0,0 +1,11 @@
+package com.trdp.pd;
+
+/**
+ * What happens to the stored value of a ComID whose telegrams stop arriving.
+ */
+public enum PdTimeoutBehavior {
+    /** Leave the last received value in the traffic store. */
+    KEEP_LAST,
+    /** Overwrite the stored value with zeros so consumers fall back to safe values. */
+    ZERO
+}
@@ -0,0 +1,15 @@
+package com.trdp.pd;
+
+/**
+ * Notified by a {@link PdTimeoutSupervisor}. {@link #onTimeout} fires on the timer thread
+ * once per outage; it fires again only after data has resumed and stopped again.
+ * {@link #onResumed} fires on the thread that delivers the first telegram after an
+ * outage, i.e. the receive thread or the caller of {@link PdTimeoutSupervisor#touch}.
+ */
+@FunctionalInterface
+public interface PdTimeoutListener {
+    void onTimeout(int comId, long lastReceiveNanos);
+
+    default void onResumed(int comId) {
+    }
+}
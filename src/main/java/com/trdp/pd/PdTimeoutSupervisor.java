@@ -0,0 +1,202 @@
+package com.trdp.pd;
+
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.util.HashedWheelTimer;
+import com.trdp.util.IntObjectMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Detects PD ComIDs whose telegrams stop arriving within their expected timeout.
+ *
+ * <p>All supervised ComIDs share one {@link HashedWheelTimer}. The receive path only
+ * stores a timestamp; each ComID's timer entry compares it with its timeout when it
+ * expires and re-arms itself for the remaining time, so a steady stream of telegrams
+ * costs one timer expiry per timeout interval rather than one reschedule per packet.
+ * The supervisor is a {@link PdPacketListener}; attach it to a {@link PdSubscriber}
+ * or {@link PdReceiveHub}. Timeouts are reported on the timer thread, resumed data on
+ * the thread that received it.
+ */
+public class PdTimeoutSupervisor implements PdPacketListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PdTimeoutSupervisor.class);
+
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+
+    private final HashedWheelTimer timer;
+    private final boolean ownsTimer;
+    private final PdTrafficStore store;
+    private final Object registrationLock = new Object();
+    private volatile IntObjectMap<Entry> entries = new IntObjectMap<>();
+
+    public PdTimeoutSupervisor() {
+        this((PdTrafficStore) null);
+    }
+
+    /**
+     * @param store the traffic store cleared for ComIDs supervised with {@link PdTimeoutBehavior#ZERO},
+     *              or {@code null} if none is used.
+     */
+    public PdTimeoutSupervisor(PdTrafficStore store) {
+        this(new HashedWheelTimer("PD-Timeout-Supervisor", DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE), true, store);
+    }
+
+    public PdTimeoutSupervisor(HashedWheelTimer timer, PdTrafficStore store) {
+        this(timer, false, store);
+    }
+
+    private PdTimeoutSupervisor(HashedWheelTimer timer, boolean ownsTimer, PdTrafficStore store) {
+        this.timer = timer;
+        this.ownsTimer = ownsTimer;
+        this.store = store;
+    }
+
+    public void supervise(int comId, long timeoutMs, PdTimeoutListener listener) {
+        supervise(comId, timeoutMs, PdTimeoutBehavior.KEEP_LAST, listener);
+    }
+
+    /**
+     * Starts supervising {@code comId}. The first timeout is counted from now, so a
+     * telegram that never arrives is reported as well. Supervising a ComID again
+     * replaces its previous settings.
+     */
+    public void supervise(int comId, long timeoutMs, PdTimeoutBehavior behavior, PdTimeoutListener listener) {
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        if (behavior == PdTimeoutBehavior.ZERO && store == null) {
+            throw new IllegalArgumentException("ZERO timeout behavior requires a traffic store");
+        }
+        Entry entry = new Entry(comId, TimeUnit.MILLISECONDS.toNanos(timeoutMs), behavior, listener);
+        entry.lastReceiveNanos = System.nanoTime();
+
+        Entry previous;
+        synchronized (registrationLock) {
+            IntObjectMap<Entry> copy = entries.copy();
+            previous = copy.put(comId, entry);
+            entries = copy;
+        }
+        if (previous != null) {
+            timer.cancel(previous);
+        }
+        timer.scheduleAt(entry, entry.lastReceiveNanos + entry.timeoutNanos);
+
+        logger.debug("Supervising ComID {} with {} ms timeout ({})", comId, timeoutMs, behavior);
+    }
+
+    public void unsupervise(int comId) {
+        Entry removed;
+        synchronized (registrationLock) {
+            IntObjectMap<Entry> copy = entries.copy();
+            removed = copy.remove(comId);
+            entries = copy;
+        }
+        if (removed != null) {
+            timer.cancel(removed);
+        }
+    }
+
+    public boolean isSupervised(int comId) {
+        return entries.containsKey(comId);
+    }
+
+    /**
+     * @return {@code true} if {@code comId} is supervised and currently timed out.
+     */
+    public boolean isTimedOut(int comId) {
+        Entry entry = entries.get(comId);
+        return entry != null && entry.timedOut.get();
+    }
+
+    @Override
+    public void onPacketReceived(TrdpPacketView packet) {
+        Entry entry = entries.get(packet.getComId());
+        if (entry != null) {
+            received(entry, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records a receive for {@code comId} from a path that does not deliver packet views.
+     */
+    public void touch(int comId) {
+        Entry entry = entries.get(comId);
+        if (entry != null) {
+            received(entry, System.nanoTime());
+        }
+    }
+
+    private void received(Entry entry, long nowNanos) {
+        entry.lastReceiveNanos = nowNanos;
+        // A timed out entry is not armed; the first telegram after an outage re-arms it
+        if (entry.timedOut.get() && entry.timedOut.compareAndSet(true, false)) {
+            if (entries.get(entry.comId) == entry) {
+                timer.scheduleAt(entry, nowNanos + entry.timeoutNanos);
+            }
+            try {
+                entry.listener.onResumed(entry.comId);
+            } catch (Exception e) {
+                logger.error("Error in PD timeout listener callback", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (registrationLock) {
+            for (int comId : entries.keys()) {
+                timer.cancel(entries.get(comId));
+            }
+            entries = new IntObjectMap<>();
+        }
+        if (ownsTimer) {
+            timer.close();
+        }
+    }
+
+    private final class Entry extends HashedWheelTimer.Timeout {
+        private final int comId;
+        private final long timeoutNanos;
+        private final PdTimeoutBehavior behavior;
+        private final PdTimeoutListener listener;
+        private final AtomicBoolean timedOut = new AtomicBoolean();
+        private volatile long lastReceiveNanos;
+
+        Entry(int comId, long timeoutNanos, PdTimeoutBehavior behavior, PdTimeoutListener listener) {
+            this.comId = comId;
+            this.timeoutNanos = timeoutNanos;
+            this.behavior = behavior;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void expire(long nowNanos) {
+            if (entries.get(comId) != this) {
+                return;
+            }
+            long last = lastReceiveNanos;
+            long deadline = last + timeoutNanos;
+            if (deadline - nowNanos > 0) {
+                timer.scheduleAt(this, deadline);
+                return;
+            }
+            if (!timedOut.compareAndSet(false, true)) {
+                return;
+            }
+
+            logger.warn("PD timeout for ComID {}: nothing received for {} ms",
+                        comId, TimeUnit.NANOSECONDS.toMillis(nowNanos - last));
+            if (behavior == PdTimeoutBehavior.ZERO) {
+                store.zero(comId);
+            }
+            try {
+                listener.onTimeout(comId, last);
+            } catch (Exception e) {
+                logger.error("Error in PD timeout listener callback", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.trdp.pd;
+
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.util.IntObjectMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Holds the latest received value of each registered PD ComID, like the traffic store
+ * of the reference TRDP stack.
+ *
+ * <p>Every ComID gets a slot preallocated at {@link #register(int, int) registration}.
+ * A slot is guarded by a seqlock: writers bump its version to an odd value, copy the
+ * payload in place and publish the next even version; readers copy the slot into a
+ * caller supplied {@link PdSample} and retry if the version changed meanwhile. Neither
+ * side locks or allocates. The store is a {@link PdPacketListener}, so it can be filled
+ * straight from a {@link PdSubscriber} or {@link PdReceiveHub} receive path.
+ */
+public class PdTrafficStore implements PdPacketListener {
+    private static final Logger logger = LoggerFactory.getLogger(PdTrafficStore.class);
+
+    private final Object registrationLock = new Object();
+    private volatile IntObjectMap<Slot> slots = new IntObjectMap<>();
+
+    public void register(int comId) {
+        register(comId, TrdpConstants.TRDP_MAX_PD_DATA_SIZE);
+    }
+
+    /**
+     * Preallocates a slot for {@code comId}. Telegrams with a larger payload than
+     * {@code capacity} are dropped. Registering an existing ComID keeps its slot.
+     */
+    public void register(int comId, int capacity) {
+        if (capacity < 0 || capacity > TrdpConstants.TRDP_MAX_PD_DATA_SIZE) {
+            throw new IllegalArgumentException("Slot capacity must be between 0 and " + TrdpConstants.TRDP_MAX_PD_DATA_SIZE);
+        }
+        synchronized (registrationLock) {
+            if (slots.containsKey(comId)) {
+                return;
+            }
+            IntObjectMap<Slot> copy = slots.copy();
+            copy.put(comId, new Slot(comId, capacity));
+            slots = copy;
+        }
+        logger.debug("Registered traffic store slot for ComID {} ({} bytes)", comId, capacity);
+    }
+
+    public void unregister(int comId) {
+        synchronized (registrationLock) {
+            IntObjectMap<Slot> copy = slots.copy();
+            if (copy.remove(comId) != null) {
+                slots = copy;
+            }
+        }
+    }
+
+    public boolean isRegistered(int comId) {
+        return slots.containsKey(comId);
+    }
+
+    @Override
+    public void onPacketReceived(TrdpPacketView packet) {
+        Slot slot = slots.get(packet.getComId());
+        if (slot != null) {
+            slot.write(packet, System.nanoTime());
+        }
+    }
+
+    /**
+     * Stores a value for a registered ComID.
+     *
+     * @return {@code false} if the ComID is not registered or the data does not fit its slot.
+     */
+    public boolean put(int comId, byte[] data, int offset, int length, int sequenceCounter) {
+        Slot slot = slots.get(comId);
+        return slot != null && slot.write(data, offset, length, sequenceCounter, System.nanoTime());
+    }
+
+    /**
+     * Overwrites the stored payload of {@code comId} with zeros, keeping its length,
+     * sequence counter and receive time. Does nothing if nothing was received yet.
+     */
+    public void zero(int comId) {
+        Slot slot = slots.get(comId);
+        if (slot != null) {
+            slot.zero();
+        }
+    }
+
+    /**
+     * Copies the latest value of {@code comId} into {@code sample}.
+     *
+     * @return {@code false} if the ComID is not registered or nothing was received yet.
+     */
+    public boolean read(int comId, PdSample sample) {
+        Slot slot = slots.get(comId);
+        return slot != null && slot.read(sample);
+    }
+
+    /**
+     * Seqlock protected storage for one ComID. Multiple writers are serialized by the
+     * version CAS; the payload and metadata are plain fields validated by the version.
+     */
+    private static final class Slot {
+        private static final VarHandle VERSION;
+
+        static {
+            try {
+                VERSION = MethodHandles.lookup().findVarHandle(Slot.class, "version", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final int comId;
+        private final byte[] data;
+        private int length;
+        private int sequenceCounter;
+        private long receiveTimeNanos;
+        @SuppressWarnings("unused")
+        private volatile long version;
+
+        Slot(int comId, int capacity) {
+            this.comId = comId;
+            this.data = new byte[capacity];
+        }
+
+        boolean write(TrdpPacketView packet, long nowNanos) {
+            int payloadLength = packet.getPayloadLength();
+            if (payloadLength > data.length) {
+                return oversized(payloadLength);
+            }
+            long v = beginWrite();
+            packet.copyPayload(data, 0);
+            length = payloadLength;
+            sequenceCounter = packet.getSequenceCounter();
+            receiveTimeNanos = nowNanos;
+            VERSION.setRelease(this, v + 2);
+            return true;
+        }
+
+        boolean write(byte[] source, int offset, int payloadLength, int sequence, long nowNanos) {
+            if (payloadLength > data.length) {
+                return oversized(payloadLength);
+            }
+            long v = beginWrite();
+            System.arraycopy(source, offset, data, 0, payloadLength);
+            length = payloadLength;
+            sequenceCounter = sequence;
+            receiveTimeNanos = nowNanos;
+            VERSION.setRelease(this, v + 2);
+            return true;
+        }
+
+        void zero() {
+            if ((long) VERSION.getAcquire(this) == 0) {
+                return;
+            }
+            long v = beginWrite();
+            Arrays.fill(data, 0, length, (byte) 0);
+            VERSION.setRelease(this, v + 2);
+        }
+
+        private boolean oversized(int payloadLength) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Dropping {} byte PD payload for ComID {}: slot holds {} bytes",
+                             payloadLength, comId, data.length);
+            }
+            return false;
+        }
+
+        private long beginWrite() {
+            for (;;) {
+                long v = (long) VERSION.getAcquire(this);
+                if ((v & 1) == 0 && VERSION.compareAndSet(this, v, v + 1)) {
+                    return v;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        boolean read(PdSample sample) {
+            if (sample.getCapacity() < data.length) {
+                throw new IllegalArgumentException("Sample capacity is smaller than the ComID slot");
+            }
+            for (;;) {
+                long before = (long) VERSION.getAcquire(this);
+                if (before == 0) {
+                    return false;
+                }
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int copiedLength = length;
+                int copiedSequence = sequenceCounter;
+                long copiedTime = receiveTimeNanos;
+                System.arraycopy(data, 0, sample.getData(), 0, Math.min(copiedLength, data.length));
+                VarHandle.loadLoadFence();
+                if ((long) VERSION.getAcquire(this) == before) {
+                    sample.set(comId, copiedLength, copiedSequence, copiedTime);
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -9,6 +9,33 @@ public final class TrdpConstants {
     public static final int TRDP_MAX_PACKET_SIZE = TRDP_PD_HEADER_SIZE + TRDP_MAX_PD_DATA_SIZE;
     public static final int TRDP_MAX_MD_DATA_SIZE = TRDP_MAX_PACKET_SIZE - TRDP_MD_HEADER_SIZE;
     
+    // Header field offsets shared by PD and MD headers
+    public static final int SEQUENCE_COUNTER_OFFSET = 0;
+    public static final int PROTOCOL_VERSION_OFFSET = 4;
+    public static final int MESSAGE_TYPE_OFFSET = 6;
+    public static final int COM_ID_OFFSET = 8;
+    
+    // PD header field offsets
+    public static final int PD_ETB_TOPO_CNT_OFFSET = 12;
+    public static final int PD_OP_TRN_TOPO_CNT_OFFSET = 16;
+    public static final int PD_DATASET_LENGTH_OFFSET = 20;
+    public static final int PD_REPLY_COM_ID_OFFSET = 28;
+    public static final int PD_REPLY_IP_ADDRESS_OFFSET = 32;
+    
+    // MD header field offsets
+    public static final int MD_DATASET_LENGTH_OFFSET = 12;
+    public static final int MD_REPLY_COM_ID_OFFSET = 16;
+    public static final int MD_REPLY_IP_ADDRESS_OFFSET = 20;
+    public static final int MD_REPLY_STATUS_OFFSET = 24;
+    public static final int MD_SESSION_ID_OFFSET = 28;
+    public static final int MD_SESSION_ID_SIZE = 16;
+    public static final int MD_REPLY_TIMEOUT_OFFSET = 44;
+    
+    // MD reply status values
+    public static final int MD_REPLY_STATUS_OK = 0;
+    /** The replier had no resources left to handle the request. */
+    public static final int MD_REPLY_STATUS_NO_REPLIER_MEMORY = -4;
+    
     public static final int PROTOCOL_VERSION = 0x0100;
     
     public static final int DEFAULT_PD_PORT = 17224;
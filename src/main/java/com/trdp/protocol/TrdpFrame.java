@@ -0,0 +1,118 @@
+package com.trdp.protocol;
+
+import com.trdp.util.FcsUtils;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pre-encoded, reusable TRDP frame for send paths.
+ *
+ * <p>The header is encoded once from a template; afterwards only the fields that change
+ * between telegrams (sequence counter, ComID, payload and dataset length) are written in
+ * place and {@link #seal()} recomputes the header and data FCS. The resulting bytes are
+ * identical to {@link TrdpPacket#encode()} for the same header and payload. A frame is
+ * not thread-safe; callers sharing one must synchronize around update and send.
+ */
+public final class TrdpFrame {
+
+    private final byte[] frame;
+    private final ByteBuffer buffer;
+    private final int headerSize;
+    private final int datasetLengthOffset;
+    private final int maxPayloadLength;
+    private int payloadLength;
+
+    public TrdpFrame(TrdpHeader template) {
+        boolean md = template.getMessageType().isMd();
+        this.headerSize = md ? TrdpConstants.TRDP_MD_HEADER_SIZE : TrdpConstants.TRDP_PD_HEADER_SIZE;
+        this.datasetLengthOffset = md ? TrdpConstants.MD_DATASET_LENGTH_OFFSET
+                                      : TrdpConstants.PD_DATASET_LENGTH_OFFSET;
+        this.maxPayloadLength = md ? TrdpConstants.TRDP_MAX_MD_DATA_SIZE : TrdpConstants.TRDP_MAX_PD_DATA_SIZE;
+
+        this.frame = new byte[headerSize + maxPayloadLength + TrdpConstants.TRDP_FCS_SIZE];
+        this.buffer = ByteBuffer.wrap(frame).order(ByteOrder.BIG_ENDIAN);
+
+        int templateLength = template.getDatasetLength();
+        template.setDatasetLength(0);
+        System.arraycopy(template.encode(), 0, frame, 0, headerSize);
+        template.setDatasetLength(templateLength);
+
+        seal();
+    }
+
+    public void setSequenceCounter(int sequenceCounter) {
+        buffer.putInt(TrdpConstants.SEQUENCE_COUNTER_OFFSET, sequenceCounter);
+    }
+
+    public int getSequenceCounter() {
+        return buffer.getInt(TrdpConstants.SEQUENCE_COUNTER_OFFSET);
+    }
+
+    public void setComId(int comId) {
+        buffer.putInt(TrdpConstants.COM_ID_OFFSET, comId);
+    }
+
+    public int getComId() {
+        return buffer.getInt(TrdpConstants.COM_ID_OFFSET);
+    }
+
+    /**
+     * Writes an absolute header field, for template fields that vary per use
+     * (for example the reply ComID of an MD request).
+     */
+    public void setHeaderInt(int fieldOffset, int value) {
+        if (fieldOffset < 0 || fieldOffset > headerSize - TrdpConstants.TRDP_FCS_SIZE - 4) {
+            throw new IndexOutOfBoundsException("Header field offset out of range: " + fieldOffset);
+        }
+        buffer.putInt(fieldOffset, value);
+    }
+
+    public void setPayload(byte[] data, int offset, int length) {
+        setPayloadLength(length);
+        System.arraycopy(data, offset, frame, headerSize, length);
+    }
+
+    /**
+     * Sets the dataset length for payloads written directly into {@link #array()}
+     * starting at {@link #payloadOffset()}.
+     */
+    public void setPayloadLength(int length) {
+        if (length < 0 || length > maxPayloadLength) {
+            throw new IllegalArgumentException("Data size exceeds maximum data size");
+        }
+        this.payloadLength = length;
+        buffer.putInt(datasetLengthOffset, length);
+    }
+
+    /**
+     * Recomputes the header FCS and appends the data FCS after the payload.
+     */
+    public void seal() {
+        int headerFcs = FcsUtils.calculateFcs(frame, 0, headerSize - TrdpConstants.TRDP_FCS_SIZE);
+        buffer.putInt(headerSize - TrdpConstants.TRDP_FCS_SIZE, Integer.reverseBytes(headerFcs));
+        buffer.putInt(headerSize + payloadLength, FcsUtils.calculateFcs(frame, headerSize, payloadLength));
+    }
+
+    public byte[] array() {
+        return frame;
+    }
+
+    /**
+     * @return the number of valid bytes in {@link #array()}, including both FCS fields.
+     */
+    public int length() {
+        return headerSize + payloadLength + TrdpConstants.TRDP_FCS_SIZE;
+    }
+
+    public int payloadOffset() {
+        return headerSize;
+    }
+
+    public int payloadLength() {
+        return payloadLength;
+    }
+
+    public int maxPayloadLength() {
+        return maxPayloadLength;
+    }
+}
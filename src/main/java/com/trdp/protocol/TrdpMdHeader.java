@@ -35,10 +35,7 @@ public class TrdpMdHeader extends TrdpPdHeader {
         buffer.put(destinationUri);
 
         // FCS calculation
-        byte[] headerBytesForFcs = new byte[TrdpConstants.TRDP_MD_HEADER_SIZE - 4];
-        buffer.position(0);
-        buffer.get(headerBytesForFcs);
-        int headerFcs = FcsUtils.calculateFcs(headerBytesForFcs, 0, headerBytesForFcs.length);
+        int headerFcs = FcsUtils.calculateFcs(buffer.array(), 0, TrdpConstants.TRDP_MD_HEADER_SIZE - 4);
 
         // Write FCS to the last 4 bytes
         buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -72,4 +69,7 @@ public class TrdpMdHeader extends TrdpPdHeader {
 
         return header;
     }
+
+    public int getReplyStatus() { return replyStatus; }
+    public void setReplyStatus(int replyStatus) { this.replyStatus = replyStatus; }
 }
@@ -12,6 +12,8 @@ public enum TrdpMessageType {
     MD_NOTIFICATION(0x4D6E), // Message Data Notification
     MD_REPLY_CONFIRM(0x4D71); // Message Data Reply with Confirm
     
+    private static final TrdpMessageType[] VALUES = values();
+    
     private final int code;
     
     TrdpMessageType(int code) {
@@ -27,11 +29,25 @@ public enum TrdpMessageType {
     }
 
     public static TrdpMessageType fromCode(int code) {
-        for (TrdpMessageType type : values()) {
+        TrdpMessageType type = fromCodeOrNull(code);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown TRDP message type: 0x" + Integer.toHexString(code));
+        }
+        return type;
+    }
+
+    /**
+     * Looks up a message type without allocating or throwing, for use on receive paths.
+     *
+     * @param code the 16-bit message type code from the header.
+     * @return the message type, or {@code null} if the code is unknown.
+     */
+    public static TrdpMessageType fromCodeOrNull(int code) {
+        for (TrdpMessageType type : VALUES) {
             if (type.code == code) {
                 return type;
             }
         }
-        throw new IllegalArgumentException("Unknown TRDP message type: 0x" + Integer.toHexString(code));
+        return null;
     }
 }
@@ -1,5 +1,6 @@
 package com.trdp.protocol;
 
+import com.trdp.util.FcsUtils;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
@@ -25,7 +26,7 @@ public class TrdpPacket {
         buffer.put(headerBytes);
         buffer.put(payload);
         
-        this.dataFcs = calculateDataFcs(payload);
+        this.dataFcs = FcsUtils.calculateFcs(payload);
         buffer.putInt(dataFcs);
         
         return buffer.array();
@@ -63,7 +64,7 @@ public class TrdpPacket {
         buffer.position(headerSize + payloadLength);
         int receivedDataFcs = buffer.getInt();
         
-        int calculatedDataFcs = calculateDataFcs(payload);
+        int calculatedDataFcs = FcsUtils.calculateFcs(data, headerSize, payloadLength);
         if (calculatedDataFcs != receivedDataFcs) {
             throw new IllegalStateException("Data FCS mismatch");
         }
@@ -73,23 +74,6 @@ public class TrdpPacket {
         return packet;
     }
     
-    private static int calculateDataFcs(byte[] data) {
-        int crc = 0xFFFFFFFF;
-        
-        for (int i = 0; i < data.length; i++) {
-            crc ^= (data[i] & 0xFF);
-            for (int j = 0; j < 8; j++) {
-                if ((crc & 1) != 0) {
-                    crc = (crc >>> 1) ^ 0xEDB88320;
-                } else {
-                    crc = crc >>> 1;
-                }
-            }
-        }
-        
-        return ~crc;
-    }
-    
     public TrdpHeader getHeader() { return header; }
     public byte[] getPayload() { return payload; }
     public int getDataFcs() { return dataFcs; }
@@ -0,0 +1,220 @@
+package com.trdp.protocol;
+
+import com.trdp.util.FcsUtils;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reusable, allocation-free read view over an encoded TRDP packet.
+ *
+ * <p>Unlike {@link TrdpPacket#decode(byte[])}, the view does not copy the payload or
+ * build a header object: header fields are read directly from the wrapped bytes and
+ * the payload is exposed as an offset/length range. A view is not thread-safe and is
+ * only valid until it is re-wrapped or the underlying bytes change, so receive loops
+ * keep one instance per thread.
+ */
+public final class TrdpPacketView {
+
+    public enum Status {
+        VALID,
+        TRUNCATED,
+        UNKNOWN_MESSAGE_TYPE,
+        HEADER_FCS_MISMATCH,
+        DATA_FCS_MISMATCH
+    }
+
+    private ByteBuffer buffer;
+    private Object source;
+    private ByteBuffer payloadView;
+    private int offset;
+    private int length;
+
+    public TrdpPacketView wrap(byte[] data, int offset, int length) {
+        if (data != source) {
+            this.source = data;
+            this.buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+            this.payloadView = null;
+        }
+        return setRange(offset, length);
+    }
+
+    public TrdpPacketView wrap(ByteBuffer data, int offset, int length) {
+        if (data != source) {
+            this.source = data;
+            this.buffer = data.order() == ByteOrder.BIG_ENDIAN ? data : data.duplicate().order(ByteOrder.BIG_ENDIAN);
+            this.payloadView = null;
+        }
+        return setRange(offset, length);
+    }
+
+    public TrdpPacketView wrap(ByteBuffer data) {
+        return wrap(data, data.position(), data.remaining());
+    }
+
+    private TrdpPacketView setRange(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("Packet range out of bounds");
+        }
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Checks the packet structure and both FCS values in place.
+     *
+     * @return {@link Status#VALID} if the packet can be consumed, otherwise the first problem found.
+     */
+    public Status verify() {
+        if (length < TrdpConstants.TRDP_PD_HEADER_SIZE + TrdpConstants.TRDP_FCS_SIZE) {
+            return Status.TRUNCATED;
+        }
+
+        TrdpMessageType type = getMessageType();
+        if (type == null) {
+            return Status.UNKNOWN_MESSAGE_TYPE;
+        }
+
+        int headerSize = type.isMd() ? TrdpConstants.TRDP_MD_HEADER_SIZE : TrdpConstants.TRDP_PD_HEADER_SIZE;
+        if (length < headerSize + TrdpConstants.TRDP_FCS_SIZE) {
+            return Status.TRUNCATED;
+        }
+
+        int fcsOffset = offset + headerSize - TrdpConstants.TRDP_FCS_SIZE;
+        int headerFcs = Integer.reverseBytes(buffer.getInt(fcsOffset));
+        if (FcsUtils.calculateFcs(buffer, offset, headerSize - TrdpConstants.TRDP_FCS_SIZE) != headerFcs) {
+            return Status.HEADER_FCS_MISMATCH;
+        }
+
+        int payloadLength = getDatasetLength();
+        // Compared this way round so a corrupt length near Integer.MAX_VALUE cannot overflow
+        if (payloadLength < 0 || payloadLength > length - headerSize - TrdpConstants.TRDP_FCS_SIZE) {
+            return Status.TRUNCATED;
+        }
+
+        int dataFcs = buffer.getInt(offset + headerSize + payloadLength);
+        if (FcsUtils.calculateFcs(buffer, offset + headerSize, payloadLength) != dataFcs) {
+            return Status.DATA_FCS_MISMATCH;
+        }
+
+        return Status.VALID;
+    }
+
+    public int getSequenceCounter() {
+        return buffer.getInt(offset + TrdpConstants.SEQUENCE_COUNTER_OFFSET);
+    }
+
+    public int getProtocolVersion() {
+        return buffer.getShort(offset + TrdpConstants.PROTOCOL_VERSION_OFFSET) & 0xFFFF;
+    }
+
+    public int getMessageTypeCode() {
+        return buffer.getShort(offset + TrdpConstants.MESSAGE_TYPE_OFFSET) & 0xFFFF;
+    }
+
+    /**
+     * @return the message type, or {@code null} if the code is not a known TRDP type.
+     */
+    public TrdpMessageType getMessageType() {
+        return TrdpMessageType.fromCodeOrNull(getMessageTypeCode());
+    }
+
+    public boolean isMd() {
+        TrdpMessageType type = getMessageType();
+        return type != null && type.isMd();
+    }
+
+    public int getComId() {
+        return buffer.getInt(offset + TrdpConstants.COM_ID_OFFSET);
+    }
+
+    public int getDatasetLength() {
+        return buffer.getInt(offset + (isMd() ? TrdpConstants.MD_DATASET_LENGTH_OFFSET
+                                              : TrdpConstants.PD_DATASET_LENGTH_OFFSET));
+    }
+
+    public int getReplyComId() {
+        return buffer.getInt(offset + (isMd() ? TrdpConstants.MD_REPLY_COM_ID_OFFSET
+                                              : TrdpConstants.PD_REPLY_COM_ID_OFFSET));
+    }
+
+    public int getReplyIpAddress() {
+        return buffer.getInt(offset + (isMd() ? TrdpConstants.MD_REPLY_IP_ADDRESS_OFFSET
+                                              : TrdpConstants.PD_REPLY_IP_ADDRESS_OFFSET));
+    }
+
+    public int getEtbTopoCnt() {
+        return buffer.getInt(offset + TrdpConstants.PD_ETB_TOPO_CNT_OFFSET);
+    }
+
+    public int getOpTrnTopoCnt() {
+        return buffer.getInt(offset + TrdpConstants.PD_OP_TRN_TOPO_CNT_OFFSET);
+    }
+
+    public int getReplyStatus() {
+        return buffer.getInt(offset + TrdpConstants.MD_REPLY_STATUS_OFFSET);
+    }
+
+    public int getReplyTimeout() {
+        return buffer.getInt(offset + TrdpConstants.MD_REPLY_TIMEOUT_OFFSET);
+    }
+
+    public int getHeaderSize() {
+        return isMd() ? TrdpConstants.TRDP_MD_HEADER_SIZE : TrdpConstants.TRDP_PD_HEADER_SIZE;
+    }
+
+    /**
+     * @return the absolute index of the first payload byte in the wrapped array or buffer.
+     */
+    public int getPayloadOffset() {
+        return offset + getHeaderSize();
+    }
+
+    public int getPayloadLength() {
+        return getDatasetLength();
+    }
+
+    /**
+     * @return the total number of bytes occupied by header, payload and data FCS.
+     */
+    public int getFrameLength() {
+        return getHeaderSize() + getDatasetLength() + TrdpConstants.TRDP_FCS_SIZE;
+    }
+
+    /**
+     * Returns the payload as a buffer whose position and limit delimit the payload.
+     * The returned instance is owned by this view and reused across packets.
+     */
+    public ByteBuffer payload() {
+        if (payloadView == null) {
+            payloadView = buffer.duplicate();
+        }
+        int payloadOffset = getPayloadOffset();
+        payloadView.limit(payloadView.capacity());
+        payloadView.position(payloadOffset);
+        payloadView.limit(payloadOffset + getPayloadLength());
+        return payloadView;
+    }
+
+    public void copyPayload(byte[] destination, int destinationOffset) {
+        buffer.get(getPayloadOffset(), destination, destinationOffset, getPayloadLength());
+    }
+
+    public byte[] copyPayload() {
+        byte[] payload = new byte[getPayloadLength()];
+        copyPayload(payload, 0);
+        return payload;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,45 @@
+package com.trdp.stats;
+
+/**
+ * Counters and MD round-trip latencies of one ComID.
+ */
+public class ComIdStatistics extends TrdpCounters {
+
+    private final int comId;
+    private final LatencyHistogram roundTripTime = new LatencyHistogram();
+    private boolean sequenceSeen;
+    private int lastSequence;
+
+    ComIdStatistics(int comId) {
+        this.comId = comId;
+    }
+
+    public int getComId() {
+        return comId;
+    }
+
+    public LatencyHistogram getRoundTripTime() {
+        return roundTripTime;
+    }
+
+    /**
+     * Counts the sequence counter values skipped since the previous telegram. Expected
+     * to be called from the single receive thread handling this ComID.
+     */
+    public void recordSequence(int sequenceCounter) {
+        if (sequenceSeen) {
+            int gap = sequenceCounter - lastSequence - 1;
+            if (gap > 0) {
+                add(TrdpCounter.SEQUENCE_GAPS, gap);
+            }
+        }
+        sequenceSeen = true;
+        lastSequence = sequenceCounter;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        roundTripTime.reset();
+    }
+}
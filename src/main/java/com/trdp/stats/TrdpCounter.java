@@ -0,0 +1,33 @@
+package com.trdp.stats;
+
+/**
+ * Counters kept per ComID and per transport by {@link TrdpStatistics}.
+ */
+public enum TrdpCounter {
+    RX_PACKETS,
+    RX_BYTES,
+    TX_PACKETS,
+    TX_BYTES,
+    /** Frames shorter than their header or announced dataset. */
+    TRUNCATED,
+    HEADER_FCS_ERRORS,
+    DATA_FCS_ERRORS,
+    /** Frames with an unknown message type, or a known type the receiver does not accept. */
+    UNKNOWN_MESSAGE_TYPE,
+    /** Sequence counter values skipped between two consecutively received telegrams. */
+    SEQUENCE_GAPS,
+    /**
+     * Telegrams dropped because their sequence counter repeated the latest one from the same
+     * source, and repeated MD requests answered from the replier's reply cache.
+     */
+    DUPLICATES,
+    /** Telegrams dropped because a newer one from the same source had already been delivered. */
+    OUT_OF_ORDER,
+    MD_TIMEOUTS,
+    /** MD requests sent again because no reply arrived within the retransmission timeout. */
+    MD_RETRANSMISSIONS,
+    /** MD requests a replier dropped or refused because its worker queue was full. */
+    MD_REQUESTS_SHED;
+
+    static final TrdpCounter[] VALUES = values();
+}
@@ -0,0 +1,47 @@
+package com.trdp.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One set of {@link TrdpCounter} values. Each counter is a striped {@link LongAdder},
+ * so concurrent receive and send threads do not contend on a shared cache line.
+ * Updating and reading never allocate.
+ */
+public class TrdpCounters {
+
+    private final LongAdder[] counters;
+
+    public TrdpCounters() {
+        counters = new LongAdder[TrdpCounter.VALUES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public void increment(TrdpCounter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public void add(TrdpCounter counter, long amount) {
+        counters[counter.ordinal()].add(amount);
+    }
+
+    public long get(TrdpCounter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    /**
+     * Copies all counters into {@code values}, indexed by {@link TrdpCounter#ordinal()}.
+     */
+    public void snapshot(long[] values) {
+        for (int i = 0; i < counters.length; i++) {
+            values[i] = counters[i].sum();
+        }
+    }
+
+    public void reset() {
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.trdp.stats;
+
+import com.trdp.md.TransportProtocol;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.util.IntObjectMap;
+
+/**
+ * Registry of per-ComID and per-transport statistics.
+ *
+ * <p>Components record into {@link #global()} unless given another instance. Looking up
+ * an existing ComID reads a copy-on-write primitive map without locking; only the first
+ * packet of a new ComID takes the registration lock.
+ *
+ * <p>At most {@link #DEFAULT_MAX_COM_IDS} ComIDs, or the limit given to the constructor, get
+ * their own statistics, so a peer sending many distinct ComIDs cannot grow the registry
+ * without bound. Traffic of ComIDs beyond the limit is recorded in {@link #getOtherComIds()}.
+ */
+public class TrdpStatistics {
+
+    public static final int DEFAULT_MAX_COM_IDS = 1024;
+
+    private static final TrdpStatistics GLOBAL = new TrdpStatistics();
+
+    private final int maxComIds;
+    private final TrdpCounters[] transports;
+    private final ComIdStatistics otherComIds = new ComIdStatistics(0) {
+        @Override
+        public void recordSequence(int sequenceCounter) {
+            // Sequence counters of different ComIDs are unrelated
+        }
+    };
+    private final Object registrationLock = new Object();
+    private volatile IntObjectMap<ComIdStatistics> comIds = new IntObjectMap<>();
+
+    public TrdpStatistics() {
+        this(DEFAULT_MAX_COM_IDS);
+    }
+
+    public TrdpStatistics(int maxComIds) {
+        if (maxComIds <= 0) {
+            throw new IllegalArgumentException("ComID limit must be positive");
+        }
+        this.maxComIds = maxComIds;
+        transports = new TrdpCounters[TransportProtocol.values().length];
+        for (int i = 0; i < transports.length; i++) {
+            transports[i] = new TrdpCounters();
+        }
+    }
+
+    public static TrdpStatistics global() {
+        return GLOBAL;
+    }
+
+    public TrdpCounters transport(TransportProtocol protocol) {
+        return transports[protocol.ordinal()];
+    }
+
+    /**
+     * @return the statistics of {@code comId}, created on first use, or
+     *         {@link #getOtherComIds()} once the ComID limit is reached.
+     */
+    public ComIdStatistics comId(int comId) {
+        IntObjectMap<ComIdStatistics> current = comIds;
+        ComIdStatistics statistics = current.get(comId);
+        if (statistics != null) {
+            return statistics;
+        }
+        if (current.size() >= maxComIds) {
+            return otherComIds;
+        }
+        synchronized (registrationLock) {
+            statistics = comIds.get(comId);
+            if (statistics == null) {
+                if (comIds.size() >= maxComIds) {
+                    return otherComIds;
+                }
+                IntObjectMap<ComIdStatistics> copy = comIds.copy();
+                statistics = new ComIdStatistics(comId);
+                copy.put(comId, statistics);
+                comIds = copy;
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * @return the statistics of {@code comId}, or {@code null} if nothing was recorded for it.
+     */
+    public ComIdStatistics getComId(int comId) {
+        return comIds.get(comId);
+    }
+
+    public int[] getComIds() {
+        return comIds.keys();
+    }
+
+    /**
+     * @return the combined statistics of the ComIDs seen after the limit was reached. Its
+     *         ComID is 0 and sequence counters are not tracked.
+     */
+    public ComIdStatistics getOtherComIds() {
+        return otherComIds;
+    }
+
+    public int getMaxComIds() {
+        return maxComIds;
+    }
+
+    public ComIdStatistics recordRx(TransportProtocol protocol, int comId, int bytes) {
+        TrdpCounters counters = transport(protocol);
+        counters.increment(TrdpCounter.RX_PACKETS);
+        counters.add(TrdpCounter.RX_BYTES, bytes);
+        ComIdStatistics statistics = comId(comId);
+        statistics.increment(TrdpCounter.RX_PACKETS);
+        statistics.add(TrdpCounter.RX_BYTES, bytes);
+        return statistics;
+    }
+
+    public void recordTx(TransportProtocol protocol, int comId, int bytes) {
+        TrdpCounters counters = transport(protocol);
+        counters.increment(TrdpCounter.TX_PACKETS);
+        counters.add(TrdpCounter.TX_BYTES, bytes);
+        ComIdStatistics statistics = comId(comId);
+        statistics.increment(TrdpCounter.TX_PACKETS);
+        statistics.add(TrdpCounter.TX_BYTES, bytes);
+    }
+
+    /**
+     * Counts a frame rejected by {@link TrdpPacketView#verify()}. Failures that leave the
+     * header untrustworthy are only counted per transport, since their ComID may be garbage.
+     */
+    public void recordInvalid(TransportProtocol protocol, TrdpPacketView packet, TrdpPacketView.Status status) {
+        TrdpCounter counter;
+        boolean headerValid;
+        switch (status) {
+            case TRUNCATED:
+                counter = TrdpCounter.TRUNCATED;
+                headerValid = false;
+                break;
+            case HEADER_FCS_MISMATCH:
+                counter = TrdpCounter.HEADER_FCS_ERRORS;
+                headerValid = false;
+                break;
+            case DATA_FCS_MISMATCH:
+                counter = TrdpCounter.DATA_FCS_ERRORS;
+                headerValid = true;
+                break;
+            case UNKNOWN_MESSAGE_TYPE:
+                counter = TrdpCounter.UNKNOWN_MESSAGE_TYPE;
+                headerValid = false;
+                break;
+            default:
+                return;
+        }
+        transport(protocol).increment(counter);
+        if (headerValid) {
+            comId(packet.getComId()).increment(counter);
+        }
+    }
+
+    /**
+     * Counts a valid frame whose message type the receiver does not accept.
+     */
+    public void recordUnexpectedType(TransportProtocol protocol, int comId) {
+        transport(protocol).increment(TrdpCounter.UNKNOWN_MESSAGE_TYPE);
+        comId(comId).increment(TrdpCounter.UNKNOWN_MESSAGE_TYPE);
+    }
+
+    public void reset() {
+        for (TrdpCounters counters : transports) {
+            counters.reset();
+        }
+        otherComIds.reset();
+        synchronized (registrationLock) {
+            comIds = new IntObjectMap<>();
+        }
+    }
+}
@@ -1,7 +1,20 @@
 package com.trdp.util;
 
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
 public final class FcsUtils {
 
+    /**
+     * The TRDP FCS is the plain IEEE 802.3 CRC-32 (reflected polynomial 0xEDB88320,
+     * initial value and final XOR 0xFFFFFFFF), which is exactly what {@link CRC32}
+     * computes. The JDK intrinsifies {@link CRC32} with carry-less multiply
+     * instructions, so one engine instance per thread is reused instead of a
+     * bit-by-bit loop.
+     */
+    private static final ThreadLocal<CRC32> CRC = ThreadLocal.withInitial(CRC32::new);
+
     private FcsUtils() {
         // Prevent instantiation
     }
@@ -16,19 +29,53 @@ public final class FcsUtils {
      * @return the calculated FCS value.
      */
     public static int calculateFcs(byte[] data, int offset, int length) {
-        int crc = 0xFFFFFFFF;
-
-        for (int i = offset; i < offset + length; i++) {
-            crc ^= (data[i] & 0xFF);
-            for (int j = 0; j < 8; j++) {
-                if ((crc & 1) != 0) {
-                    crc = (crc >>> 1) ^ 0xEDB88320;
-                } else {
-                    crc = crc >>> 1;
-                }
-            }
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        CRC32 crc = CRC.get();
+        crc.reset();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Calculates the FCS over a whole byte array.
+     *
+     * @param data the data to calculate the checksum for.
+     * @return the calculated FCS value.
+     */
+    public static int calculateFcs(byte[] data) {
+        return calculateFcs(data, 0, data.length);
+    }
+
+    /**
+     * Calculates the FCS over an absolute range of a buffer. Heap and direct buffers
+     * are both supported; the buffer's position and limit are left unchanged.
+     *
+     * @param buffer the buffer holding the data.
+     * @param offset the absolute starting index in the buffer.
+     * @param length the number of bytes to include in the calculation.
+     * @return the calculated FCS value.
+     */
+    public static int calculateFcs(ByteBuffer buffer, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, buffer.capacity());
+
+        if (buffer.hasArray()) {
+            return calculateFcs(buffer.array(), buffer.arrayOffset() + offset, length);
         }
 
-        return ~crc;
+        int position = buffer.position();
+        int limit = buffer.limit();
+        try {
+            buffer.limit(offset + length);
+            buffer.position(offset);
+
+            CRC32 crc = CRC.get();
+            crc.reset();
+            crc.update(buffer);
+            return (int) crc.getValue();
+        } finally {
+            buffer.limit(limit);
+            buffer.position(position);
+        }
     }
 }
@@ -0,0 +1,262 @@
+package com.trdp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel driven by a single thread.
+ *
+ * <p>Timeouts are intrusive: callers extend {@link Timeout} and reuse the same instance
+ * for every (re)schedule, so scheduling, cancelling and expiring are O(1) and do not
+ * allocate. The worker parks until shortly before each tick and spins for the last
+ * {@code spinNanos}, trading a little CPU for sub-tick wakeup precision.
+ */
+public class HashedWheelTimer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1;
+    private static final int EXPIRING = 2;
+
+    private final Timeout[] wheel;
+    private final int mask;
+    private final int wheelShift;
+    private final long tickNanos;
+    private final long spinNanos;
+    private final long startNanos;
+    private final Thread worker;
+    private final Object lock = new Object();
+    private long currentTick;
+    private volatile Runnable tickListener;
+    private volatile boolean running;
+
+    public HashedWheelTimer(String name, long tickNanos, int wheelSize) {
+        this(name, tickNanos, wheelSize, 0);
+    }
+
+    public HashedWheelTimer(String name, long tickNanos, int wheelSize, long spinNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.wheel = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.wheelShift = Integer.numberOfTrailingZeros(wheelSize);
+        this.tickNanos = tickNanos;
+        this.spinNanos = Math.min(spinNanos, tickNanos);
+        this.startNanos = System.nanoTime();
+        this.running = true;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+
+        logger.debug("Timer wheel {} started: tick={}ns, size={}", name, tickNanos, wheelSize);
+    }
+
+    public void schedule(Timeout timeout, long delayNanos) {
+        scheduleAt(timeout, System.nanoTime() + delayNanos);
+    }
+
+    /**
+     * Schedules (or reschedules) a timeout for an absolute {@link System#nanoTime()}
+     * deadline. A deadline in the past expires on the next tick.
+     */
+    public void scheduleAt(Timeout timeout, long deadlineNanos) {
+        synchronized (lock) {
+            unlink(timeout);
+
+            long targetTick = Math.max(ceilTicks(deadlineNanos - startNanos), currentTick);
+            int index = (int) (targetTick & mask);
+            timeout.deadlineNanos = deadlineNanos;
+            timeout.rounds = (targetTick - currentTick) >>> wheelShift;
+            timeout.bucket = index;
+            timeout.state = SCHEDULED;
+
+            Timeout head = wheel[index];
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            wheel[index] = timeout;
+        }
+    }
+
+    /**
+     * @return {@code true} if the timeout was pending and will no longer expire.
+     */
+    public boolean cancel(Timeout timeout) {
+        synchronized (lock) {
+            int state = timeout.state;
+            unlink(timeout);
+            timeout.state = IDLE;
+            return state != IDLE;
+        }
+    }
+
+    /**
+     * Sets a task run on the timer thread after all timeouts expiring on the same tick
+     * have run, e.g. to flush work they queued. It is not run for ticks without expiries.
+     */
+    public void setTickListener(Runnable tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    private long ceilTicks(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + tickNanos - 1) / tickNanos;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.state != SCHEDULED) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        timeout.state = IDLE;
+    }
+
+    private void run() {
+        while (running) {
+            long tick;
+            synchronized (lock) {
+                tick = currentTick;
+            }
+            awaitDeadline(startNanos + tick * tickNanos);
+            if (!running) {
+                break;
+            }
+
+            Timeout expired = collectExpired(tick);
+            if (expired == null) {
+                continue;
+            }
+            long now = System.nanoTime();
+            while (expired != null) {
+                Timeout timeout = expired;
+                expired = timeout.nextExpired;
+                timeout.nextExpired = null;
+
+                synchronized (lock) {
+                    if (timeout.state != EXPIRING) {
+                        continue;
+                    }
+                    timeout.state = IDLE;
+                }
+                try {
+                    timeout.expire(now);
+                } catch (Exception e) {
+                    logger.error("Error in timer task", e);
+                }
+            }
+            Runnable listener = tickListener;
+            if (listener != null) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    logger.error("Error in timer tick listener", e);
+                }
+            }
+        }
+        logger.debug("Timer wheel {} stopped", worker.getName());
+    }
+
+    private Timeout collectExpired(long tick) {
+        Timeout expired = null;
+        synchronized (lock) {
+            Timeout timeout = wheel[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    unlink(timeout);
+                    timeout.state = EXPIRING;
+                    timeout.nextExpired = expired;
+                    expired = timeout;
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+            currentTick = tick + 1;
+        }
+        return expired;
+    }
+
+    private void awaitDeadline(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > spinNanos) {
+            LockSupport.parkNanos(remaining - spinNanos);
+        }
+        while (running && System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public int getWheelSize() {
+        return wheel.length;
+    }
+
+    /**
+     * @return the wheel's time origin; deadlines aligned to it land exactly on ticks.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != worker) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reusable timer entry. Subclasses implement {@link #expire(long)}, which runs on the
+     * timer thread and may reschedule the same instance.
+     */
+    public abstract static class Timeout {
+        private Timeout prev;
+        private Timeout next;
+        private Timeout nextExpired;
+        private long deadlineNanos;
+        private long rounds;
+        private int bucket = -1;
+        private volatile int state = IDLE;
+
+        protected abstract void expire(long nowNanos);
+
+        public final long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+
+        public final boolean isScheduled() {
+            return state == SCHEDULED;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.trdp.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the library's receive loops and request handlers.
+ *
+ * <p>This is the Java 17 version, which has no virtual threads. The multi-release JAR
+ * carries a Java 21 version under {@code META-INF/versions/21} that creates them.
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return false;
+    }
+
+    /**
+     * Returns a factory for daemon platform threads named {@code name-0}, {@code name-1}, ...
+     */
+    public static ThreadFactory platform(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns a factory for virtual threads named {@code name-0}, {@code name-1}, ...
+     *
+     * @throws UnsupportedOperationException if the runtime has no virtual threads
+     */
+    public static ThreadFactory virtual(String name) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21");
+    }
+}
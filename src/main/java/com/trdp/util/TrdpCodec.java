@@ -0,0 +1,669 @@
+package com.trdp.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encoder and decoder for a class or record whose fields are annotated with {@link TrdpField}.
+ *
+ * <p>The type is analysed once per class ({@link #of(Class)} caches codecs): field offsets
+ * are fixed and every field is bound to {@link MethodHandle} accessors adapted to exact
+ * primitive signatures, so encoding and {@link #decodeInto decoding into} an existing
+ * instance read and write primitives without boxing or reflection. Records are
+ * immutable and are decoded through their canonical constructor instead. Fields of type
+ * {@link Instant} and {@link String} allocate a new value on decode.
+ *
+ * <p>Supported mappings: {@code boolean} to BOOL8; integral Java types to the integer,
+ * CHAR8/UTF16 and TIMEDATE32 (seconds) / TIMEDATE64 (microseconds) types; {@code float}
+ * and {@code double} to REAL32/REAL64; {@link Instant} to the TIMEDATE types;
+ * {@link String} to a fixed-length CHAR8 field; and arrays of those primitives with a
+ * fixed {@link TrdpField#length()}.
+ */
+public final class TrdpCodec<T> {
+
+    private static final ClassValue<TrdpCodec<?>> CODECS = new ClassValue<>() {
+        @Override
+        protected TrdpCodec<?> computeValue(Class<?> type) {
+            return new TrdpCodec<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final Binding[] bindings;
+    private final int size;
+    private final MethodHandle constructor;
+    private final boolean record;
+
+    @SuppressWarnings("unchecked")
+    public static <T> TrdpCodec<T> of(Class<T> type) {
+        return (TrdpCodec<T>) CODECS.get(type);
+    }
+
+    private TrdpCodec(Class<T> type) {
+        this.type = type;
+        this.record = type.isRecord();
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.isAnnotationPresent(TrdpField.class)) {
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no @TrdpField fields");
+        }
+        fields.sort(Comparator.comparingInt(field -> field.getAnnotation(TrdpField.class).order()));
+
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + type.getName(), e);
+        }
+
+        this.bindings = new Binding[fields.size()];
+        int offset = 0;
+        for (int i = 0; i < bindings.length; i++) {
+            Field field = fields.get(i);
+            TrdpField annotation = field.getAnnotation(TrdpField.class);
+            if (i > 0 && annotation.order() == fields.get(i - 1).getAnnotation(TrdpField.class).order()) {
+                throw new IllegalArgumentException("Duplicate @TrdpField order " + annotation.order() + " in " + type.getName());
+            }
+            if (annotation.align() < 1) {
+                throw new IllegalArgumentException("Alignment of " + field.getName() + " must be positive");
+            }
+            offset = (offset + annotation.align() - 1) / annotation.align() * annotation.align();
+            bindings[i] = createBinding(lookup, field, annotation, offset);
+            offset += bindings[i].size;
+        }
+        this.size = offset;
+        this.constructor = findConstructor(lookup);
+    }
+
+    private MethodHandle findConstructor(MethodHandles.Lookup lookup) {
+        try {
+            if (!record) {
+                return lookup.findConstructor(type, MethodType.methodType(void.class))
+                             .asType(MethodType.methodType(Object.class));
+            }
+            RecordComponent[] components = type.getRecordComponents();
+            if (components.length != bindings.length) {
+                throw new IllegalArgumentException("Every component of record " + type.getName() + " needs @TrdpField");
+            }
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                for (Binding binding : bindings) {
+                    if (binding.name.equals(components[i].getName())) {
+                        binding.componentIndex = i;
+                    }
+                }
+            }
+            return lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                         .asSpreader(Object[].class, components.length)
+                         .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " needs an accessible no-argument constructor", e);
+        }
+    }
+
+    /**
+     * @return the encoded size of the dataset in bytes.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public byte[] encode(T value) {
+        byte[] data = new byte[size];
+        encode(value, ByteBuffer.wrap(data), 0);
+        return data;
+    }
+
+    public void encode(T value, byte[] buffer, int offset) {
+        encode(value, ByteBuffer.wrap(buffer), offset);
+    }
+
+    /**
+     * Encodes {@code value} at the absolute {@code offset} of {@code buffer}; the buffer's
+     * position is not changed.
+     */
+    public void encode(T value, ByteBuffer buffer, int offset) {
+        checkRange(buffer, offset);
+        ByteBuffer target = bigEndian(buffer);
+        try {
+            for (Binding binding : bindings) {
+                binding.write(value, target, offset);
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to encode " + type.getName(), e);
+        }
+    }
+
+    public T decode(byte[] data, int offset) {
+        return decode(ByteBuffer.wrap(data), offset);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T decode(ByteBuffer data, int offset) {
+        checkRange(data, offset);
+        ByteBuffer source = bigEndian(data);
+        try {
+            if (record) {
+                Object[] arguments = new Object[bindings.length];
+                for (Binding binding : bindings) {
+                    arguments[binding.componentIndex] = binding.readValue(source, offset);
+                }
+                Object instance = (Object) constructor.invokeExact(arguments);
+                return (T) instance;
+            }
+            Object instance = (Object) constructor.invokeExact();
+            for (Binding binding : bindings) {
+                binding.read(source, offset, instance);
+            }
+            return (T) instance;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to decode " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Decodes into an existing mutable instance. Primitive fields, and array fields that
+     * already hold an array of the right length, are filled in place without allocating.
+     */
+    public void decodeInto(ByteBuffer data, int offset, T target) {
+        if (record) {
+            throw new UnsupportedOperationException("Records are immutable; use decode()");
+        }
+        checkRange(data, offset);
+        ByteBuffer source = bigEndian(data);
+        try {
+            for (Binding binding : bindings) {
+                binding.read(source, offset, target);
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to decode " + type.getName(), e);
+        }
+    }
+
+    public void decodeInto(byte[] data, int offset, T target) {
+        decodeInto(ByteBuffer.wrap(data), offset, target);
+    }
+
+    private void checkRange(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset + size > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Dataset of " + size + " bytes does not fit at offset " + offset);
+        }
+    }
+
+    private static ByteBuffer bigEndian(ByteBuffer buffer) {
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private Binding createBinding(MethodHandles.Lookup lookup, Field field, TrdpField annotation, int offset) {
+        Class<?> javaType = field.getType();
+        TrdpDataType dataType = annotation.type();
+        MethodHandle getter;
+        MethodHandle setter = null;
+        try {
+            getter = lookup.unreflectGetter(field);
+            if (!record && !Modifier.isFinal(field.getModifiers())) {
+                setter = lookup.unreflectSetter(field);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access field " + field.getName(), e);
+        }
+        if (!record && setter == null) {
+            throw new IllegalArgumentException("Field " + field.getName() + " is final; use a record or a mutable field");
+        }
+
+        if (javaType.isArray()) {
+            if (annotation.length() < 1) {
+                throw new IllegalArgumentException("Array field " + field.getName() + " needs a positive length");
+            }
+            Class<?> component = javaType.getComponentType();
+            if (!component.isPrimitive()) {
+                throw new IllegalArgumentException("Array field " + field.getName() + " of type "
+                                                   + javaType.getSimpleName() + " must have a primitive component type");
+            }
+            checkMapping(field, component, dataType);
+            return new ArrayBinding(field, dataType, offset, annotation.length(), component, getter, setter);
+        }
+        if (javaType == String.class) {
+            if (dataType != TrdpDataType.CHAR8) {
+                throw new IllegalArgumentException("String field " + field.getName() + " must be CHAR8");
+            }
+            return new StringBinding(field, offset, annotation.length(), getter, setter);
+        }
+        if (annotation.length() != 1) {
+            throw new IllegalArgumentException("Only array and String fields may set a length: " + field.getName());
+        }
+        checkMapping(field, javaType, dataType);
+        if (javaType == boolean.class) {
+            return new BooleanBinding(field, dataType, offset, getter, setter);
+        }
+        if (javaType == float.class || javaType == double.class) {
+            return new RealBinding(field, dataType, offset, getter, setter);
+        }
+        if (javaType == Instant.class) {
+            return new InstantBinding(field, dataType, offset, getter, setter);
+        }
+        return new IntegralBinding(field, dataType, offset, getter, setter);
+    }
+
+    private static void checkMapping(Field field, Class<?> javaType, TrdpDataType dataType) {
+        boolean valid;
+        if (javaType == boolean.class) {
+            valid = dataType == TrdpDataType.BOOL8;
+        } else if (javaType == float.class) {
+            valid = dataType == TrdpDataType.REAL32;
+        } else if (javaType == double.class) {
+            valid = dataType == TrdpDataType.REAL32 || dataType == TrdpDataType.REAL64;
+        } else if (javaType == Instant.class) {
+            valid = dataType == TrdpDataType.TIMEDATE32 || dataType == TrdpDataType.TIMEDATE48
+                || dataType == TrdpDataType.TIMEDATE64;
+        } else if (javaType == byte.class || javaType == short.class || javaType == char.class
+                   || javaType == int.class || javaType == long.class) {
+            valid = isIntegral(dataType);
+        } else {
+            valid = false;
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("Field " + field.getName() + " of type " + javaType.getSimpleName()
+                                               + " cannot be mapped to " + dataType);
+        }
+    }
+
+    private static boolean isIntegral(TrdpDataType dataType) {
+        switch (dataType) {
+            case BOOL8:
+            case REAL32:
+            case REAL64:
+            case TIMEDATE48:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    static long readIntegral(ByteBuffer buffer, int position, TrdpDataType dataType) {
+        switch (dataType) {
+            case INT8:
+                return buffer.get(position);
+            case CHAR8:
+            case UINT8:
+                return buffer.get(position) & 0xFF;
+            case INT16:
+                return buffer.getShort(position);
+            case UTF16:
+            case UINT16:
+                return buffer.getShort(position) & 0xFFFF;
+            case INT32:
+                return buffer.getInt(position);
+            case UINT32:
+            case TIMEDATE32:
+                return buffer.getInt(position) & 0xFFFFFFFFL;
+            case INT64:
+            case UINT64:
+                return buffer.getLong(position);
+            case TIMEDATE64:
+                return (buffer.getInt(position) & 0xFFFFFFFFL) * 1_000_000L + buffer.getInt(position + 4);
+            default:
+                throw new IllegalStateException("Not an integral type: " + dataType);
+        }
+    }
+
+    static void writeIntegral(ByteBuffer buffer, int position, TrdpDataType dataType, long value) {
+        switch (dataType) {
+            case INT8:
+            case CHAR8:
+            case UINT8:
+                buffer.put(position, (byte) value);
+                break;
+            case INT16:
+            case UTF16:
+            case UINT16:
+                buffer.putShort(position, (short) value);
+                break;
+            case INT32:
+            case UINT32:
+            case TIMEDATE32:
+                buffer.putInt(position, (int) value);
+                break;
+            case INT64:
+            case UINT64:
+                buffer.putLong(position, value);
+                break;
+            case TIMEDATE64:
+                buffer.putInt(position, (int) Math.floorDiv(value, 1_000_000L));
+                buffer.putInt(position + 4, (int) Math.floorMod(value, 1_000_000L));
+                break;
+            default:
+                throw new IllegalStateException("Not an integral type: " + dataType);
+        }
+    }
+
+    static double readReal(ByteBuffer buffer, int position, TrdpDataType dataType) {
+        return dataType == TrdpDataType.REAL32 ? buffer.getFloat(position) : buffer.getDouble(position);
+    }
+
+    static void writeReal(ByteBuffer buffer, int position, TrdpDataType dataType, double value) {
+        if (dataType == TrdpDataType.REAL32) {
+            buffer.putFloat(position, (float) value);
+        } else {
+            buffer.putDouble(position, value);
+        }
+    }
+
+    /**
+     * Reads and writes one annotated field at a fixed offset. Accessors are adapted to
+     * erased receiver types so they can be invoked exactly without boxing primitives.
+     */
+    private abstract static class Binding {
+        final String name;
+        final TrdpDataType dataType;
+        final int offset;
+        final int size;
+        int componentIndex;
+
+        Binding(Field field, TrdpDataType dataType, int offset, int size) {
+            this.name = field.getName();
+            this.dataType = dataType;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        abstract void write(Object source, ByteBuffer buffer, int base) throws Throwable;
+
+        abstract void read(ByteBuffer buffer, int base, Object target) throws Throwable;
+
+        abstract Object readValue(ByteBuffer buffer, int base);
+
+        static MethodHandle adapt(MethodHandle handle, MethodType type) {
+            return handle == null ? null : MethodHandles.explicitCastArguments(handle, type);
+        }
+    }
+
+    private static final class IntegralBinding extends Binding {
+        private final Class<?> javaType;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        IntegralBinding(Field field, TrdpDataType dataType, int offset, MethodHandle getter, MethodHandle setter) {
+            super(field, dataType, offset, dataType.getSize());
+            this.javaType = field.getType();
+            this.getter = adapt(getter, MethodType.methodType(long.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, long.class));
+        }
+
+        @Override
+        void write(Object source, ByteBuffer buffer, int base) throws Throwable {
+            writeIntegral(buffer, base + offset, dataType, (long) getter.invokeExact(source));
+        }
+
+        @Override
+        void read(ByteBuffer buffer, int base, Object target) throws Throwable {
+            setter.invokeExact(target, readIntegral(buffer, base + offset, dataType));
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer, int base) {
+            long value = readIntegral(buffer, base + offset, dataType);
+            if (javaType == byte.class) {
+                return (byte) value;
+            }
+            if (javaType == short.class) {
+                return (short) value;
+            }
+            if (javaType == char.class) {
+                return (char) value;
+            }
+            if (javaType == int.class) {
+                return (int) value;
+            }
+            return value;
+        }
+    }
+
+    private static final class BooleanBinding extends Binding {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        BooleanBinding(Field field, TrdpDataType dataType, int offset, MethodHandle getter, MethodHandle setter) {
+            super(field, dataType, offset, dataType.getSize());
+            this.getter = adapt(getter, MethodType.methodType(boolean.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, boolean.class));
+        }
+
+        @Override
+        void write(Object source, ByteBuffer buffer, int base) throws Throwable {
+            buffer.put(base + offset, (boolean) getter.invokeExact(source) ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        void read(ByteBuffer buffer, int base, Object target) throws Throwable {
+            setter.invokeExact(target, buffer.get(base + offset) != 0);
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer, int base) {
+            return buffer.get(base + offset) != 0;
+        }
+    }
+
+    private static final class RealBinding extends Binding {
+        private final boolean singlePrecision;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        RealBinding(Field field, TrdpDataType dataType, int offset, MethodHandle getter, MethodHandle setter) {
+            super(field, dataType, offset, dataType.getSize());
+            this.singlePrecision = field.getType() == float.class;
+            this.getter = adapt(getter, MethodType.methodType(double.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, double.class));
+        }
+
+        @Override
+        void write(Object source, ByteBuffer buffer, int base) throws Throwable {
+            writeReal(buffer, base + offset, dataType, (double) getter.invokeExact(source));
+        }
+
+        @Override
+        void read(ByteBuffer buffer, int base, Object target) throws Throwable {
+            setter.invokeExact(target, readReal(buffer, base + offset, dataType));
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer, int base) {
+            double value = readReal(buffer, base + offset, dataType);
+            return singlePrecision ? (Object) (float) value : (Object) value;
+        }
+    }
+
+    private static final class InstantBinding extends Binding {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        InstantBinding(Field field, TrdpDataType dataType, int offset, MethodHandle getter, MethodHandle setter) {
+            super(field, dataType, offset, dataType.getSize());
+            this.getter = adapt(getter, MethodType.methodType(Object.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        void write(Object source, ByteBuffer buffer, int base) throws Throwable {
+            Instant value = (Instant) (Object) getter.invokeExact(source);
+            int position = base + offset;
+            long seconds = value == null ? 0 : value.getEpochSecond();
+            int micros = value == null ? 0 : value.getNano() / 1000;
+            buffer.putInt(position, (int) seconds);
+            if (dataType == TrdpDataType.TIMEDATE48) {
+                buffer.putShort(position + 4, (short) (micros & 0xFFFF));
+            } else if (dataType == TrdpDataType.TIMEDATE64) {
+                buffer.putInt(position + 4, micros);
+            }
+        }
+
+        @Override
+        void read(ByteBuffer buffer, int base, Object target) throws Throwable {
+            setter.invokeExact(target, readValue(buffer, base));
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer, int base) {
+            int position = base + offset;
+            long seconds = buffer.getInt(position) & 0xFFFFFFFFL;
+            long micros;
+            if (dataType == TrdpDataType.TIMEDATE48) {
+                micros = buffer.getShort(position + 4) & 0xFFFF;
+            } else if (dataType == TrdpDataType.TIMEDATE64) {
+                micros = buffer.getInt(position + 4);
+            } else {
+                micros = 0;
+            }
+            return Instant.ofEpochSecond(seconds, micros * 1000L);
+        }
+    }
+
+    private static final class StringBinding extends Binding {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        StringBinding(Field field, int offset, int length, MethodHandle getter, MethodHandle setter) {
+            super(field, TrdpDataType.CHAR8, offset, length);
+            this.getter = adapt(getter, MethodType.methodType(Object.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        void write(Object source, ByteBuffer buffer, int base) throws Throwable {
+            String value = (String) (Object) getter.invokeExact(source);
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, size);
+            int position = base + offset;
+            buffer.put(position, bytes, 0, length);
+            for (int i = length; i < size; i++) {
+                buffer.put(position + i, (byte) 0);
+            }
+        }
+
+        @Override
+        void read(ByteBuffer buffer, int base, Object target) throws Throwable {
+            setter.invokeExact(target, readValue(buffer, base));
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer, int base) {
+            int position = base + offset;
+            int length = 0;
+            while (length < size && buffer.get(position + length) != 0) {
+                length++;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes, 0, length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class ArrayBinding extends Binding {
+        private final int length;
+        private final int elementSize;
+        private final Class<?> component;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        ArrayBinding(Field field, TrdpDataType dataType, int offset, int length, Class<?> component,
+                     MethodHandle getter, MethodHandle setter) {
+            super(field, dataType, offset, dataType.getSize() * length);
+            this.length = length;
+            this.elementSize = dataType.getSize();
+            this.component = component;
+            this.getter = adapt(getter, MethodType.methodType(Object.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        void write(Object source, ByteBuffer buffer, int base) throws Throwable {
+            Object array = (Object) getter.invokeExact(source);
+            int position = base + offset;
+            int count = array == null ? 0 : Math.min(length, Array.getLength(array));
+            for (int i = 0; i < count; i++, position += elementSize) {
+                writeElement(array, i, buffer, position);
+            }
+            for (int i = count * elementSize; i < size; i++) {
+                buffer.put(base + offset + i, (byte) 0);
+            }
+        }
+
+        private void writeElement(Object array, int index, ByteBuffer buffer, int position) {
+            if (component == boolean.class) {
+                buffer.put(position, ((boolean[]) array)[index] ? (byte) 1 : (byte) 0);
+            } else if (component == float.class) {
+                writeReal(buffer, position, dataType, ((float[]) array)[index]);
+            } else if (component == double.class) {
+                writeReal(buffer, position, dataType, ((double[]) array)[index]);
+            } else if (component == byte.class) {
+                writeIntegral(buffer, position, dataType, ((byte[]) array)[index]);
+            } else if (component == short.class) {
+                writeIntegral(buffer, position, dataType, ((short[]) array)[index]);
+            } else if (component == char.class) {
+                writeIntegral(buffer, position, dataType, ((char[]) array)[index]);
+            } else if (component == int.class) {
+                writeIntegral(buffer, position, dataType, ((int[]) array)[index]);
+            } else {
+                writeIntegral(buffer, position, dataType, ((long[]) array)[index]);
+            }
+        }
+
+        @Override
+        void read(ByteBuffer buffer, int base, Object target) throws Throwable {
+            Object array = (Object) getter.invokeExact(target);
+            if (array == null || Array.getLength(array) != length) {
+                array = Array.newInstance(component, length);
+                setter.invokeExact(target, array);
+            }
+            fill(array, buffer, base);
+        }
+
+        @Override
+        Object readValue(ByteBuffer buffer, int base) {
+            Object array = Array.newInstance(component, length);
+            fill(array, buffer, base);
+            return array;
+        }
+
+        private void fill(Object array, ByteBuffer buffer, int base) {
+            int position = base + offset;
+            for (int i = 0; i < length; i++, position += elementSize) {
+                if (component == boolean.class) {
+                    ((boolean[]) array)[i] = buffer.get(position) != 0;
+                } else if (component == float.class) {
+                    ((float[]) array)[i] = (float) readReal(buffer, position, dataType);
+                } else if (component == double.class) {
+                    ((double[]) array)[i] = readReal(buffer, position, dataType);
+                } else if (component == byte.class) {
+                    ((byte[]) array)[i] = (byte) readIntegral(buffer, position, dataType);
+                } else if (component == short.class) {
+                    ((short[]) array)[i] = (short) readIntegral(buffer, position, dataType);
+                } else if (component == char.class) {
+                    ((char[]) array)[i] = (char) readIntegral(buffer, position, dataType);
+                } else if (component == int.class) {
+                    ((int[]) array)[i] = (int) readIntegral(buffer, position, dataType);
+                } else {
+                    ((long[]) array)[i] = readIntegral(buffer, position, dataType);
+                }
+            }
+        }
+    }
+}
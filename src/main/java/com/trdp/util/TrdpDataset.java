@@ -2,134 +2,306 @@ package com.trdp.util;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Mutable, ordered set of named dataset fields.
+ *
+ * <p>Values are kept unboxed in a {@code long[]} slot array next to a parallel array of
+ * type tags: integral types hold their (sign or zero extended) value, REAL32 and REAL64
+ * hold their raw IEEE 754 bits, and TIMEDATE64 holds microseconds since the epoch. The
+ * primitive accessors take a field index from {@link #indexOf(String)} and check the
+ * field type; {@link #encode(byte[], int)} writes all fields without allocating.
+ * {@link #getValue(String)} and {@link #getFields()} box on demand; a TIMEDATE64 field
+ * added from an {@link Instant} returns that exact instant until it is set again, even
+ * though only whole microseconds are encoded.
+ */
 public class TrdpDataset {
-    
-    private final List<Field> fields;
-    
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] names;
+    private TrdpDataType[] types;
+    private long[] slots;
+    // Instants as passed to addTimeDate64, allocated on first use
+    private Instant[] instants;
+    private int count;
+    private int size;
+
     public TrdpDataset() {
-        this.fields = new ArrayList<>();
+        this.names = new String[INITIAL_CAPACITY];
+        this.types = new TrdpDataType[INITIAL_CAPACITY];
+        this.slots = new long[INITIAL_CAPACITY];
     }
-    
+
     public TrdpDataset addBool8(String name, boolean value) {
-        fields.add(new Field(name, TrdpDataType.BOOL8, value));
-        return this;
+        return add(name, TrdpDataType.BOOL8, value ? 1 : 0);
     }
-    
+
     public TrdpDataset addChar8(String name, char value) {
-        fields.add(new Field(name, TrdpDataType.CHAR8, value));
-        return this;
+        return add(name, TrdpDataType.CHAR8, value & 0xFF);
     }
-    
+
     public TrdpDataset addInt8(String name, byte value) {
-        fields.add(new Field(name, TrdpDataType.INT8, value));
-        return this;
+        return add(name, TrdpDataType.INT8, value);
     }
-    
+
     public TrdpDataset addInt16(String name, short value) {
-        fields.add(new Field(name, TrdpDataType.INT16, value));
-        return this;
+        return add(name, TrdpDataType.INT16, value);
     }
-    
+
     public TrdpDataset addInt32(String name, int value) {
-        fields.add(new Field(name, TrdpDataType.INT32, value));
-        return this;
+        return add(name, TrdpDataType.INT32, value);
     }
-    
+
     public TrdpDataset addInt64(String name, long value) {
-        fields.add(new Field(name, TrdpDataType.INT64, value));
-        return this;
+        return add(name, TrdpDataType.INT64, value);
     }
-    
+
     public TrdpDataset addUInt8(String name, int value) {
-        fields.add(new Field(name, TrdpDataType.UINT8, value));
-        return this;
+        return add(name, TrdpDataType.UINT8, checkUInt8(value));
     }
-    
+
     public TrdpDataset addUInt16(String name, int value) {
-        fields.add(new Field(name, TrdpDataType.UINT16, value));
-        return this;
+        return add(name, TrdpDataType.UINT16, checkUInt16(value));
     }
-    
+
     public TrdpDataset addUInt32(String name, long value) {
-        fields.add(new Field(name, TrdpDataType.UINT32, value));
-        return this;
+        return add(name, TrdpDataType.UINT32, checkUInt32(value));
     }
-    
+
     public TrdpDataset addReal32(String name, float value) {
-        fields.add(new Field(name, TrdpDataType.REAL32, value));
-        return this;
+        return add(name, TrdpDataType.REAL32, Float.floatToRawIntBits(value));
     }
-    
+
     public TrdpDataset addReal64(String name, double value) {
-        fields.add(new Field(name, TrdpDataType.REAL64, value));
-        return this;
+        return add(name, TrdpDataType.REAL64, Double.doubleToRawLongBits(value));
     }
-    
+
     public TrdpDataset addTimeDate64(String name, Instant value) {
-        fields.add(new Field(name, TrdpDataType.TIMEDATE64, value));
+        add(name, TrdpDataType.TIMEDATE64, toEpochMicros(value));
+        if (instants == null) {
+            instants = new Instant[slots.length];
+        }
+        instants[count - 1] = value;
+        return this;
+    }
+
+    public TrdpDataset addTimeDate64EpochMicros(String name, long epochMicros) {
+        return add(name, TrdpDataType.TIMEDATE64, epochMicros);
+    }
+
+    private TrdpDataset add(String name, TrdpDataType type, long slot) {
+        if (count == slots.length) {
+            int capacity = count * 2;
+            names = Arrays.copyOf(names, capacity);
+            types = Arrays.copyOf(types, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+            if (instants != null) {
+                instants = Arrays.copyOf(instants, capacity);
+            }
+        }
+        if (instants != null) {
+            instants[count] = null;
+        }
+        names[count] = name;
+        types[count] = type;
+        slots[count] = slot;
+        count++;
+        size += type.getSize();
         return this;
     }
-    
+
+    /**
+     * Removes all fields so the dataset can be refilled without reallocating its arrays.
+     */
+    public void clear() {
+        Arrays.fill(names, 0, count, null);
+        Arrays.fill(types, 0, count, null);
+        if (instants != null) {
+            Arrays.fill(instants, 0, count, null);
+        }
+        count = 0;
+        size = 0;
+    }
+
+    public int getFieldCount() {
+        return count;
+    }
+
+    /**
+     * Returns the encoded size in bytes.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first field called {@code name}, for use with the
+     * primitive accessors.
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Field not found: " + name);
+    }
+
+    public boolean getBool8(int field) {
+        return slot(field, TrdpDataType.BOOL8) != 0;
+    }
+
+    public char getChar8(int field) {
+        return (char) slot(field, TrdpDataType.CHAR8);
+    }
+
+    public byte getInt8(int field) {
+        return (byte) slot(field, TrdpDataType.INT8);
+    }
+
+    public short getInt16(int field) {
+        return (short) slot(field, TrdpDataType.INT16);
+    }
+
+    public int getInt32(int field) {
+        return (int) slot(field, TrdpDataType.INT32);
+    }
+
+    public long getInt64(int field) {
+        return slot(field, TrdpDataType.INT64);
+    }
+
+    public int getUInt8(int field) {
+        return (int) slot(field, TrdpDataType.UINT8);
+    }
+
+    public int getUInt16(int field) {
+        return (int) slot(field, TrdpDataType.UINT16);
+    }
+
+    public long getUInt32(int field) {
+        return slot(field, TrdpDataType.UINT32);
+    }
+
+    public float getReal32(int field) {
+        return Float.intBitsToFloat((int) slot(field, TrdpDataType.REAL32));
+    }
+
+    public double getReal64(int field) {
+        return Double.longBitsToDouble(slot(field, TrdpDataType.REAL64));
+    }
+
+    public long getTimeDate64EpochMicros(int field) {
+        return slot(field, TrdpDataType.TIMEDATE64);
+    }
+
+    public void setBool8(int field, boolean value) {
+        set(field, TrdpDataType.BOOL8, value ? 1 : 0);
+    }
+
+    public void setChar8(int field, char value) {
+        set(field, TrdpDataType.CHAR8, value & 0xFF);
+    }
+
+    public void setInt8(int field, byte value) {
+        set(field, TrdpDataType.INT8, value);
+    }
+
+    public void setInt16(int field, short value) {
+        set(field, TrdpDataType.INT16, value);
+    }
+
+    public void setInt32(int field, int value) {
+        set(field, TrdpDataType.INT32, value);
+    }
+
+    public void setInt64(int field, long value) {
+        set(field, TrdpDataType.INT64, value);
+    }
+
+    public void setUInt8(int field, int value) {
+        set(field, TrdpDataType.UINT8, checkUInt8(value));
+    }
+
+    public void setUInt16(int field, int value) {
+        set(field, TrdpDataType.UINT16, checkUInt16(value));
+    }
+
+    public void setUInt32(int field, long value) {
+        set(field, TrdpDataType.UINT32, checkUInt32(value));
+    }
+
+    public void setReal32(int field, float value) {
+        set(field, TrdpDataType.REAL32, Float.floatToRawIntBits(value));
+    }
+
+    public void setReal64(int field, double value) {
+        set(field, TrdpDataType.REAL64, Double.doubleToRawLongBits(value));
+    }
+
+    public void setTimeDate64EpochMicros(int field, long epochMicros) {
+        set(field, TrdpDataType.TIMEDATE64, epochMicros);
+    }
+
+    private long slot(int field, TrdpDataType expected) {
+        checkType(field, expected);
+        return slots[field];
+    }
+
+    private void set(int field, TrdpDataType expected, long slot) {
+        checkType(field, expected);
+        slots[field] = slot;
+        if (instants != null) {
+            instants[field] = null;
+        }
+    }
+
+    private void checkType(int field, TrdpDataType expected) {
+        if (field < 0 || field >= count) {
+            throw new IndexOutOfBoundsException("Field index " + field + " out of range for " + count + " fields");
+        }
+        if (types[field] != expected) {
+            throw new IllegalArgumentException("Field " + names[field] + " is " + types[field] + ", not " + expected);
+        }
+    }
+
     public byte[] encode() {
-        int totalSize = 0;
-        for (Field field : fields) {
-            totalSize += field.type.getSize();
-        }
-        
-        TrdpEncoder encoder = new TrdpEncoder(totalSize);
-        
-        for (Field field : fields) {
-            switch (field.type) {
-                case BOOL8:
-                    encoder.putBool8((Boolean) field.value);
-                    break;
-                case CHAR8:
-                    encoder.putChar8((Character) field.value);
-                    break;
-                case INT8:
-                    encoder.putInt8((Byte) field.value);
-                    break;
-                case INT16:
-                    encoder.putInt16((Short) field.value);
-                    break;
-                case INT32:
-                    encoder.putInt32((Integer) field.value);
-                    break;
-                case INT64:
-                    encoder.putInt64((Long) field.value);
-                    break;
-                case UINT8:
-                    encoder.putUInt8((Integer) field.value);
-                    break;
-                case UINT16:
-                    encoder.putUInt16((Integer) field.value);
-                    break;
-                case UINT32:
-                    encoder.putUInt32((Long) field.value);
-                    break;
-                case REAL32:
-                    encoder.putReal32((Float) field.value);
-                    break;
-                case REAL64:
-                    encoder.putReal64((Double) field.value);
-                    break;
-                case TIMEDATE64:
-                    encoder.putTimeDate64((Instant) field.value);
-                    break;
-                default:
-                    throw new IllegalStateException("Unsupported type: " + field.type);
+        byte[] data = new byte[size];
+        encode(data, 0);
+        return data;
+    }
+
+    /**
+     * Writes all fields big-endian into {@code buffer} starting at {@code offset}.
+     *
+     * @return the number of bytes written
+     */
+    public int encode(byte[] buffer, int offset) {
+        if (offset < 0 || offset + size > buffer.length) {
+            throw new IndexOutOfBoundsException("Dataset of " + size + " bytes does not fit the given buffer");
+        }
+        int position = offset;
+        for (int i = 0; i < count; i++) {
+            TrdpDataType type = types[i];
+            long slot = slots[i];
+            if (type == TrdpDataType.TIMEDATE64) {
+                slot = Math.floorDiv(slot, 1_000_000L) << 32 | Math.floorMod(slot, 1_000_000L);
+            }
+            int typeSize = type.getSize();
+            for (int shift = (typeSize - 1) * 8; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (slot >>> shift);
             }
         }
-        
-        return encoder.toByteArray();
+        return size;
     }
-    
+
     public static TrdpDataset decode(byte[] data, List<FieldDefinition> schema) {
         TrdpDataset dataset = new TrdpDataset();
         TrdpDecoder decoder = new TrdpDecoder(data);
-        
+
         for (FieldDefinition def : schema) {
             switch (def.type) {
                 case BOOL8:
@@ -166,54 +338,111 @@ public class TrdpDataset {
                     dataset.addReal64(def.name, decoder.getReal64());
                     break;
                 case TIMEDATE64:
-                    dataset.addTimeDate64(def.name, decoder.getTimeDate64());
+                    dataset.addTimeDate64EpochMicros(def.name, decoder.getTimeDate64EpochMicros());
                     break;
                 default:
                     throw new IllegalStateException("Unsupported type: " + def.type);
             }
         }
-        
+
         return dataset;
     }
-    
+
     public Object getValue(String name) {
-        for (Field field : fields) {
-            if (field.name.equals(name)) {
-                return field.value;
-            }
-        }
-        throw new IllegalArgumentException("Field not found: " + name);
+        int field = indexOf(name);
+        return box(field);
     }
-    
+
     public List<Field> getFields() {
-        return new ArrayList<>(fields);
+        List<Field> fields = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            fields.add(new Field(names[i], types[i], box(i)));
+        }
+        return fields;
     }
-    
+
+    private Object box(int field) {
+        long slot = slots[field];
+        switch (types[field]) {
+            case BOOL8:
+                return slot != 0;
+            case CHAR8:
+                return (char) slot;
+            case INT8:
+                return (byte) slot;
+            case INT16:
+                return (short) slot;
+            case INT32:
+            case UINT8:
+            case UINT16:
+                return (int) slot;
+            case INT64:
+            case UINT32:
+                return slot;
+            case REAL32:
+                return Float.intBitsToFloat((int) slot);
+            case REAL64:
+                return Double.longBitsToDouble(slot);
+            case TIMEDATE64:
+                if (instants != null && instants[field] != null) {
+                    return instants[field];
+                }
+                return Instant.ofEpochSecond(Math.floorDiv(slot, 1_000_000L), Math.floorMod(slot, 1_000_000L) * 1000L);
+            default:
+                throw new IllegalStateException("Unsupported type: " + types[field]);
+        }
+    }
+
+    private static long toEpochMicros(Instant value) {
+        return value.getEpochSecond() * 1_000_000L + value.getNano() / 1000;
+    }
+
+    private static int checkUInt8(int value) {
+        if (value < 0 || value > 255) {
+            throw new IllegalArgumentException("UINT8 value must be 0-255");
+        }
+        return value;
+    }
+
+    private static int checkUInt16(int value) {
+        if (value < 0 || value > 65535) {
+            throw new IllegalArgumentException("UINT16 value must be 0-65535");
+        }
+        return value;
+    }
+
+    private static long checkUInt32(long value) {
+        if (value < 0 || value > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("UINT32 value must be 0-4294967295");
+        }
+        return value;
+    }
+
     public static class Field {
         private final String name;
         private final TrdpDataType type;
         private final Object value;
-        
+
         public Field(String name, TrdpDataType type, Object value) {
             this.name = name;
             this.type = type;
             this.value = value;
         }
-        
+
         public String getName() { return name; }
         public TrdpDataType getType() { return type; }
         public Object getValue() { return value; }
     }
-    
+
     public static class FieldDefinition {
         private final String name;
         private final TrdpDataType type;
-        
+
         public FieldDefinition(String name, TrdpDataType type) {
             this.name = name;
             this.type = type;
         }
-        
+
         public String getName() { return name; }
         public TrdpDataType getType() { return type; }
     }
@@ -0,0 +1,95 @@
+package com.trdp.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compiled form of a dataset schema.
+ *
+ * <p>Field byte offsets are computed once when the layout is built, so a
+ * {@link TrdpDatasetView} reads any field with a single indexed access instead of
+ * walking the schema. Field names are resolved to integer handles with
+ * {@link #indexOf(String)} ahead of time; the hot path only deals with handles.
+ * Fields are packed back to back, matching {@link TrdpDataset#encode()}.
+ */
+public final class TrdpDatasetLayout {
+
+    private final String[] names;
+    private final TrdpDataType[] types;
+    private final int[] offsets;
+    private final Map<String, Integer> indexes;
+    private final int size;
+
+    public TrdpDatasetLayout(List<TrdpDataset.FieldDefinition> schema) {
+        int count = schema.size();
+        this.names = new String[count];
+        this.types = new TrdpDataType[count];
+        this.offsets = new int[count];
+        Map<String, Integer> byName = new HashMap<>();
+
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            TrdpDataset.FieldDefinition definition = schema.get(i);
+            names[i] = definition.getName();
+            types[i] = definition.getType();
+            offsets[i] = offset;
+            offset += definition.getType().getSize();
+            if (byName.put(definition.getName(), i) != null) {
+                throw new IllegalArgumentException("Duplicate field name: " + definition.getName());
+            }
+        }
+        this.indexes = Collections.unmodifiableMap(byName);
+        this.size = offset;
+    }
+
+    public static TrdpDatasetLayout of(TrdpDataset.FieldDefinition... schema) {
+        return new TrdpDatasetLayout(Arrays.asList(schema));
+    }
+
+    /**
+     * Resolves a field name to the handle used by the typed accessors.
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Field not found: " + name);
+        }
+        return index;
+    }
+
+    public int getFieldCount() {
+        return names.length;
+    }
+
+    /**
+     * @return the encoded size of the dataset in bytes.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public String getName(int field) {
+        return names[field];
+    }
+
+    public TrdpDataType getType(int field) {
+        return types[field];
+    }
+
+    public int getOffset(int field) {
+        return offsets[field];
+    }
+
+    /**
+     * Returns the offset of {@code field} after checking that it has the given type.
+     */
+    int offsetOf(int field, TrdpDataType expected) {
+        if (types[field] != expected) {
+            throw new IllegalArgumentException("Field " + names[field] + " is " + types[field] + ", not " + expected);
+        }
+        return offsets[field];
+    }
+}
@@ -0,0 +1,140 @@
+package com.trdp.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+
+/**
+ * Reusable, allocation-free read view of a dataset laid out by a {@link TrdpDatasetLayout}.
+ *
+ * <p>Typed accessors take a field handle from {@link TrdpDatasetLayout#indexOf(String)}
+ * and read big-endian values directly from the wrapped bytes, without boxing. Each
+ * accessor checks that the field has the requested type. Like
+ * {@link com.trdp.protocol.TrdpPacketView}, a view is not thread-safe and is only
+ * valid until it is re-wrapped or the underlying bytes change.
+ */
+public final class TrdpDatasetView {
+
+    private final TrdpDatasetLayout layout;
+    private ByteBuffer buffer;
+    private Object source;
+    private int base;
+
+    public TrdpDatasetView(TrdpDatasetLayout layout) {
+        this.layout = layout;
+    }
+
+    public TrdpDatasetView wrap(byte[] data, int offset, int length) {
+        if (data != source) {
+            this.source = data;
+            this.buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+        }
+        return setRange(offset, length);
+    }
+
+    public TrdpDatasetView wrap(byte[] data) {
+        return wrap(data, 0, data.length);
+    }
+
+    public TrdpDatasetView wrap(ByteBuffer data, int offset, int length) {
+        if (data != source) {
+            this.source = data;
+            this.buffer = data.order() == ByteOrder.BIG_ENDIAN ? data : data.duplicate().order(ByteOrder.BIG_ENDIAN);
+        }
+        return setRange(offset, length);
+    }
+
+    /**
+     * Wraps the remaining bytes of {@code data}, e.g. {@link com.trdp.protocol.TrdpPacketView#payload()}.
+     */
+    public TrdpDatasetView wrap(ByteBuffer data) {
+        return wrap(data, data.position(), data.remaining());
+    }
+
+    private TrdpDatasetView setRange(int offset, int length) {
+        if (offset < 0 || length < layout.getSize() || offset + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("Dataset of " + layout.getSize() + " bytes does not fit the given range");
+        }
+        this.base = offset;
+        return this;
+    }
+
+    public TrdpDatasetLayout getLayout() {
+        return layout;
+    }
+
+    public boolean getBool8(int field) {
+        return buffer.get(position(field, TrdpDataType.BOOL8)) != 0;
+    }
+
+    public char getChar8(int field) {
+        return (char) (buffer.get(position(field, TrdpDataType.CHAR8)) & 0xFF);
+    }
+
+    public char getUtf16(int field) {
+        return buffer.getChar(position(field, TrdpDataType.UTF16));
+    }
+
+    public byte getInt8(int field) {
+        return buffer.get(position(field, TrdpDataType.INT8));
+    }
+
+    public short getInt16(int field) {
+        return buffer.getShort(position(field, TrdpDataType.INT16));
+    }
+
+    public int getInt32(int field) {
+        return buffer.getInt(position(field, TrdpDataType.INT32));
+    }
+
+    public long getInt64(int field) {
+        return buffer.getLong(position(field, TrdpDataType.INT64));
+    }
+
+    public int getUInt8(int field) {
+        return buffer.get(position(field, TrdpDataType.UINT8)) & 0xFF;
+    }
+
+    public int getUInt16(int field) {
+        return buffer.getShort(position(field, TrdpDataType.UINT16)) & 0xFFFF;
+    }
+
+    public long getUInt32(int field) {
+        return buffer.getInt(position(field, TrdpDataType.UINT32)) & 0xFFFFFFFFL;
+    }
+
+    public long getUInt64(int field) {
+        return buffer.getLong(position(field, TrdpDataType.UINT64));
+    }
+
+    public float getReal32(int field) {
+        return buffer.getFloat(position(field, TrdpDataType.REAL32));
+    }
+
+    public double getReal64(int field) {
+        return buffer.getDouble(position(field, TrdpDataType.REAL64));
+    }
+
+    public long getTimeDate32Seconds(int field) {
+        return buffer.getInt(position(field, TrdpDataType.TIMEDATE32)) & 0xFFFFFFFFL;
+    }
+
+    public long getTimeDate64Seconds(int field) {
+        return buffer.getInt(position(field, TrdpDataType.TIMEDATE64)) & 0xFFFFFFFFL;
+    }
+
+    public int getTimeDate64Micros(int field) {
+        return buffer.getInt(position(field, TrdpDataType.TIMEDATE64) + 4);
+    }
+
+    /**
+     * Convenience accessor; unlike the primitive accessors it allocates an {@link Instant}.
+     */
+    public Instant getTimeDate64(int field) {
+        return Instant.ofEpochSecond(getTimeDate64Seconds(field), getTimeDate64Micros(field) * 1000L);
+    }
+
+    private int position(int field, TrdpDataType type) {
+        return base + layout.offsetOf(field, type);
+    }
+}
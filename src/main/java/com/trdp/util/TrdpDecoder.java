@@ -83,6 +83,15 @@ public class TrdpDecoder {
         return Instant.ofEpochSecond(seconds, micros * 1000L);
     }
     
+    /**
+     * Reads a TIMEDATE64 as microseconds since the epoch, without allocating an {@link Instant}.
+     */
+    public long getTimeDate64EpochMicros() {
+        long seconds = buffer.getInt() & 0xFFFFFFFFL;
+        int micros = buffer.getInt();
+        return seconds * 1_000_000L + micros;
+    }
+    
     public String getString(int length) {
         byte[] bytes = new byte[length];
         buffer.get(bytes);
@@ -113,6 +113,12 @@ public class TrdpEncoder {
         return this;
     }
     
+    public TrdpEncoder putTimeDate64EpochMicros(long epochMicros) {
+        buffer.putInt((int) Math.floorDiv(epochMicros, 1_000_000L));
+        buffer.putInt((int) Math.floorMod(epochMicros, 1_000_000L));
+        return this;
+    }
+    
     public TrdpEncoder putString(String value, int maxLength) {
         byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
         int length = Math.min(bytes.length, maxLength);
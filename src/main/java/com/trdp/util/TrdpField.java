@@ -0,0 +1,26 @@
+package com.trdp.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a field or record component to a position in an encoded dataset; see
+ * {@link TrdpCodec}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface TrdpField {
+
+    /** Position of the field in the dataset; fields are encoded in ascending order. */
+    int order();
+
+    TrdpDataType type();
+
+    /** Element count for array fields, or the fixed byte length of a CHAR8 string. */
+    int length() default 1;
+
+    /** Byte alignment of the field relative to the start of the dataset. */
+    int align() default 1;
+}
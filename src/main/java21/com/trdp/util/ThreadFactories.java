@@ -0,0 +1,40 @@
+package com.trdp.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the library's receive loops and request handlers.
+ *
+ * <p>This is the Java 21 version from {@code META-INF/versions/21} of the multi-release
+ * JAR; it has the same API as the Java 17 version and also creates virtual threads.
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return true;
+    }
+
+    /**
+     * Returns a factory for daemon platform threads named {@code name-0}, {@code name-1}, ...
+     */
+    public static ThreadFactory platform(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns a factory for virtual threads named {@code name-0}, {@code name-1}, ...
+     */
+    public static ThreadFactory virtual(String name) {
+        return Thread.ofVirtual().name(name + "-", 0).factory();
+    }
+}
@@ -0,0 +1,180 @@
+package com.trdp.md;
+
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpStatistics;
+import com.trdp.util.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class MdPendingRequestsTest {
+
+    private HashedWheelTimer timer;
+    private TrdpStatistics statistics;
+    private MdPendingRequests pending;
+
+    @BeforeEach
+    void setUp() {
+        timer = new HashedWheelTimer("test-md-timer", TimeUnit.MILLISECONDS.toNanos(1), 64);
+        statistics = new TrdpStatistics();
+        pending = new MdPendingRequests(timer, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.close();
+    }
+
+    @Test
+    void testCompleteRecordsRoundTripTime() throws Exception {
+        CompletableFuture<MdReply> future = new CompletableFuture<>();
+        long sent = System.nanoTime();
+        assertThat(pending.add(7, 2000, TransportProtocol.UDP, future, statistics, sent, seconds(5))).isTrue();
+        assertThat(pending.isPending(7)).isTrue();
+        assertThat(pending.getOutstandingCount()).isEqualTo(1);
+
+        MdReply reply = new MdReply(2000, new byte[] {1}, 7);
+        assertThat(pending.complete(7, reply, sent + 1000)).isTrue();
+        assertThat(pending.complete(7, reply, sent + 2000)).isFalse();
+
+        assertThat(future.get()).isSameAs(reply);
+        assertThat(pending.isPending(7)).isFalse();
+        assertThat(pending.getOutstandingCount()).isZero();
+        assertThat(statistics.getComId(2000).getRoundTripTime().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailCompletesExceptionally() {
+        CompletableFuture<MdReply> future = new CompletableFuture<>();
+        pending.add(3, 2000, TransportProtocol.UDP, future, statistics, System.nanoTime(), seconds(5));
+
+        MdErrorReplyException error = new MdErrorReplyException(2000, -4);
+        assertThat(pending.fail(3, error)).isTrue();
+        assertThat(pending.fail(3, error)).isFalse();
+
+        assertThatThrownBy(future::get).hasCause(error);
+        assertThat(pending.getOutstandingCount()).isZero();
+        assertThat(statistics.getComId(2000)).isNull();
+    }
+
+    @Test
+    void testSamplesRoundTripOfRequestsSentOnce() {
+        MdRttEstimator rtt = new MdRttEstimator(millis(1000), millis(1), seconds(5));
+        long sent = System.nanoTime();
+        pending.add(5, 2000, TransportProtocol.UDP, new CompletableFuture<>(), statistics, sent, seconds(5),
+                    rtt, null, null, 0);
+
+        pending.complete(5, new MdReply(2000, new byte[0], 5), sent + millis(20));
+
+        assertThat(rtt.getSampleCount()).isEqualTo(1);
+        assertThat(rtt.getSmoothedRttNanos()).isEqualTo(millis(20));
+    }
+
+    @Test
+    void testRetransmitsWithBackoffUntilReply() throws Exception {
+        BlockingQueue<Long> retransmissions = new LinkedBlockingQueue<>();
+        MdPendingRequests retransmitting = new MdPendingRequests(timer, 4,
+            (frame, address) -> retransmissions.add(System.nanoTime()));
+        MdRttEstimator rtt = new MdRttEstimator(millis(20), millis(1), seconds(5));
+        CompletableFuture<MdReply> future = new CompletableFuture<>();
+        byte[] frame = new byte[120];
+        long sent = System.nanoTime();
+        retransmitting.add(9, 2000, TransportProtocol.UDP, future, statistics, sent, seconds(5),
+                           rtt, frame, new InetSocketAddress(17300), 2);
+
+        Long first = retransmissions.poll(2, TimeUnit.SECONDS);
+        Long second = retransmissions.poll(2, TimeUnit.SECONDS);
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        // The second retransmission waits twice as long as the first
+        assertThat(second - first).isGreaterThanOrEqualTo(millis(30));
+        assertThat(retransmissions.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(rtt.getRtoNanos()).isEqualTo(millis(80));
+
+        // A late reply still completes the request, but gives no RTT sample
+        assertThat(retransmitting.complete(9, new MdReply(2000, new byte[0], 9), System.nanoTime())).isTrue();
+        assertThat(future).isCompleted();
+        assertThat(rtt.getSampleCount()).isZero();
+        assertThat(statistics.getComId(2000).get(TrdpCounter.MD_RETRANSMISSIONS)).isEqualTo(2);
+        assertThat(statistics.transport(TransportProtocol.UDP).get(TrdpCounter.MD_RETRANSMISSIONS)).isEqualTo(2);
+    }
+
+    @Test
+    void testTimesOutAfterLastRetransmission() {
+        MdPendingRequests retransmitting = new MdPendingRequests(timer, 4, (frame, address) -> { });
+        MdRttEstimator rtt = new MdRttEstimator(millis(10), millis(1), millis(150));
+        CompletableFuture<MdReply> future = new CompletableFuture<>();
+        retransmitting.add(1, 2000, TransportProtocol.UDP, future, statistics, System.nanoTime(), millis(150),
+                           rtt, new byte[120], new InetSocketAddress(17300), 10);
+
+        assertThatThrownBy(() -> future.get(2, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(TimeoutException.class);
+        // 10 + 20 + 40 ms fit in the reply timeout, the next one does not
+        assertThat(statistics.getComId(2000).get(TrdpCounter.MD_RETRANSMISSIONS)).isEqualTo(3);
+        assertThat(statistics.getComId(2000).get(TrdpCounter.MD_TIMEOUTS)).isEqualTo(1);
+    }
+
+    @Test
+    void testExpiresWithTimeout() {
+        CompletableFuture<MdReply> future = new CompletableFuture<>();
+        pending.add(1, 2000, TransportProtocol.TCP, future, statistics, System.nanoTime(),
+                    TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertThatThrownBy(() -> future.get(2, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(pending.getOutstandingCount()).isZero();
+        assertThat(statistics.transport(TransportProtocol.TCP).get(TrdpCounter.MD_TIMEOUTS)).isEqualTo(1);
+        assertThat(statistics.getComId(2000).get(TrdpCounter.MD_TIMEOUTS)).isEqualTo(1);
+    }
+
+    @Test
+    void testRefusesWhenSlotIsTaken() {
+        long now = System.nanoTime();
+        assertThat(pending.add(1, 2000, TransportProtocol.UDP, new CompletableFuture<>(), statistics, now, seconds(5))).isTrue();
+        // Sequence counters 1 and 5 share a slot in a table of four
+        assertThat(pending.add(5, 2000, TransportProtocol.UDP, new CompletableFuture<>(), statistics, now, seconds(5))).isFalse();
+        assertThat(pending.isPending(5)).isFalse();
+
+        pending.remove(1);
+        assertThat(pending.add(5, 2000, TransportProtocol.UDP, new CompletableFuture<>(), statistics, now, seconds(5))).isTrue();
+        assertThat(pending.complete(1, new MdReply(2000, new byte[0], 1), now)).isFalse();
+    }
+
+    @Test
+    void testCancelAll() {
+        CompletableFuture<MdReply> first = new CompletableFuture<>();
+        CompletableFuture<MdReply> second = new CompletableFuture<>();
+        long now = System.nanoTime();
+        pending.add(0, 2000, TransportProtocol.UDP, first, statistics, now, seconds(5));
+        pending.add(1, 2001, TransportProtocol.UDP, second, statistics, now, seconds(5));
+
+        pending.cancelAll();
+
+        assertThat(first).isCancelled();
+        assertThat(second).isCancelled();
+        assertThat(pending.getOutstandingCount()).isZero();
+    }
+
+    @Test
+    void testRejectsInvalidCapacity() {
+        assertThatThrownBy(() -> new MdPendingRequests(timer, 100))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long millis(int millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static long seconds(int seconds) {
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+}
@@ -2,8 +2,28 @@ package com.trdp.md;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
+import com.trdp.network.NioEventLoopGroup;
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpStatistics;
 import static org.assertj.core.api.Assertions.*;
 import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 class MdReplierTest {
     
@@ -30,4 +50,193 @@ class MdReplierTest {
         
         assertThatCode(() -> replier.start()).doesNotThrowAnyException();
     }
+    
+    @Test
+    void testStartFailsWhenTcpListenerCannotBeRegistered() throws IOException {
+        MdRequestHandler handler = (comId, data) -> "Reply".getBytes();
+        NioEventLoopGroup ioGroup = new NioEventLoopGroup("test-md-io", 1);
+        replier = new MdReplier(17239, handler, new MdConfig().setEventLoopGroup(ioGroup));
+        ioGroup.close();
+        
+        assertThatThrownBy(() -> replier.start())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("TCP connections");
+        // Not left marked as running, so a second attempt fails the same way
+        assertThatThrownBy(() -> replier.start())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("TCP connections");
+    }
+    
+    @Test
+    void testVirtualThreadModeAnswersBlockingTcpHandlers() throws Exception {
+        MdRequestHandler handler = (comId, data) -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+            return data;
+        };
+        replier = new MdReplier(17233, handler, new MdConfig().setExecutionMode(MdExecutionMode.VIRTUAL_THREADS));
+        replier.start();
+        
+        try (MdRequester requester = new MdRequester(0)) {
+            MdDestination destination = requester.resolve(2000, 2000, "127.0.0.1", 17233, TransportProtocol.TCP);
+            List<CompletableFuture<MdReply>> replies = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                replies.add(requester.sendRequest(destination, new byte[] {(byte) i}));
+            }
+            
+            for (int i = 0; i < replies.size(); i++) {
+                assertThat(replies.get(i).get(5, TimeUnit.SECONDS).getData()).containsExactly((byte) i);
+            }
+        }
+    }
+    
+    @Test
+    void testBlockingHandlerDoesNotHoldUpOtherRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> handlerThreads = Collections.synchronizedList(new ArrayList<>());
+        MdRequestHandler handler = (comId, data) -> {
+            handlerThreads.add(Thread.currentThread().getName());
+            if (comId == 2000) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return data;
+        };
+        replier = new MdReplier(17238, handler, new MdConfig().setHandlerThreads(2));
+        replier.start();
+        
+        try (MdRequester blocked = new MdRequester(0); MdRequester other = new MdRequester(0)) {
+            CompletableFuture<MdReply> slow = blocked.sendRequest(
+                blocked.resolve(2000, 2000, "127.0.0.1", 17238, TransportProtocol.TCP), new byte[] {1});
+            CompletableFuture<MdReply> fast = other.sendRequest(
+                other.resolve(2001, 2001, "127.0.0.1", 17238, TransportProtocol.TCP), new byte[] {2});
+            
+            CompletableFuture<MdReply> udp = other.sendRequest(2002, new byte[] {3}, "127.0.0.1", 17238);
+            
+            // Both connections and the UDP socket share the replier's single selector thread
+            assertThat(fast.get(2, TimeUnit.SECONDS).getData()).containsExactly(2);
+            assertThat(udp.get(2, TimeUnit.SECONDS).getData()).containsExactly(3);
+            assertThat(slow).isNotDone();
+            
+            release.countDown();
+            assertThat(slow.get(2, TimeUnit.SECONDS).getData()).containsExactly(1);
+        } finally {
+            release.countDown();
+        }
+        assertThat(handlerThreads).allMatch(name -> name.startsWith("MD-Replier-Handler"));
+    }
+    
+    @Test
+    void testAsyncHandlerRepliesWithoutBlockingReceiveLoop() throws Exception {
+        CompletableFuture<byte[]> slowReply = new CompletableFuture<>();
+        MdAsyncRequestHandler handler = request -> request.getComId() == 2000
+            ? slowReply
+            : CompletableFuture.completedFuture(request.getData());
+        replier = new MdReplier(17234, handler);
+        replier.start();
+        
+        try (MdRequester requester = new MdRequester(0)) {
+            CompletableFuture<MdReply> slow = requester.sendRequest(2000, new byte[] {1}, "127.0.0.1", 17234);
+            CompletableFuture<MdReply> fast = requester.sendRequest(2001, new byte[] {2}, "127.0.0.1", 17234);
+            
+            // The fast request is answered while the slow one is still being handled
+            assertThat(fast.get(2, TimeUnit.SECONDS).getData()).containsExactly(2);
+            assertThat(slow).isNotDone();
+            // Both requests go to the handler threads, the slow one may be picked up last
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (replier.getPendingReplyCount() == 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(replier.getPendingReplyCount()).isEqualTo(1);
+            
+            slowReply.complete(new byte[] {3});
+            assertThat(slow.get(2, TimeUnit.SECONDS).getData()).containsExactly(3);
+            assertThat(replier.getPendingReplyCount()).isZero();
+        }
+    }
+    
+    @Test
+    void testAnswersRetransmittedRequestFromReplyCache() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MdRequestHandler handler = (comId, data) -> new byte[] {(byte) calls.incrementAndGet()};
+        TrdpStatistics statistics = new TrdpStatistics();
+        replier = new MdReplier(17236, handler);
+        replier.setStatistics(statistics);
+        replier.start();
+        
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(2000);
+        header.setReplyComId(2000);
+        header.setSequenceCounter(42);
+        header.setReplyIpAddress(0x7F000001);
+        byte[] request = new TrdpPacket(header, new byte[] {1, 2}).encode();
+        
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            socket.setSoTimeout(2000);
+            byte[] first = exchange(socket, request, 17236);
+            byte[] second = exchange(socket, request, 17236);
+            
+            assertThat(second).isEqualTo(first);
+            assertThat(TrdpPacket.decode(second).getPayload()).containsExactly(1);
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(replier.getReplyCacheHits()).isEqualTo(1);
+            assertThat(statistics.getComId(2000).get(TrdpCounter.DUPLICATES)).isEqualTo(1);
+            
+            // A new sequence counter is a new request
+            header.setSequenceCounter(43);
+            byte[] next = exchange(socket, new TrdpPacket(header, new byte[] {1, 2}).encode(), 17236);
+            assertThat(TrdpPacket.decode(next).getPayload()).containsExactly(2);
+        }
+    }
+    
+    private static byte[] exchange(DatagramSocket socket, byte[] request, int port) throws IOException {
+        socket.send(new DatagramPacket(request, request.length, InetAddress.getLoopbackAddress(), port));
+        DatagramPacket reply = new DatagramPacket(new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE],
+                                                  TrdpConstants.TRDP_MAX_PACKET_SIZE);
+        socket.receive(reply);
+        return Arrays.copyOf(reply.getData(), reply.getLength());
+    }
+    
+    @Test
+    void testFullWorkerQueueRepliesWithError() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        MdRequestHandler handler = (comId, data) -> {
+            entered.countDown();
+            release.join();
+            return data;
+        };
+        TrdpStatistics statistics = new TrdpStatistics();
+        replier = new MdReplier(17235, handler, new MdConfig().setWorkerThreads(1).setWorkerQueueCapacity(1));
+        replier.setStatistics(statistics);
+        replier.start();
+        
+        try (MdRequester requester = new MdRequester(0)) {
+            CompletableFuture<MdReply> running = requester.sendRequest(2000, new byte[] {1}, "127.0.0.1", 17235);
+            assertThat(entered.await(2, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<MdReply> queued = requester.sendRequest(2000, new byte[] {2}, "127.0.0.1", 17235);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (replier.getWorkerQueueDepth() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            CompletableFuture<MdReply> shed = requester.sendRequest(2000, new byte[] {3}, "127.0.0.1", 17235);
+            
+            // Fails fast with the replier's status instead of timing out
+            assertThatThrownBy(() -> shed.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(MdErrorReplyException.class, e ->
+                    assertThat(e.getReplyStatus()).isEqualTo(TrdpConstants.MD_REPLY_STATUS_NO_REPLIER_MEMORY));
+            assertThat(replier.getShedRequestCount()).isEqualTo(1);
+            assertThat(replier.getPeakWorkerQueueDepth()).isEqualTo(1);
+            assertThat(statistics.getComId(2000).get(TrdpCounter.MD_REQUESTS_SHED)).isEqualTo(1);
+            
+            release.complete(null);
+            assertThat(running.get(2, TimeUnit.SECONDS).getData()).containsExactly(1);
+            assertThat(queued.get(2, TimeUnit.SECONDS).getData()).containsExactly(2);
+        }
+    }
 }
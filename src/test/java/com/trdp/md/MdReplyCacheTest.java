@@ -0,0 +1,81 @@
+package com.trdp.md;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+class MdReplyCacheTest {
+
+    private static final InetSocketAddress SOURCE = new InetSocketAddress(InetAddress.getLoopbackAddress(), 17300);
+    private static final long TTL = TimeUnit.SECONDS.toNanos(5);
+
+    private final MdReplyCache cache = new MdReplyCache(2, TTL);
+
+    @Test
+    void testReturnsCachedReplyForRepeatedRequest() {
+        MdRequest original = request(SOURCE, 1, 2000, new byte[] {1});
+        assertThat(cache.claim(original, 0)).isNull();
+
+        // Repeat while the original is being handled
+        MdReplyCache.Entry pending = cache.claim(request(SOURCE, 1, 2000, new byte[] {1}), 10);
+        assertThat(pending).isNotNull();
+        assertThat(pending.getReplyFrame()).isNull();
+
+        byte[] frame = {9, 9, 9};
+        cache.complete(original, frame);
+        assertThat(cache.claim(request(SOURCE, 1, 2000, new byte[] {1}), 20).getReplyFrame()).isSameAs(frame);
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void testDistinguishesSourceSequenceCounterComIdAndData() {
+        assertThat(cache.claim(request(SOURCE, 1, 2000, new byte[] {1}), 0)).isNull();
+
+        assertThat(cache.claim(request(new InetSocketAddress(InetAddress.getLoopbackAddress(), 17301), 1, 2000,
+                                       new byte[] {1}), 0)).isNull();
+        assertThat(cache.claim(request(SOURCE, 2, 2000, new byte[] {1}), 0)).isNull();
+        assertThat(cache.claim(request(SOURCE, 1, 2001, new byte[] {1}), 0)).isNull();
+        // Same key with other data replaces the entry
+        assertThat(cache.claim(request(SOURCE, 1, 2001, new byte[] {2}), 0)).isNull();
+        assertThat(cache.getHits()).isZero();
+    }
+
+    @Test
+    void testExpiresEntries() {
+        MdRequest request = request(SOURCE, 1, 2000, new byte[] {1});
+        cache.claim(request, 0);
+        cache.complete(request, new byte[] {9});
+
+        assertThat(cache.claim(request, TTL - 1)).isNotNull();
+        assertThat(cache.claim(request, TTL)).isNull();
+    }
+
+    @Test
+    void testEvictsOldestWhenFull() {
+        MdRequest first = request(SOURCE, 1, 2000, new byte[] {1});
+        MdRequest second = request(SOURCE, 2, 2000, new byte[] {1});
+        cache.claim(first, 0);
+        cache.claim(second, 0);
+        cache.claim(request(SOURCE, 3, 2000, new byte[] {1}), 0);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.claim(second, 0)).isNotNull();
+        assertThat(cache.claim(first, 0)).isNull();
+    }
+
+    @Test
+    void testReleaseLetsRepeatBeHandled() {
+        MdRequest request = request(SOURCE, 1, 2000, new byte[] {1});
+        cache.claim(request, 0);
+        cache.release(request);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.claim(request, 0)).isNull();
+    }
+
+    private static MdRequest request(InetSocketAddress source, int sequenceCounter, int comId, byte[] data) {
+        return new MdRequest(comId, comId, sequenceCounter, 0x7F000001, data, TransportProtocol.UDP, source);
+    }
+}
@@ -1,11 +1,28 @@
 package com.trdp.md;
 
 import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpStatistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import static org.assertj.core.api.Assertions.*;
 import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 class MdRequesterTest {
     
@@ -44,4 +61,143 @@ class MdRequesterTest {
         
         assertThat(future).isCompletedExceptionally();
     }
+    
+    @Test
+    void testResolveDestination() throws IOException {
+        requester = new MdRequester(0);
+        
+        MdDestination destination = requester.resolve(2000, 2001, "127.0.0.1", 17226, TransportProtocol.UDP);
+        byte[] localHost = InetAddress.getLocalHost().getAddress();
+        
+        assertThat(destination.getAddress()).isEqualTo(new InetSocketAddress("127.0.0.1", 17226));
+        assertThat(destination.getComId()).isEqualTo(2000);
+        assertThat(destination.getReplyComId()).isEqualTo(2001);
+        assertThat(destination.getReplyIpAddress()).isEqualTo(ByteBuffer.wrap(localHost).getInt());
+    }
+    
+    @Test
+    void testRequestsThroughResolvedDestination() throws Exception {
+        try (MdReplier replier = new MdReplier(17229, (comId, data) -> data)) {
+            replier.start();
+            requester = new MdRequester(17230);
+            MdDestination destination = requester.resolve(2000, "127.0.0.1", 17229);
+            
+            for (int i = 0; i < 3; i++) {
+                byte[] request = ("Request " + i).getBytes();
+                MdReply reply = requester.sendRequest(destination, request).get(2, TimeUnit.SECONDS);
+                
+                assertThat(reply.getComId()).isEqualTo(2000);
+                assertThat(reply.getData()).isEqualTo(request);
+            }
+        }
+    }
+    
+    @Test
+    void testPipelinesTcpRequestsOverOneConnection() throws Exception {
+        try (MdReplier replier = new MdReplier(17231, (comId, data) -> data)) {
+            replier.start();
+            requester = new MdRequester(0, new MdConfig().setIoThreads(2));
+            MdDestination destination = requester.resolve(2000, 2000, "127.0.0.1", 17231, TransportProtocol.TCP);
+            
+            List<CompletableFuture<MdReply>> replies = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                replies.add(requester.sendRequest(destination, ("Request " + i).getBytes()));
+            }
+            
+            for (int i = 0; i < replies.size(); i++) {
+                MdReply reply = replies.get(i).get(2, TimeUnit.SECONDS);
+                assertThat(reply.getData()).isEqualTo(("Request " + i).getBytes());
+            }
+            assertThat(requester.getPendingRequestCount()).isZero();
+        }
+    }
+    
+    @Test
+    void testReconnectsAfterConnectionLoss() throws Exception {
+        requester = new MdRequester(0);
+        MdDestination destination = requester.resolve(2000, 2000, "127.0.0.1", 17232, TransportProtocol.TCP);
+        
+        try (MdReplier replier = new MdReplier(17232, (comId, data) -> data)) {
+            replier.start();
+            assertThat(requester.sendRequest(destination, new byte[] {1}).get(2, TimeUnit.SECONDS).getData())
+                .containsExactly(1);
+        }
+        
+        try (MdReplier replier = new MdReplier(17232, (comId, data) -> data)) {
+            replier.start();
+            // The first replier closed the old connection; wait until the requester noticed
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (destination.connection().isOpen() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(requester.sendRequest(destination, new byte[] {2}).get(2, TimeUnit.SECONDS).getData())
+                .containsExactly(2);
+        }
+    }
+    
+    @Test
+    void testClosedTcpConnectionFailsRequestsInFlight() throws Exception {
+        requester = new MdRequester(0);
+        
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            MdDestination destination = requester.resolve(2000, 2000, "127.0.0.1", server.getLocalPort(),
+                                                          TransportProtocol.TCP);
+            CompletableFuture<MdReply> first = requester.sendRequest(destination, new byte[] {1});
+            CompletableFuture<MdReply> second = requester.sendRequest(destination, new byte[] {2});
+            
+            try (Socket peer = server.accept()) {
+                peer.getInputStream().read();
+            }
+            
+            // Well before the 5 second reply timeout
+            assertThatThrownBy(() -> first.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ClosedChannelException.class);
+            assertThatThrownBy(() -> second.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ClosedChannelException.class);
+            assertThat(requester.getPendingRequestCount()).isZero();
+        }
+    }
+    
+    @Test
+    void testRetransmitsLostUdpRequest() throws Exception {
+        TrdpStatistics statistics = new TrdpStatistics();
+        requester = new MdRequester(0, new MdConfig().setMaxRetransmissions(1).setInitialRtoMs(100));
+        requester.setStatistics(statistics);
+        
+        try (DatagramSocket lossyReplier = new DatagramSocket(17237, InetAddress.getLoopbackAddress())) {
+            lossyReplier.setSoTimeout(2000);
+            long start = System.nanoTime();
+            CompletableFuture<MdReply> future = requester.sendRequest(2000, new byte[] {7}, "127.0.0.1", 17237);
+            
+            // Lose the first copy, answer the retransmission
+            DatagramPacket request = new DatagramPacket(new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE],
+                                                        TrdpConstants.TRDP_MAX_PACKET_SIZE);
+            lossyReplier.receive(request);
+            int sequenceCounter = TrdpPacket.decode(Arrays.copyOf(request.getData(), request.getLength()))
+                .getHeader().getSequenceCounter();
+            lossyReplier.receive(request);
+            
+            TrdpMdHeader header = new TrdpMdHeader();
+            header.setMessageType(TrdpMessageType.MD_REPLY);
+            header.setComId(2000);
+            header.setSequenceCounter(sequenceCounter);
+            byte[] reply = new TrdpPacket(header, new byte[] {8}).encode();
+            lossyReplier.send(new DatagramPacket(reply, reply.length, request.getSocketAddress()));
+            
+            assertThat(future.get(2, TimeUnit.SECONDS).getData()).containsExactly(8);
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        }
+        
+        // Counted by the timer thread once the send returns, possibly after the reply arrived
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (statistics.getComId(2000).get(TrdpCounter.MD_RETRANSMISSIONS) == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(statistics.getComId(2000).get(TrdpCounter.MD_RETRANSMISSIONS)).isEqualTo(1);
+        assertThat(statistics.getComId(2000).get(TrdpCounter.MD_TIMEOUTS)).isZero();
+        MdRttEstimator rtt = requester.getRttEstimator(new InetSocketAddress("127.0.0.1", 17237));
+        // Karn: the retransmitted request gives no sample, and the backed-off timeout stays
+        assertThat(rtt.getSampleCount()).isZero();
+        assertThat(rtt.getRtoNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
 }
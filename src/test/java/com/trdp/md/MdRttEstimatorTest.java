@@ -0,0 +1,59 @@
+package com.trdp.md;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class MdRttEstimatorTest {
+
+    private final MdRttEstimator estimator = new MdRttEstimator(1000, 100, 5000);
+
+    @Test
+    void testStartsWithInitialTimeout() {
+        assertThat(estimator.getRtoNanos()).isEqualTo(1000);
+        assertThat(estimator.getSmoothedRttNanos()).isZero();
+        assertThat(estimator.getSampleCount()).isZero();
+    }
+
+    @Test
+    void testFirstSampleSetsEstimate() {
+        estimator.sample(400);
+
+        assertThat(estimator.getSmoothedRttNanos()).isEqualTo(400);
+        assertThat(estimator.getRttVariationNanos()).isEqualTo(200);
+        assertThat(estimator.getRtoNanos()).isEqualTo(400 + 4 * 200);
+    }
+
+    @Test
+    void testSmoothsFurtherSamples() {
+        estimator.sample(400);
+        estimator.sample(800);
+
+        // RTTVAR = 3/4 * 200 + 1/4 * |400 - 800|, SRTT = 7/8 * 400 + 1/8 * 800
+        assertThat(estimator.getRttVariationNanos()).isEqualTo(250);
+        assertThat(estimator.getSmoothedRttNanos()).isEqualTo(450);
+        assertThat(estimator.getRtoNanos()).isEqualTo(450 + 4 * 250);
+        assertThat(estimator.getSampleCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testClampsTimeout() {
+        estimator.sample(10);
+        assertThat(estimator.getRtoNanos()).isEqualTo(100);
+
+        estimator.sample(100_000);
+        assertThat(estimator.getRtoNanos()).isEqualTo(5000);
+    }
+
+    @Test
+    void testBackoffKeepsLargerTimeoutUntilNextSample() {
+        estimator.backoff(2000);
+        assertThat(estimator.getRtoNanos()).isEqualTo(2000);
+
+        // A concurrent request backing off from an older, smaller timeout does not lower it
+        estimator.backoff(1500);
+        assertThat(estimator.getRtoNanos()).isEqualTo(2000);
+
+        estimator.sample(100);
+        assertThat(estimator.getRtoNanos()).isEqualTo(300);
+    }
+}
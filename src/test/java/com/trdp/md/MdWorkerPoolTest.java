@@ -0,0 +1,143 @@
+package com.trdp.md;
+
+import com.trdp.network.TcpChannel;
+import com.trdp.util.ThreadFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class MdWorkerPoolTest {
+
+    private static final int BLOCKING_COM_ID = 1;
+
+    private final CountDownLatch blocking = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BlockingQueue<Integer> handled = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Integer> shed = new LinkedBlockingQueue<>();
+    private MdWorkerPool pool;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testHandlesHigherPriorityFirst() throws Exception {
+        pool = newPool(8, MdShedPolicy.REJECT_NEWEST);
+        blockWorker();
+
+        assertThat(pool.submit(request(10), null, MdPriority.LOW)).isTrue();
+        assertThat(pool.submit(request(20), null, MdPriority.NORMAL)).isTrue();
+        assertThat(pool.submit(request(30), null, MdPriority.HIGH)).isTrue();
+        assertThat(pool.submit(request(21), null, MdPriority.NORMAL)).isTrue();
+        assertThat(pool.getQueueDepth()).isEqualTo(4);
+        assertThat(pool.getQueueDepth(MdPriority.NORMAL)).isEqualTo(2);
+
+        release.countDown();
+        assertThat(poll(handled)).isEqualTo(BLOCKING_COM_ID);
+        assertThat(poll(handled)).isEqualTo(30);
+        assertThat(poll(handled)).isEqualTo(20);
+        assertThat(poll(handled)).isEqualTo(21);
+        assertThat(poll(handled)).isEqualTo(10);
+        assertThat(pool.getQueueDepth()).isZero();
+        assertThat(pool.getPeakQueueDepth()).isEqualTo(4);
+        assertThat(pool.getQueueWaitTime().getCount()).isEqualTo(5);
+    }
+
+    @Test
+    void testRejectNewestShedsIncomingRequest() throws Exception {
+        pool = newPool(1, MdShedPolicy.REJECT_NEWEST);
+        blockWorker();
+
+        assertThat(pool.submit(request(10), null, MdPriority.LOW)).isTrue();
+        assertThat(pool.submit(request(20), null, MdPriority.HIGH)).isFalse();
+
+        assertThat(shed).containsExactly(20);
+        assertThat(pool.getShedCount()).isEqualTo(1);
+        assertThat(pool.getQueueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    void testRejectOldestShedsLowestQueuedRequest() throws Exception {
+        pool = newPool(3, MdShedPolicy.REJECT_OLDEST);
+        blockWorker();
+
+        pool.submit(request(10), null, MdPriority.LOW);
+        pool.submit(request(11), null, MdPriority.LOW);
+        pool.submit(request(20), null, MdPriority.NORMAL);
+
+        // Displaces the oldest LOW request
+        assertThat(pool.submit(request(30), null, MdPriority.HIGH)).isTrue();
+        assertThat(shed).containsExactly(10);
+        assertThat(pool.getQueueDepth()).isEqualTo(3);
+        assertThat(pool.getQueueDepth(MdPriority.LOW)).isEqualTo(1);
+
+        pool.submit(request(31), null, MdPriority.HIGH);
+        pool.submit(request(32), null, MdPriority.HIGH);
+        assertThat(shed).containsExactly(10, 11, 20);
+
+        // Nothing queued at or below LOW, so the new request goes
+        assertThat(pool.submit(request(12), null, MdPriority.LOW)).isFalse();
+        assertThat(shed).containsExactly(10, 11, 20, 12);
+        assertThat(pool.getShedCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testShedsAfterClose() {
+        pool = newPool(4, MdShedPolicy.REJECT_NEWEST);
+        pool.close();
+
+        assertThat(pool.submit(request(10), null, MdPriority.HIGH)).isFalse();
+        assertThat(shed).containsExactly(10);
+    }
+
+    @Test
+    void testRejectsEmptyPool() {
+        assertThatThrownBy(() -> new MdWorkerPool(0, 1, MdShedPolicy.REJECT_NEWEST,
+                                                  ThreadFactories.platform("test-md-worker"), null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private MdWorkerPool newPool(int capacity, MdShedPolicy policy) {
+        return new MdWorkerPool(1, capacity, policy, ThreadFactories.platform("test-md-worker"),
+                                new MdWorkerPool.Handler() {
+            @Override
+            public void run(MdRequest request, TcpChannel connection) {
+                if (request.getComId() == BLOCKING_COM_ID) {
+                    blocking.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                handled.add(request.getComId());
+            }
+
+            @Override
+            public void shed(MdRequest request, TcpChannel connection) {
+                shed.add(request.getComId());
+            }
+        });
+    }
+
+    private void blockWorker() throws InterruptedException {
+        pool.submit(request(BLOCKING_COM_ID), null, MdPriority.NORMAL);
+        assertThat(blocking.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static MdRequest request(int comId) {
+        return new MdRequest(comId, comId, 0, 0, new byte[0], TransportProtocol.UDP, null);
+    }
+
+    private static Integer poll(BlockingQueue<Integer> queue) throws InterruptedException {
+        return queue.poll(2, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,50 @@
+package com.trdp.network;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.io.IOException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class NioEventLoopTest {
+
+    @Test
+    void testTaskAcceptedDuringCloseStillRuns() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            NioEventLoop loop = new NioEventLoop("test-close-loop");
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicInteger ran = new AtomicInteger();
+            Thread submitter = new Thread(() -> {
+                try {
+                    while (true) {
+                        loop.execute(ran::incrementAndGet);
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException e) {
+                    // Closed
+                }
+            });
+            submitter.start();
+            Thread.sleep(1);
+            loop.close();
+            submitter.join(2000);
+
+            assertThat(submitter.isAlive()).isFalse();
+            assertThat(ran.get()).isEqualTo(accepted.get());
+        }
+    }
+
+    @Test
+    void testRejectsTasksAfterClose() throws IOException {
+        NioEventLoop loop = new NioEventLoop("test-closed-loop");
+        loop.close();
+
+        assertThatThrownBy(() -> loop.execute(() -> { })).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> loop.executeLater(() -> { })).isInstanceOf(IllegalStateException.class);
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            assertThatThrownBy(() -> loop.register(channel, SelectionKey.OP_READ, key -> { }))
+                .isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.trdp.network;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import static org.assertj.core.api.Assertions.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class TcpChannelTest {
+
+    private NioEventLoop eventLoop;
+    private ServerSocket server;
+    private TcpChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLoop = new NioEventLoop("test-tcp-loop");
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        server.close();
+        eventLoop.close();
+    }
+
+    @Test
+    void testGathersQueuedFramesIntoOneWrite() throws Exception {
+        channel = new TcpChannel(eventLoop, serverAddress(), (c, frame) -> { });
+        try (Socket peer = server.accept()) {
+            byte[] first = frame(1);
+            byte[] second = frame(2);
+            byte[] third = frame(3);
+            // Frames queued within one loop task are flushed together afterwards
+            eventLoop.execute(() -> {
+                try {
+                    channel.send(first, 0, first.length);
+                    channel.send(second, 0, second.length);
+                    channel.send(third, 0, third.length);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            TcpFrameDecoder decoder = new TcpFrameDecoder();
+            TrdpPacketView view = new TrdpPacketView();
+            peer.setSoTimeout(2000);
+            int received = 0;
+            while (received < 3 && decoder.readFrom(peer.getInputStream()) > 0) {
+                while (decoder.next(view)) {
+                    assertThat(view.getSequenceCounter()).isEqualTo(++received);
+                }
+            }
+
+            assertThat(received).isEqualTo(3);
+            // The counters are updated after the write returns, read them on the loop thread
+            CompletableFuture<long[]> counters = new CompletableFuture<>();
+            eventLoop.execute(() -> counters.complete(new long[] {channel.getFramesSent(), channel.getWriteCount()}));
+            assertThat(counters.get(2, TimeUnit.SECONDS)).containsExactly(3, 1);
+        }
+    }
+
+    @Test
+    void testRejectsSendsBeyondQueueLimit() throws Exception {
+        channel = new TcpChannel(eventLoop, serverAddress(), (c, frame) -> { });
+        channel.setMaxQueuedBytes(4096);
+        try (Socket peer = server.accept()) {
+            byte[] frame = new byte[1000];
+            // Nothing is flushed before the task ends, so all five frames would be queued
+            CompletableFuture<Integer> accepted = new CompletableFuture<>();
+            eventLoop.execute(() -> {
+                int count = 0;
+                try {
+                    while (count < 5) {
+                        channel.send(frame, 0, frame.length);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    // Expected once the limit is reached
+                }
+                accepted.complete(count);
+            });
+            assertThat(accepted.get(2, TimeUnit.SECONDS)).isEqualTo(4);
+
+            peer.setSoTimeout(2000);
+            peer.getInputStream().readNBytes(4000);
+            CompletableFuture<Long> queued = new CompletableFuture<>();
+            eventLoop.execute(() -> queued.complete(channel.getQueuedBytes()));
+            assertThat(queued.get(2, TimeUnit.SECONDS)).isZero();
+            assertThatCode(() -> channel.send(frame, 0, frame.length)).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void testCloseWhileSendingFromAnotherThread() throws Exception {
+        Logger loopLogger = (Logger) LoggerFactory.getLogger(NioEventLoop.class);
+        ListAppender<ILoggingEvent> errors = new ListAppender<>();
+        errors.start();
+        loopLogger.addAppender(errors);
+        try {
+            byte[] frame = new byte[16 * 1024];
+            for (int i = 0; i < 20; i++) {
+                TcpChannel sending = new TcpChannel(eventLoop, serverAddress(), (c, f) -> { });
+                try (Socket peer = server.accept()) {
+                    // The peer never reads, so flushes soon park on a full send buffer
+                    Thread sender = new Thread(() -> {
+                        while (sending.isOpen()) {
+                            try {
+                                sending.send(frame, 0, frame.length);
+                            } catch (IOException e) {
+                                Thread.onSpinWait();
+                            }
+                        }
+                    });
+                    sender.start();
+                    Thread.sleep(5);
+                    sending.close();
+                    sender.join(2000);
+                    assertThat(sender.isAlive()).isFalse();
+                }
+            }
+            // Let the loop run anything still queued by the senders
+            CompletableFuture<Void> drained = new CompletableFuture<>();
+            eventLoop.execute(() -> drained.complete(null));
+            drained.get(2, TimeUnit.SECONDS);
+        } finally {
+            loopLogger.detachAppender(errors);
+        }
+
+        assertThat(errors.list).noneMatch(event -> event.getLevel().isGreaterOrEqual(Level.ERROR));
+    }
+
+    @Test
+    void testDeliversFramesAndReportsClose() throws Exception {
+        BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+        CountDownLatch closed = new CountDownLatch(1);
+        channel = new TcpChannel(eventLoop, serverAddress(), new TcpFrameHandler() {
+            @Override
+            public void onFrame(TcpChannel c, TrdpPacketView frame) {
+                received.add(frame.getSequenceCounter());
+            }
+
+            @Override
+            public void onClosed(TcpChannel c) {
+                closed.countDown();
+            }
+        });
+
+        try (Socket peer = server.accept()) {
+            OutputStream out = peer.getOutputStream();
+            byte[] first = frame(1);
+            byte[] second = frame(2);
+            byte[] third = frame(3);
+            byte[] coalesced = new byte[first.length + second.length + 10];
+            System.arraycopy(first, 0, coalesced, 0, first.length);
+            System.arraycopy(second, 0, coalesced, first.length, second.length);
+            System.arraycopy(third, 0, coalesced, first.length + second.length, 10);
+            out.write(coalesced);
+            out.flush();
+
+            assertThat(received.poll(2, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(received.poll(2, TimeUnit.SECONDS)).isEqualTo(2);
+            assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+            out.write(third, 10, third.length - 10);
+            out.flush();
+            assertThat(received.poll(2, TimeUnit.SECONDS)).isEqualTo(3);
+        }
+
+        assertThat(closed.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(channel.isOpen()).isFalse();
+        assertThatThrownBy(() -> channel.send(new byte[1], 0, 1))
+            .isInstanceOf(ClosedChannelException.class);
+    }
+
+    @Test
+    void testReportsFailedConnect() throws Exception {
+        InetSocketAddress address = serverAddress();
+        server.close();
+
+        CountDownLatch closed = new CountDownLatch(1);
+        channel = new TcpChannel(eventLoop, address, new TcpFrameHandler() {
+            @Override
+            public void onFrame(TcpChannel c, TrdpPacketView frame) {
+            }
+
+            @Override
+            public void onClosed(TcpChannel c) {
+                closed.countDown();
+            }
+        });
+
+        assertThat(closed.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(channel.isConnected()).isFalse();
+    }
+
+    private InetSocketAddress serverAddress() {
+        return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+    }
+
+    private static byte[] frame(int sequenceCounter) {
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setSequenceCounter(sequenceCounter);
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(2000);
+        return new TrdpPacket(header, new byte[] {1, 2, 3, 4}).encode();
+    }
+}
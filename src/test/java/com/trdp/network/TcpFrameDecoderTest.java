@@ -0,0 +1,186 @@
+package com.trdp.network;
+
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpMdHeader;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.protocol.TrdpPdHeader;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+class TcpFrameDecoderTest {
+
+    @Test
+    void testSplitsCoalescedFrames() throws Exception {
+        byte[] first = mdFrame(1, 2000, new byte[10]);
+        byte[] second = pdFrame(2, 1000, new byte[20]);
+        byte[] third = mdFrame(3, 2001, new byte[0]);
+
+        TcpFrameDecoder decoder = new TcpFrameDecoder();
+        TrdpPacketView view = new TrdpPacketView();
+        assertThat(decoder.readFrom(new ByteArrayInputStream(concat(first, second, third))))
+            .isEqualTo(first.length + second.length + third.length);
+
+        assertThat(decoder.next(view)).isTrue();
+        assertThat(view.getSequenceCounter()).isEqualTo(1);
+        assertThat(view.getFrameLength()).isEqualTo(first.length);
+        assertThat(view.verify()).isEqualTo(TrdpPacketView.Status.VALID);
+
+        assertThat(decoder.next(view)).isTrue();
+        assertThat(view.getMessageType()).isEqualTo(TrdpMessageType.PD);
+        assertThat(view.getComId()).isEqualTo(1000);
+
+        assertThat(decoder.next(view)).isTrue();
+        assertThat(view.getSequenceCounter()).isEqualTo(3);
+        assertThat(view.getPayloadLength()).isZero();
+
+        assertThat(decoder.next(view)).isFalse();
+        assertThat(decoder.buffered()).isZero();
+    }
+
+    @Test
+    void testReassemblesFrameSplitAcrossReads() throws Exception {
+        byte[] frame = mdFrame(5, 2000, "split payload".getBytes());
+        // Split inside the header, before the dataset length is available
+        InputStream in = new ChunkedInputStream(frame, 7, 30, frame.length);
+
+        TcpFrameDecoder decoder = new TcpFrameDecoder();
+        TrdpPacketView view = new TrdpPacketView();
+
+        assertThat(decoder.readFrom(in)).isEqualTo(7);
+        assertThat(decoder.next(view)).isFalse();
+        assertThat(decoder.readFrom(in)).isEqualTo(23);
+        assertThat(decoder.next(view)).isFalse();
+        assertThat(decoder.readFrom(in)).isEqualTo(frame.length - 30);
+        assertThat(decoder.next(view)).isTrue();
+
+        assertThat(view.verify()).isEqualTo(TrdpPacketView.Status.VALID);
+        assertThat(view.copyPayload()).isEqualTo("split payload".getBytes());
+        assertThat(decoder.readFrom(in)).isEqualTo(-1);
+    }
+
+    @Test
+    void testCompactsPartialFrameAtBufferEnd() throws Exception {
+        int count = 5;
+        int frameLength = TrdpConstants.TRDP_MD_HEADER_SIZE + TrdpConstants.TRDP_MAX_MD_DATA_SIZE
+                          + TrdpConstants.TRDP_FCS_SIZE;
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            stream.writeBytes(mdFrame(i, 2000, new byte[TrdpConstants.TRDP_MAX_MD_DATA_SIZE]));
+        }
+
+        TcpFrameDecoder decoder = new TcpFrameDecoder(TcpFrameDecoder.MAX_FRAME_SIZE + 100);
+        TrdpPacketView view = new TrdpPacketView();
+        var channel = Channels.newChannel(new ByteArrayInputStream(stream.toByteArray()));
+
+        int received = 0;
+        while (decoder.readFrom(channel) >= 0) {
+            while (decoder.next(view)) {
+                assertThat(view.getSequenceCounter()).isEqualTo(received);
+                assertThat(view.getFrameLength()).isEqualTo(frameLength);
+                assertThat(view.verify()).isEqualTo(TrdpPacketView.Status.VALID);
+                received++;
+            }
+        }
+
+        assertThat(received).isEqualTo(count);
+        assertThat(decoder.buffered()).isZero();
+    }
+
+    @Test
+    void testRejectsUnknownMessageType() throws Exception {
+        byte[] frame = mdFrame(1, 2000, new byte[4]);
+        ByteBuffer.wrap(frame).putShort(TrdpConstants.MESSAGE_TYPE_OFFSET, (short) 0x1234);
+
+        TcpFrameDecoder decoder = new TcpFrameDecoder();
+        decoder.readFrom(new ByteArrayInputStream(frame));
+
+        assertThatThrownBy(() -> decoder.next(new TrdpPacketView()))
+            .isInstanceOf(ProtocolException.class)
+            .hasMessageContaining("message type");
+    }
+
+    @Test
+    void testRejectsOversizedDatasetLength() throws Exception {
+        byte[] frame = mdFrame(1, 2000, new byte[4]);
+        ByteBuffer.wrap(frame).putInt(TrdpConstants.MD_DATASET_LENGTH_OFFSET, 1_000_000);
+
+        TcpFrameDecoder decoder = new TcpFrameDecoder();
+        decoder.readFrom(new ByteArrayInputStream(frame));
+
+        assertThatThrownBy(() -> decoder.next(new TrdpPacketView()))
+            .isInstanceOf(ProtocolException.class)
+            .hasMessageContaining("dataset length");
+    }
+
+    @Test
+    void testRejectsBufferSmallerThanFrame() {
+        assertThatThrownBy(() -> new TcpFrameDecoder(100))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] mdFrame(int sequenceCounter, int comId, byte[] payload) {
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setSequenceCounter(sequenceCounter);
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(comId);
+        return new TrdpPacket(header, payload).encode();
+    }
+
+    private static byte[] pdFrame(int sequenceCounter, int comId, byte[] payload) {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setSequenceCounter(sequenceCounter);
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(comId);
+        return new TrdpPacket(header, payload).encode();
+    }
+
+    private static byte[] concat(byte[]... frames) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            stream.writeBytes(frame);
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * Returns the data in reads that end at the given positions, like a TCP socket would.
+     */
+    private static final class ChunkedInputStream extends InputStream {
+        private final byte[] data;
+        private final int[] ends;
+        private int position;
+        private int chunk;
+
+        ChunkedInputStream(byte[] data, int... ends) {
+            this.data = data;
+            this.ends = ends;
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (chunk == ends.length) {
+                return -1;
+            }
+            int n = Math.min(len, ends[chunk] - position);
+            System.arraycopy(data, position, b, off, n);
+            position += n;
+            if (position == ends[chunk]) {
+                chunk++;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.trdp.network;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import static org.assertj.core.api.Assertions.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+class UdpChannelTest {
+    
+    private NioEventLoop eventLoop;
+    private final List<UdpChannel> channels = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLoop = new NioEventLoop("test-loop");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        channels.forEach(UdpChannel::close);
+        eventLoop.close();
+    }
+    
+    @Test
+    void testSendAndReceive() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        
+        UdpChannel receiver = open(0, (datagram, source) -> {
+            byte[] data = new byte[datagram.remaining()];
+            datagram.get(data);
+            received.set(data);
+            latch.countDown();
+        });
+        UdpChannel sender = open(0, (datagram, source) -> { });
+        
+        byte[] testData = "Hello NIO TRDP".getBytes();
+        sender.send(testData, 0, testData.length,
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getLocalPort()));
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(received.get()).isEqualTo(testData);
+    }
+    
+    @Test
+    void testManyChannelsShareOneThread() throws Exception {
+        int channelCount = 50;
+        CountDownLatch latch = new CountDownLatch(channelCount);
+        ConcurrentHashMap<String, Boolean> threads = new ConcurrentHashMap<>();
+        
+        List<UdpChannel> receivers = new ArrayList<>();
+        for (int i = 0; i < channelCount; i++) {
+            receivers.add(open(0, (datagram, source) -> {
+                threads.put(Thread.currentThread().getName(), Boolean.TRUE);
+                latch.countDown();
+            }));
+        }
+        
+        UdpChannel sender = open(0, (datagram, source) -> { });
+        byte[] testData = "ping".getBytes();
+        for (UdpChannel receiver : receivers) {
+            sender.send(testData, 0, testData.length,
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getLocalPort()));
+        }
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(threads).containsOnlyKeys("test-loop");
+    }
+    
+    @Test
+    void testBatchModeDeliversAllDatagrams() throws Exception {
+        int datagramCount = 20;
+        CountDownLatch latch = new CountDownLatch(datagramCount);
+        List<Integer> batchSizes = new ArrayList<>();
+        
+        UdpChannel receiver = new UdpChannel(eventLoop, 0, new DatagramBatch(8), batch -> {
+            batchSizes.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                latch.countDown();
+            }
+        });
+        channels.add(receiver);
+        UdpChannel sender = open(0, (datagram, source) -> { });
+        
+        InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getLocalPort());
+        for (int i = 0; i < datagramCount; i++) {
+            sender.send(new byte[] {(byte) i}, 0, 1, target);
+        }
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, 8));
+    }
+    
+    @Test
+    void testBatchModeRespectsCapacity() throws Exception {
+        List<Integer> firstBytes = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        UdpChannel receiver = new UdpChannel(eventLoop, 0, new DatagramBatch(2), batch -> {
+            batchSizes.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                assertThat(batch.length(i)).isEqualTo(1);
+                firstBytes.add((int) batch.buffer().get(batch.offset(i)));
+                latch.countDown();
+            }
+            assertThatThrownBy(() -> batch.length(batch.size())).isInstanceOf(IndexOutOfBoundsException.class);
+        });
+        channels.add(receiver);
+        UdpChannel sender = open(0, (datagram, source) -> { });
+        
+        // Hold the loop until all three datagrams are queued on the socket
+        CountDownLatch release = new CountDownLatch(1);
+        eventLoop.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getLocalPort());
+        for (int i = 0; i < 3; i++) {
+            sender.send(new byte[] {(byte) i}, 0, 1, target);
+        }
+        Thread.sleep(100);
+        release.countDown();
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(batchSizes).containsExactly(2, 1);
+        assertThat(firstBytes).containsExactly(0, 1, 2);
+    }
+    
+    @Test
+    void testQueuesDatagramsWhileSendBufferIsFull() throws Exception {
+        BlockingQueue<Byte> received = new LinkedBlockingQueue<>();
+        UdpChannel receiver = open(0, (datagram, source) -> received.add(datagram.get()));
+        // The socket refuses the first three writes as if its send buffer were full
+        AtomicInteger refusals = new AtomicInteger(3);
+        UdpChannel sender = new UdpChannel(eventLoop, 0, (datagram, source) -> { }) {
+            @Override
+            int write(ByteBuffer data, SocketAddress target) throws IOException {
+                return refusals.getAndDecrement() > 0 ? 0 : super.write(data, target);
+            }
+        };
+        channels.add(sender);
+        
+        InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getLocalPort());
+        for (int i = 0; i < 3; i++) {
+            assertThat(sender.send(new byte[] {(byte) i}, 0, 1, target)).isTrue();
+        }
+        
+        for (int i = 0; i < 3; i++) {
+            assertThat(received.poll(2, TimeUnit.SECONDS)).isEqualTo((byte) i);
+        }
+        assertThat(refusals.get()).isNegative();
+        assertThat(sender.getQueuedBytes()).isZero();
+    }
+    
+    @Test
+    void testDropsDatagramsBeyondQueueLimit() throws Exception {
+        UdpChannel sender = new UdpChannel(eventLoop, 0, (datagram, source) -> { }) {
+            @Override
+            int write(ByteBuffer data, SocketAddress target) {
+                return 0;
+            }
+        };
+        channels.add(sender);
+        sender.setMaxQueuedBytes(2);
+        
+        InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), 9);
+        assertThat(sender.send(new byte[] {1}, 0, 1, target)).isTrue();
+        assertThat(sender.send(new byte[] {2}, 0, 1, target)).isTrue();
+        assertThat(sender.send(new byte[] {3}, 0, 1, target)).isFalse();
+        assertThat(sender.getQueuedBytes()).isEqualTo(2);
+    }
+    
+    private UdpChannel open(int port, DatagramHandler handler) throws IOException {
+        UdpChannel channel = new UdpChannel(eventLoop, port, handler);
+        channels.add(channel);
+        return channel;
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.AfterEach;
 import static org.assertj.core.api.Assertions.*;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 
 class UdpTransportTest {
     
@@ -57,4 +58,32 @@ class UdpTransportTest {
         assertThat(received).isZero();
         assertThat(elapsed).isGreaterThanOrEqualTo(500);
     }
+    
+    @Test
+    void testSendBatchReportsPartialFailure() throws IOException {
+        transport = new UdpTransport();
+        InetSocketAddress self = new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+        // Broadcast is refused without SO_BROADCAST, so only the middle datagram fails
+        InetSocketAddress broadcast = new InetSocketAddress(InetAddress.getByName("255.255.255.255"), 17999);
+        
+        DatagramSendBatch batch = new DatagramSendBatch(2);
+        assertThat(batch.add(new byte[] {1}, 0, 1, self)).isTrue();
+        assertThat(batch.add(new byte[] {2}, 0, 1, broadcast)).isTrue();
+        assertThat(batch.add(new byte[] {3}, 0, 1, self)).isFalse();
+        
+        assertThat(transport.sendBatch(batch)).isEqualTo(1);
+        assertThat(batch.getSentCount()).isEqualTo(1);
+        assertThat(batch.getFailedCount()).isEqualTo(1);
+        assertThat(batch.failure(0)).isNull();
+        assertThat(batch.failure(1)).isInstanceOf(IOException.class);
+        assertThat(batch.getSendNanos()).isPositive();
+        
+        byte[] buffer = new byte[16];
+        assertThat(transport.receive(buffer, 1000)).isEqualTo(1);
+        assertThat(buffer[0]).isEqualTo((byte) 1);
+        
+        batch.clear();
+        assertThat(batch.isEmpty()).isTrue();
+        assertThat(batch.getFailedCount()).isZero();
+    }
 }
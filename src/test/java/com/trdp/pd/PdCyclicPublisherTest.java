@@ -0,0 +1,142 @@
+package com.trdp.pd;
+
+import com.trdp.network.UdpTransport;
+import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpPacketView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import static org.assertj.core.api.Assertions.*;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+class PdCyclicPublisherTest {
+    
+    private PdCyclicPublisher publisher;
+    
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+    
+    @Test
+    void testPublishesCyclically() throws IOException {
+        try (UdpTransport receiver = new UdpTransport(18007)) {
+            publisher = new PdCyclicPublisher();
+            byte[] payload = "cyclic".getBytes();
+            PdCyclicTelegram telegram = publisher.add(1000, "127.0.0.1", 18007, 10_000,
+                                                      PdPayloadSupplier.of(() -> payload));
+            
+            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
+            TrdpPacketView view = new TrdpPacketView();
+            int previousSequence = -1;
+            for (int i = 0; i < 3; i++) {
+                int length = receiver.receive(buffer, 1000);
+                view.wrap(buffer, 0, length);
+                
+                assertThat(view.verify()).isEqualTo(TrdpPacketView.Status.VALID);
+                assertThat(view.getComId()).isEqualTo(1000);
+                assertThat(view.copyPayload()).isEqualTo(payload);
+                assertThat(view.getSequenceCounter()).isGreaterThan(previousSequence);
+                previousSequence = view.getSequenceCounter();
+            }
+            
+            assertThat(telegram.getSendCount()).isGreaterThanOrEqualTo(3);
+            assertThat(telegram.getCycleCount()).isGreaterThanOrEqualTo(telegram.getSendCount());
+        }
+    }
+    
+    @Test
+    void testSpreadsPhasesAutomatically() throws IOException {
+        publisher = new PdCyclicPublisher();
+        PdPayloadSupplier skip = (buffer, offset, maxLength) -> -1;
+        
+        PdCyclicTelegram first = publisher.add(1000, "127.0.0.1", 18008, 10_000, skip);
+        PdCyclicTelegram second = publisher.add(1001, "127.0.0.1", 18008, 10_000, skip);
+        PdCyclicTelegram fixed = publisher.add(1002, "127.0.0.1", 18008, 10_000, 5_000, skip);
+        
+        assertThat(first.getPhaseOffsetUs()).isNotEqualTo(second.getPhaseOffsetUs());
+        assertThat(fixed.getPhaseOffsetUs()).isEqualTo(5_000);
+        assertThat(publisher.getTelegrams()).hasSize(3);
+        
+        assertThat(publisher.remove(second)).isTrue();
+        assertThat(publisher.remove(second)).isFalse();
+        assertThat(publisher.getTelegrams()).containsExactlyInAnyOrder(first, fixed);
+    }
+    
+    @Test
+    void testSendsTelegramsDueOnSameTickAsOneBatch() throws IOException {
+        try (UdpTransport receiver = new UdpTransport()) {
+            publisher = new PdCyclicPublisher();
+            int port = receiver.getLocalPort();
+            for (int comId = 2000; comId < 2004; comId++) {
+                byte[] payload = {(byte) comId};
+                publisher.add(comId, "127.0.0.1", port, 10_000, 0, PdPayloadSupplier.of(() -> payload));
+            }
+            
+            // Only the first cycle can be split, by a cycle boundary passing while adding
+            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
+            for (int i = 0; i < 12; i++) {
+                assertThat(receiver.receive(buffer, 1000)).isPositive();
+            }
+            
+            assertThat(publisher.getBatchCount()).isPositive();
+            assertThat(publisher.getBatchSendTime().getCount()).isEqualTo(publisher.getBatchCount());
+            assertThat(publisher.getSendFailureCount()).isZero();
+            assertThat(publisher.getLastBatchSize()).isEqualTo(4);
+        }
+    }
+    
+    @Test
+    void testFailedSendsAreNotCountedAsSent() throws Exception {
+        publisher = new PdCyclicPublisher();
+        byte[] payload = {1};
+        // Sending to the broadcast address fails without SO_BROADCAST
+        PdCyclicTelegram telegram = publisher.add(2000, "255.255.255.255", 18008, 10_000,
+                                                  PdPayloadSupplier.of(() -> payload));
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (publisher.getSendFailureCount() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        
+        assertThat(publisher.getSendFailureCount()).isGreaterThanOrEqualTo(3);
+        assertThat(telegram.getSendCount()).isZero();
+    }
+    
+    @Test
+    void testJitterIsMeasuredAtBatchSendStart() throws IOException {
+        try (UdpTransport receiver = new UdpTransport()) {
+            publisher = new PdCyclicPublisher();
+            int port = receiver.getLocalPort();
+            byte[] payload = {1};
+            publisher.add(2000, "127.0.0.1", port, 20_000, 0, PdPayloadSupplier.of(() -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(3));
+                return payload;
+            }));
+            PdCyclicTelegram fast = publisher.add(2001, "127.0.0.1", port, 20_000, 0,
+                                                  PdPayloadSupplier.of(() -> payload));
+            
+            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
+            for (int i = 0; i < 4; i++) {
+                assertThat(receiver.receive(buffer, 1000)).isPositive();
+            }
+            
+            // The fast telegram leaves with the slow one, after its supplier ran
+            assertThat(fast.getLastJitterNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(3));
+            assertThat(fast.getMeanJitterNanos()).isPositive();
+        }
+    }
+    
+    @Test
+    void testRejectsCycleShorterThanTick() throws IOException {
+        publisher = new PdCyclicPublisher();
+        
+        assertThatThrownBy(() -> publisher.add(1000, "127.0.0.1", 18008, 100,
+                                               (buffer, offset, maxLength) -> 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("at least one scheduler tick");
+    }
+}
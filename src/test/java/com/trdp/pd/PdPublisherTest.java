@@ -1,10 +1,13 @@
 package com.trdp.pd;
 
+import com.trdp.network.UdpTransport;
 import com.trdp.protocol.TrdpConstants;
+import com.trdp.protocol.TrdpPacket;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import static org.assertj.core.api.Assertions.*;
 import java.io.IOException;
+import java.util.Arrays;
 
 class PdPublisherTest {
     
@@ -41,4 +44,26 @@ class PdPublisherTest {
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("exceeds maximum");
     }
+    
+    @Test
+    void testPublishReusesFrameAcrossCycles() throws IOException {
+        try (UdpTransport receiver = new UdpTransport(18003)) {
+            publisher = new PdPublisher(1000, "127.0.0.1", 18003);
+            byte[] buffer = new byte[TrdpConstants.TRDP_MAX_PACKET_SIZE];
+            
+            publisher.publish("First cycle".getBytes());
+            int length = receiver.receive(buffer, 1000);
+            TrdpPacket first = TrdpPacket.decode(Arrays.copyOf(buffer, length));
+            
+            publisher.publish("2nd".getBytes());
+            length = receiver.receive(buffer, 1000);
+            TrdpPacket second = TrdpPacket.decode(Arrays.copyOf(buffer, length));
+            
+            assertThat(first.getPayload()).isEqualTo("First cycle".getBytes());
+            assertThat(second.getPayload()).isEqualTo("2nd".getBytes());
+            assertThat(second.getHeader().getComId()).isEqualTo(1000);
+            assertThat(second.getHeader().getSequenceCounter())
+                .isEqualTo(first.getHeader().getSequenceCounter() + 1);
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.trdp.pd;
+
+import com.trdp.network.UdpTransport;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPdHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import static org.assertj.core.api.Assertions.*;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class PdReceiveHubTest {
+    
+    private PdReceiveHub hub;
+    
+    @AfterEach
+    void tearDown() {
+        if (hub != null) {
+            hub.close();
+        }
+    }
+    
+    @Test
+    void testDispatchesByComId() throws Exception {
+        hub = new PdReceiveHub(18005);
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        
+        hub.subscribe(1000, (comId, data, seqNo) -> {
+            first.add(new String(data));
+            latch.countDown();
+        });
+        hub.subscribe(1001, packet -> {
+            second.add(new String(packet.copyPayload()));
+            latch.countDown();
+        });
+        
+        try (PdPublisher ignored = new PdPublisher(999, "127.0.0.1", 18005);
+             PdPublisher publisher1 = new PdPublisher(1000, "127.0.0.1", 18005);
+             PdPublisher publisher2 = new PdPublisher(1001, "127.0.0.1", 18005)) {
+            ignored.publish("unsubscribed".getBytes());
+            publisher1.publish("for 1000".getBytes());
+            publisher2.publish("for 1001".getBytes());
+        }
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(first).containsExactly("for 1000");
+        assertThat(second).containsExactly("for 1001");
+    }
+    
+    @Test
+    void testUnsubscribe() throws Exception {
+        hub = new PdReceiveHub(18006);
+        PdDataListener listener = (comId, data, seqNo) -> { };
+        
+        hub.subscribe(1000, listener);
+        assertThat(hub.isSubscribed(1000)).isTrue();
+        
+        hub.unsubscribe(1000, listener);
+        assertThat(hub.isSubscribed(1000)).isFalse();
+    }
+    
+    @Test
+    void testSequenceTrackerDropsDuplicates() throws Exception {
+        hub = new PdReceiveHub(18011);
+        hub.setSequenceTracker(new PdSequenceTracker());
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        hub.subscribe(1000, (comId, data, seqNo) -> {
+            delivered.add(seqNo);
+            latch.countDown();
+        });
+        
+        try (UdpTransport sender = new UdpTransport()) {
+            InetAddress loopback = InetAddress.getByName("127.0.0.1");
+            for (int seqNo : new int[] {1, 1, 2, 1, 4}) {
+                sender.send(encode(1000, seqNo), loopback, 18011);
+            }
+        }
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        assertThat(delivered).containsExactly(1, 2, 4);
+    }
+    
+    private static byte[] encode(int comId, int seqNo) {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(comId);
+        header.setSequenceCounter(seqNo);
+        return new TrdpPacket(header, new byte[4]).encode();
+    }
+}
@@ -0,0 +1,73 @@
+package com.trdp.pd;
+
+import com.trdp.stats.TrdpCounter;
+import com.trdp.stats.TrdpCounters;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class PdSequenceTrackerTest {
+    
+    private static final int SOURCE_A = 0x0A000001;
+    private static final int SOURCE_B = 0x0A000002;
+    
+    @Test
+    void testClassifiesTelegrams() {
+        PdSequenceTracker tracker = new PdSequenceTracker();
+        TrdpCounters counters = new TrdpCounters();
+        
+        assertThat(tracker.track(SOURCE_A, 1000, 1, counters)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+        assertThat(tracker.track(SOURCE_A, 1000, 2, counters)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+        assertThat(tracker.track(SOURCE_A, 1000, 2, counters)).isEqualTo(PdSequenceTracker.Verdict.DUPLICATE);
+        assertThat(tracker.track(SOURCE_A, 1000, 5, counters)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+        assertThat(tracker.track(SOURCE_A, 1000, 4, counters)).isEqualTo(PdSequenceTracker.Verdict.STALE);
+        
+        assertThat(counters.get(TrdpCounter.DUPLICATES)).isEqualTo(1);
+        assertThat(counters.get(TrdpCounter.OUT_OF_ORDER)).isEqualTo(1);
+        assertThat(counters.get(TrdpCounter.SEQUENCE_GAPS)).isEqualTo(2);
+    }
+    
+    @Test
+    void testSourcesAndComIdsAreTrackedSeparately() {
+        PdSequenceTracker tracker = new PdSequenceTracker();
+        
+        tracker.track(SOURCE_A, 1000, 10, null);
+        
+        assertThat(tracker.track(SOURCE_B, 1000, 10, null)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+        assertThat(tracker.track(SOURCE_A, 1001, 10, null)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+        assertThat(tracker.track(SOURCE_A, 1000, 10, null)).isEqualTo(PdSequenceTracker.Verdict.DUPLICATE);
+        assertThat(tracker.size()).isEqualTo(3);
+    }
+    
+    @Test
+    void testPublisherRestartIsAccepted() {
+        PdSequenceTracker tracker = new PdSequenceTracker(16);
+        
+        tracker.track(SOURCE_A, 1000, 1000, null);
+        
+        assertThat(tracker.track(SOURCE_A, 1000, 990, null)).isEqualTo(PdSequenceTracker.Verdict.STALE);
+        assertThat(tracker.track(SOURCE_A, 1000, 0, null)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+        assertThat(tracker.track(SOURCE_A, 1000, 1, null)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+    }
+    
+    @Test
+    void testCounterWrapAround() {
+        PdSequenceTracker tracker = new PdSequenceTracker();
+        
+        tracker.track(SOURCE_A, 1000, Integer.MAX_VALUE, null);
+        
+        assertThat(tracker.track(SOURCE_A, 1000, Integer.MIN_VALUE, null)).isEqualTo(PdSequenceTracker.Verdict.FRESH);
+    }
+    
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        PdSequenceTracker tracker = new PdSequenceTracker();
+        
+        for (int comId = 0; comId < 1000; comId++) {
+            tracker.track(SOURCE_A, comId, 1, null);
+        }
+        for (int comId = 0; comId < 1000; comId++) {
+            assertThat(tracker.track(SOURCE_A, comId, 1, null)).isEqualTo(PdSequenceTracker.Verdict.DUPLICATE);
+        }
+        assertThat(tracker.size()).isEqualTo(1000);
+    }
+}
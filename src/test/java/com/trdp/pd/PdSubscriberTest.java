@@ -1,9 +1,13 @@
 package com.trdp.pd;
 
+import com.trdp.network.NioEventLoop;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import static org.assertj.core.api.Assertions.*;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 class PdSubscriberTest {
     
@@ -45,4 +49,28 @@ class PdSubscriberTest {
         subscriber = new PdSubscriber(1000, "239.255.0.1", 17224);
         assertThatCode(() -> subscriber.start()).doesNotThrowAnyException();
     }
+    
+    @Test
+    void testEventLoopSubscriberReceivesUnicast() throws Exception {
+        try (NioEventLoop eventLoop = new NioEventLoop("pd-test-loop")) {
+            subscriber = new PdSubscriber(1000, "239.255.0.1", 18004, eventLoop);
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<byte[]> received = new AtomicReference<>();
+            subscriber.addListener((comId, data, seqNo) -> {
+                received.set(data);
+                latch.countDown();
+            });
+            subscriber.start();
+            
+            try (PdPublisher publisher = new PdPublisher(1000, "127.0.0.1", 18004)) {
+                publisher.publish("Event loop PD".getBytes());
+            }
+            
+            assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(received.get()).isEqualTo("Event loop PD".getBytes());
+            
+            subscriber.close();
+            subscriber = null;
+        }
+    }
 }
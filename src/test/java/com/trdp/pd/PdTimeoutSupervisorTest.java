@@ -0,0 +1,117 @@
+package com.trdp.pd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import static org.assertj.core.api.Assertions.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PdTimeoutSupervisorTest {
+    
+    private PdTimeoutSupervisor supervisor;
+    
+    @AfterEach
+    void tearDown() {
+        if (supervisor != null) {
+            supervisor.close();
+        }
+    }
+    
+    @Test
+    void testTimeoutFiresOnce() throws Exception {
+        supervisor = new PdTimeoutSupervisor();
+        AtomicInteger timeouts = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        
+        supervisor.supervise(1000, 20, (comId, lastReceiveNanos) -> {
+            timeouts.incrementAndGet();
+            latch.countDown();
+        });
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(timeouts.get()).isEqualTo(1);
+        assertThat(supervisor.isTimedOut(1000)).isTrue();
+    }
+    
+    @Test
+    void testNoTimeoutWhileDataArrives() throws Exception {
+        supervisor = new PdTimeoutSupervisor();
+        AtomicInteger timeouts = new AtomicInteger();
+        
+        supervisor.supervise(1000, 50, (comId, lastReceiveNanos) -> timeouts.incrementAndGet());
+        for (int i = 0; i < 15; i++) {
+            supervisor.touch(1000);
+            Thread.sleep(10);
+        }
+        
+        assertThat(timeouts.get()).isZero();
+        assertThat(supervisor.isTimedOut(1000)).isFalse();
+    }
+    
+    @Test
+    void testResumeRearmsSupervision() throws Exception {
+        supervisor = new PdTimeoutSupervisor();
+        CountDownLatch firstTimeout = new CountDownLatch(1);
+        CountDownLatch secondTimeout = new CountDownLatch(2);
+        CountDownLatch resumed = new CountDownLatch(1);
+        
+        supervisor.supervise(1000, 20, new PdTimeoutListener() {
+            @Override
+            public void onTimeout(int comId, long lastReceiveNanos) {
+                firstTimeout.countDown();
+                secondTimeout.countDown();
+            }
+            
+            @Override
+            public void onResumed(int comId) {
+                resumed.countDown();
+            }
+        });
+        
+        assertThat(firstTimeout.await(2, TimeUnit.SECONDS)).isTrue();
+        supervisor.touch(1000);
+        assertThat(resumed.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(supervisor.isTimedOut(1000)).isFalse();
+        assertThat(secondTimeout.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+    
+    @Test
+    void testZeroBehaviorClearsTrafficStore() throws Exception {
+        PdTrafficStore store = new PdTrafficStore();
+        store.register(1000);
+        store.put(1000, new byte[] {1, 2, 3}, 0, 3, 7);
+        supervisor = new PdTimeoutSupervisor(store);
+        CountDownLatch latch = new CountDownLatch(1);
+        
+        supervisor.supervise(1000, 20, PdTimeoutBehavior.ZERO, (comId, lastReceiveNanos) -> latch.countDown());
+        
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        PdSample sample = new PdSample();
+        assertThat(store.read(1000, sample)).isTrue();
+        assertThat(sample.copyData()).containsExactly(0, 0, 0);
+        assertThat(sample.getSequenceCounter()).isEqualTo(7);
+    }
+    
+    @Test
+    void testZeroBehaviorRequiresStore() {
+        supervisor = new PdTimeoutSupervisor();
+        
+        assertThatThrownBy(() -> supervisor.supervise(1000, 20, PdTimeoutBehavior.ZERO, (comId, last) -> {}))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void testUnsupervise() throws Exception {
+        supervisor = new PdTimeoutSupervisor();
+        AtomicInteger timeouts = new AtomicInteger();
+        
+        supervisor.supervise(1000, 20, (comId, lastReceiveNanos) -> timeouts.incrementAndGet());
+        supervisor.unsupervise(1000);
+        Thread.sleep(60);
+        
+        assertThat(supervisor.isSupervised(1000)).isFalse();
+        assertThat(timeouts.get()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.trdp.pd;
+
+import com.trdp.network.NioEventLoop;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class PdTrafficStoreTest {
+    
+    @Test
+    void testReadLatestValue() {
+        PdTrafficStore store = new PdTrafficStore();
+        store.register(1000);
+        PdSample sample = new PdSample();
+        
+        assertThat(store.read(1000, sample)).isFalse();
+        
+        assertThat(store.put(1000, "first".getBytes(), 0, 5, 1)).isTrue();
+        assertThat(store.put(1000, "second".getBytes(), 0, 6, 2)).isTrue();
+        
+        assertThat(store.read(1000, sample)).isTrue();
+        assertThat(sample.getComId()).isEqualTo(1000);
+        assertThat(sample.getSequenceCounter()).isEqualTo(2);
+        assertThat(sample.copyData()).isEqualTo("second".getBytes());
+        assertThat(sample.getReceiveTimeNanos()).isLessThanOrEqualTo(System.nanoTime());
+    }
+    
+    @Test
+    void testUnregisteredComIdIsIgnored() {
+        PdTrafficStore store = new PdTrafficStore();
+        PdSample sample = new PdSample();
+        
+        assertThat(store.put(2000, new byte[4], 0, 4, 1)).isFalse();
+        assertThat(store.read(2000, sample)).isFalse();
+        
+        store.register(2000);
+        assertThat(store.isRegistered(2000)).isTrue();
+        store.unregister(2000);
+        assertThat(store.isRegistered(2000)).isFalse();
+    }
+    
+    @Test
+    void testOversizedPayloadIsDropped() {
+        PdTrafficStore store = new PdTrafficStore();
+        store.register(1000, 8);
+        
+        assertThat(store.put(1000, new byte[16], 0, 16, 1)).isFalse();
+        assertThat(store.read(1000, new PdSample())).isFalse();
+        
+        assertThatThrownBy(() -> store.register(1001, 5000))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void testReaderNeverSeesTornValue() throws Exception {
+        PdTrafficStore store = new PdTrafficStore();
+        store.register(1000, 256);
+        AtomicBoolean running = new AtomicBoolean(true);
+        
+        Thread writer = new Thread(() -> {
+            byte[] data = new byte[256];
+            int sequence = 0;
+            while (running.get()) {
+                sequence++;
+                Arrays.fill(data, (byte) sequence);
+                int length = 1 + (sequence & 0xFF);
+                store.put(1000, data, 0, length, sequence);
+            }
+        });
+        writer.start();
+        
+        PdSample sample = new PdSample();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        int reads = 0;
+        try {
+            while (System.nanoTime() < deadline) {
+                if (!store.read(1000, sample)) {
+                    continue;
+                }
+                reads++;
+                int sequence = sample.getSequenceCounter();
+                assertThat(sample.getLength()).isEqualTo(1 + (sequence & 0xFF));
+                for (int i = 0; i < sample.getLength(); i++) {
+                    assertThat(sample.getData()[i]).isEqualTo((byte) sequence);
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertThat(reads).isPositive();
+    }
+    
+    @Test
+    void testFilledFromSubscriber() throws Exception {
+        PdTrafficStore store = new PdTrafficStore();
+        try (NioEventLoop eventLoop = new NioEventLoop("pd-store-test-loop");
+             PdSubscriber subscriber = new PdSubscriber(1000, "239.255.0.1", 18009, eventLoop)) {
+            subscriber.addTrafficStore(store);
+            subscriber.start();
+            
+            try (PdPublisher publisher = new PdPublisher(1000, "127.0.0.1", 18009)) {
+                publisher.publish("stored".getBytes());
+            }
+            
+            PdSample sample = new PdSample();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (!store.read(1000, sample) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(sample.copyData()).isEqualTo("stored".getBytes());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.trdp.protocol;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import static org.assertj.core.api.Assertions.*;
+
+class TrdpFrameTest {
+
+    @Test
+    void testMatchesPacketEncoding() {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(1000);
+
+        TrdpFrame frame = new TrdpFrame(header);
+        byte[] payload = "Cyclic data".getBytes();
+
+        frame.setSequenceCounter(5);
+        frame.setPayload(payload, 0, payload.length);
+        frame.seal();
+
+        header.setSequenceCounter(5);
+        byte[] expected = new TrdpPacket(header, payload).encode();
+
+        assertThat(Arrays.copyOf(frame.array(), frame.length())).isEqualTo(expected);
+    }
+
+    @Test
+    void testReuseWithShorterPayload() {
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(2000);
+
+        TrdpFrame frame = new TrdpFrame(header);
+        byte[] longPayload = "A much longer payload".getBytes();
+        frame.setPayload(longPayload, 0, longPayload.length);
+        frame.seal();
+
+        byte[] shortPayload = "Short".getBytes();
+        frame.setSequenceCounter(9);
+        frame.setPayload(shortPayload, 0, shortPayload.length);
+        frame.seal();
+
+        TrdpPacket decoded = TrdpPacket.decode(Arrays.copyOf(frame.array(), frame.length()));
+        assertThat(decoded.getHeader().getSequenceCounter()).isEqualTo(9);
+        assertThat(decoded.getPayload()).isEqualTo(shortPayload);
+        assertThat(new TrdpPacketView().wrap(frame.array(), 0, frame.length()).verify())
+            .isEqualTo(TrdpPacketView.Status.VALID);
+    }
+
+    @Test
+    void testOversizedPayload() {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        TrdpFrame frame = new TrdpFrame(header);
+
+        assertThatThrownBy(() -> frame.setPayloadLength(TrdpConstants.TRDP_MAX_PD_DATA_SIZE + 1))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exceeds maximum");
+    }
+}
@@ -13,6 +13,7 @@ class TrdpMdHeaderTest {
         original.setComId(1000);
         original.setReplyComId(2000);
         original.setReplyIpAddress(0xC0A80001);
+        original.setReplyStatus(TrdpConstants.MD_REPLY_STATUS_NO_REPLIER_MEMORY);
 
         byte[] encoded = original.encode();
         assertThat(encoded).hasSize(TrdpConstants.TRDP_MD_HEADER_SIZE);
@@ -24,5 +25,6 @@ class TrdpMdHeaderTest {
         assertThat(decoded.getComId()).isEqualTo(1000);
         assertThat(decoded.getReplyComId()).isEqualTo(2000);
         assertThat(decoded.getReplyIpAddress()).isEqualTo(0xC0A80001);
+        assertThat(decoded.getReplyStatus()).isEqualTo(TrdpConstants.MD_REPLY_STATUS_NO_REPLIER_MEMORY);
     }
 }
@@ -0,0 +1,111 @@
+package com.trdp.protocol;
+
+import com.trdp.util.FcsUtils;
+import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
+import static org.assertj.core.api.Assertions.*;
+
+class TrdpPacketViewTest {
+
+    @Test
+    void testReadPdPacketInPlace() {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setSequenceCounter(7);
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(1000);
+        header.setReplyComId(1001);
+        header.setReplyIpAddress(0x0A000001);
+
+        byte[] payload = "PD payload".getBytes();
+        byte[] encoded = new TrdpPacket(header, payload).encode();
+
+        byte[] received = new byte[encoded.length + 8];
+        System.arraycopy(encoded, 0, received, 8, encoded.length);
+
+        TrdpPacketView view = new TrdpPacketView().wrap(received, 8, encoded.length);
+
+        assertThat(view.verify()).isEqualTo(TrdpPacketView.Status.VALID);
+        assertThat(view.getSequenceCounter()).isEqualTo(7);
+        assertThat(view.getMessageType()).isEqualTo(TrdpMessageType.PD);
+        assertThat(view.getComId()).isEqualTo(1000);
+        assertThat(view.getReplyComId()).isEqualTo(1001);
+        assertThat(view.getReplyIpAddress()).isEqualTo(0x0A000001);
+        assertThat(view.getPayloadOffset()).isEqualTo(8 + TrdpConstants.TRDP_PD_HEADER_SIZE);
+        assertThat(view.getFrameLength()).isEqualTo(encoded.length);
+        assertThat(view.copyPayload()).isEqualTo(payload);
+    }
+
+    @Test
+    void testReadMdPacketFromDirectBuffer() {
+        TrdpMdHeader header = new TrdpMdHeader();
+        header.setSequenceCounter(3);
+        header.setMessageType(TrdpMessageType.MD_REQUEST);
+        header.setComId(2000);
+        header.setReplyComId(2001);
+        header.setReplyIpAddress(0x7F000001);
+
+        byte[] payload = "MD payload".getBytes();
+        byte[] encoded = new TrdpPacket(header, payload).encode();
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.length);
+        direct.put(encoded).flip();
+
+        TrdpPacketView view = new TrdpPacketView().wrap(direct);
+
+        assertThat(view.verify()).isEqualTo(TrdpPacketView.Status.VALID);
+        assertThat(view.isMd()).isTrue();
+        assertThat(view.getComId()).isEqualTo(2000);
+        assertThat(view.getReplyComId()).isEqualTo(2001);
+        assertThat(view.getReplyIpAddress()).isEqualTo(0x7F000001);
+        assertThat(view.getPayloadLength()).isEqualTo(payload.length);
+
+        ByteBuffer slice = view.payload();
+        byte[] sliced = new byte[slice.remaining()];
+        slice.get(sliced);
+        assertThat(sliced).isEqualTo(payload);
+    }
+
+    @Test
+    void testDetectsCorruption() {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(100);
+        byte[] encoded = new TrdpPacket(header, "Data".getBytes()).encode();
+        TrdpPacketView view = new TrdpPacketView();
+
+        byte[] badHeader = encoded.clone();
+        badHeader[TrdpConstants.COM_ID_OFFSET] ^= 0x01;
+        assertThat(view.wrap(badHeader, 0, badHeader.length).verify())
+            .isEqualTo(TrdpPacketView.Status.HEADER_FCS_MISMATCH);
+
+        byte[] badData = encoded.clone();
+        badData[TrdpConstants.TRDP_PD_HEADER_SIZE] ^= 0x01;
+        assertThat(view.wrap(badData, 0, badData.length).verify())
+            .isEqualTo(TrdpPacketView.Status.DATA_FCS_MISMATCH);
+
+        assertThat(view.wrap(encoded, 0, encoded.length - 1).verify())
+            .isEqualTo(TrdpPacketView.Status.TRUNCATED);
+
+        byte[] unknownType = encoded.clone();
+        unknownType[TrdpConstants.MESSAGE_TYPE_OFFSET] = 0x00;
+        assertThat(view.wrap(unknownType, 0, unknownType.length).verify())
+            .isEqualTo(TrdpPacketView.Status.UNKNOWN_MESSAGE_TYPE);
+    }
+
+    @Test
+    void testHugeDatasetLengthIsTruncated() {
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(100);
+        byte[] encoded = new TrdpPacket(header, "Data".getBytes()).encode();
+
+        // Corrupt dataset length behind a valid header FCS
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        buffer.putInt(TrdpConstants.PD_DATASET_LENGTH_OFFSET, 0x7FFFFFF0);
+        int fcsOffset = TrdpConstants.TRDP_PD_HEADER_SIZE - TrdpConstants.TRDP_FCS_SIZE;
+        buffer.putInt(fcsOffset, Integer.reverseBytes(FcsUtils.calculateFcs(encoded, 0, fcsOffset)));
+
+        assertThat(new TrdpPacketView().wrap(encoded, 0, encoded.length).verify())
+            .isEqualTo(TrdpPacketView.Status.TRUNCATED);
+    }
+}
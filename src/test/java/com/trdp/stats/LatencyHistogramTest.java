@@ -0,0 +1,46 @@
+package com.trdp.stats;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void testBucketBoundsCoverValues() {
+        long[] values = {0, 1, 7, 8, 15, 16, 100, 1_000, 123_456, 10_000_000_000L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertThat(upper).isGreaterThanOrEqualTo(value);
+            assertThat(upper - value).isLessThanOrEqualTo(value / 8);
+        }
+    }
+    
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+        
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMaxNanos()).isEqualTo(100_000);
+        assertThat(histogram.getMeanNanos()).isEqualTo(50_500);
+        assertThat(histogram.getPercentileNanos(50)).isBetween(50_000L, 56_250L);
+        assertThat(histogram.getPercentileNanos(99)).isBetween(99_000L, 100_000L);
+        assertThat(histogram.getPercentileNanos(100)).isEqualTo(100_000);
+    }
+    
+    @Test
+    void testEmptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getPercentileNanos(50)).isZero();
+        
+        histogram.record(5_000);
+        histogram.reset();
+        
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMaxNanos()).isZero();
+        assertThat(histogram.getPercentileNanos(99)).isZero();
+    }
+}
@@ -0,0 +1,121 @@
+package com.trdp.stats;
+
+import com.trdp.md.TransportProtocol;
+import com.trdp.pd.PdPublisher;
+import com.trdp.pd.PdReceiveHub;
+import com.trdp.protocol.TrdpMessageType;
+import com.trdp.protocol.TrdpPacket;
+import com.trdp.protocol.TrdpPacketView;
+import com.trdp.protocol.TrdpPdHeader;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class TrdpStatisticsTest {
+    
+    @Test
+    void testRecordRxAndTx() {
+        TrdpStatistics statistics = new TrdpStatistics();
+        
+        statistics.recordRx(TransportProtocol.UDP, 1000, 64);
+        statistics.recordRx(TransportProtocol.UDP, 1000, 32);
+        statistics.recordTx(TransportProtocol.TCP, 2000, 10);
+        
+        ComIdStatistics comId = statistics.getComId(1000);
+        assertThat(comId.get(TrdpCounter.RX_PACKETS)).isEqualTo(2);
+        assertThat(comId.get(TrdpCounter.RX_BYTES)).isEqualTo(96);
+        assertThat(statistics.transport(TransportProtocol.UDP).get(TrdpCounter.RX_PACKETS)).isEqualTo(2);
+        assertThat(statistics.transport(TransportProtocol.TCP).get(TrdpCounter.TX_BYTES)).isEqualTo(10);
+        assertThat(statistics.getComIds()).containsExactlyInAnyOrder(1000, 2000);
+    }
+    
+    @Test
+    void testComIdsBeyondLimitAreCountedTogether() {
+        TrdpStatistics statistics = new TrdpStatistics(2);
+        
+        statistics.recordRx(TransportProtocol.UDP, 1000, 10);
+        statistics.recordRx(TransportProtocol.UDP, 2000, 20);
+        statistics.recordRx(TransportProtocol.UDP, 3000, 30);
+        statistics.recordRx(TransportProtocol.UDP, 4000, 40);
+        statistics.recordRx(TransportProtocol.UDP, 1000, 10);
+        
+        assertThat(statistics.getComIds()).containsExactlyInAnyOrder(1000, 2000);
+        assertThat(statistics.getComId(3000)).isNull();
+        assertThat(statistics.comId(4000)).isSameAs(statistics.getOtherComIds());
+        assertThat(statistics.getComId(1000).get(TrdpCounter.RX_PACKETS)).isEqualTo(2);
+        assertThat(statistics.getOtherComIds().get(TrdpCounter.RX_PACKETS)).isEqualTo(2);
+        assertThat(statistics.getOtherComIds().get(TrdpCounter.RX_BYTES)).isEqualTo(70);
+        assertThat(statistics.transport(TransportProtocol.UDP).get(TrdpCounter.RX_PACKETS)).isEqualTo(5);
+        
+        statistics.getOtherComIds().recordSequence(1);
+        statistics.getOtherComIds().recordSequence(9);
+        assertThat(statistics.getOtherComIds().get(TrdpCounter.SEQUENCE_GAPS)).isZero();
+        
+        statistics.reset();
+        assertThat(statistics.getOtherComIds().get(TrdpCounter.RX_PACKETS)).isZero();
+        statistics.recordRx(TransportProtocol.UDP, 3000, 30);
+        assertThat(statistics.getComIds()).containsExactly(3000);
+    }
+    
+    @Test
+    void testSequenceGaps() {
+        ComIdStatistics statistics = new TrdpStatistics().comId(1000);
+        
+        statistics.recordSequence(1);
+        statistics.recordSequence(2);
+        statistics.recordSequence(5);
+        statistics.recordSequence(5);
+        
+        assertThat(statistics.get(TrdpCounter.SEQUENCE_GAPS)).isEqualTo(2);
+    }
+    
+    @Test
+    void testInvalidPacketsAreClassified() {
+        TrdpStatistics statistics = new TrdpStatistics();
+        TrdpPdHeader header = new TrdpPdHeader();
+        header.setMessageType(TrdpMessageType.PD);
+        header.setComId(1000);
+        byte[] frame = new TrdpPacket(header, new byte[8]).encode();
+        TrdpPacketView view = new TrdpPacketView();
+        
+        byte[] dataCorrupted = frame.clone();
+        dataCorrupted[dataCorrupted.length - 1] ^= 0x01;
+        view.wrap(dataCorrupted, 0, dataCorrupted.length);
+        statistics.recordInvalid(TransportProtocol.UDP, view, view.verify());
+        
+        byte[] headerCorrupted = frame.clone();
+        headerCorrupted[9] ^= 0x01;
+        view.wrap(headerCorrupted, 0, headerCorrupted.length);
+        statistics.recordInvalid(TransportProtocol.UDP, view, view.verify());
+        
+        TrdpCounters udp = statistics.transport(TransportProtocol.UDP);
+        assertThat(udp.get(TrdpCounter.DATA_FCS_ERRORS)).isEqualTo(1);
+        assertThat(udp.get(TrdpCounter.HEADER_FCS_ERRORS)).isEqualTo(1);
+        assertThat(statistics.getComId(1000).get(TrdpCounter.DATA_FCS_ERRORS)).isEqualTo(1);
+        assertThat(statistics.getComId(1000).get(TrdpCounter.HEADER_FCS_ERRORS)).isZero();
+    }
+    
+    @Test
+    void testReceiveHubRecordsStatistics() throws Exception {
+        TrdpStatistics statistics = new TrdpStatistics();
+        try (PdReceiveHub hub = new PdReceiveHub(18010)) {
+            hub.setStatistics(statistics);
+            CountDownLatch latch = new CountDownLatch(2);
+            hub.subscribe(1000, (comId, data, seqNo) -> latch.countDown());
+            
+            try (PdPublisher publisher = new PdPublisher(1000, "127.0.0.1", 18010)) {
+                publisher.setStatistics(statistics);
+                publisher.publish(new byte[16]);
+                publisher.publish(new byte[16]);
+            }
+            
+            assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+            ComIdStatistics comId = statistics.getComId(1000);
+            assertThat(comId.get(TrdpCounter.TX_PACKETS)).isEqualTo(2);
+            assertThat(comId.get(TrdpCounter.RX_PACKETS)).isEqualTo(2);
+            assertThat(comId.get(TrdpCounter.RX_BYTES)).isEqualTo(32);
+            assertThat(comId.get(TrdpCounter.SEQUENCE_GAPS)).isZero();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import static org.assertj.core.api.Assertions.*;
+
+class FcsUtilsTest {
+
+    @Test
+    void testStandardCheckValue() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(FcsUtils.calculateFcs(data)).isEqualTo(0xCBF43926);
+    }
+
+    @Test
+    void testMatchesBitwiseReference() {
+        Random random = new Random(42);
+        byte[] data = new byte[1500];
+        random.nextBytes(data);
+
+        for (int length : new int[] {0, 1, 7, 36, 112, 1432}) {
+            assertThat(FcsUtils.calculateFcs(data, 3, length))
+                .isEqualTo(bitwiseFcs(data, 3, length));
+        }
+    }
+
+    @Test
+    void testByteBufferRange() {
+        byte[] data = new byte[256];
+        new Random(7).nextBytes(data);
+
+        ByteBuffer heap = ByteBuffer.wrap(data);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).position(5).limit(10);
+
+        int expected = FcsUtils.calculateFcs(data, 16, 200);
+
+        assertThat(FcsUtils.calculateFcs(heap, 16, 200)).isEqualTo(expected);
+        assertThat(FcsUtils.calculateFcs(direct, 16, 200)).isEqualTo(expected);
+        assertThat(direct.position()).isEqualTo(5);
+        assertThat(direct.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void testOutOfBoundsRange() {
+        assertThatThrownBy(() -> FcsUtils.calculateFcs(new byte[8], 4, 8))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static int bitwiseFcs(byte[] data, int offset, int length) {
+        int crc = 0xFFFFFFFF;
+        for (int i = offset; i < offset + length; i++) {
+            crc ^= (data[i] & 0xFF);
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xEDB88320 : crc >>> 1;
+            }
+        }
+        return ~crc;
+    }
+}
@@ -0,0 +1,127 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import static org.assertj.core.api.Assertions.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @AfterEach
+    void tearDown() {
+        if (timer != null) {
+            timer.close();
+        }
+    }
+
+    @Test
+    void testExpiresNotBeforeDeadline() throws Exception {
+        timer = new HashedWheelTimer("test-timer", TimeUnit.MILLISECONDS.toNanos(1), 64);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20);
+        timer.scheduleAt(new TestTimeout(() -> {
+            firedAt.set(System.nanoTime());
+            latch.countDown();
+        }), deadline);
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt.get()).isGreaterThanOrEqualTo(deadline);
+    }
+
+    @Test
+    void testDeadlineBeyondOneWheelRevolution() throws Exception {
+        timer = new HashedWheelTimer("test-timer", TimeUnit.MILLISECONDS.toNanos(1), 8);
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AtomicLong elapsed = new AtomicLong();
+
+        timer.schedule(new TestTimeout(() -> {
+            elapsed.set(System.nanoTime() - start);
+            latch.countDown();
+        }), TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(elapsed.get()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void testCancel() throws Exception {
+        timer = new HashedWheelTimer("test-timer", TimeUnit.MILLISECONDS.toNanos(1), 64);
+        AtomicInteger fired = new AtomicInteger();
+        TestTimeout timeout = new TestTimeout(fired::incrementAndGet);
+
+        timer.schedule(timeout, TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(timeout.isScheduled()).isTrue();
+        assertThat(timer.cancel(timeout)).isTrue();
+        assertThat(timer.cancel(timeout)).isFalse();
+
+        Thread.sleep(50);
+        assertThat(fired.get()).isZero();
+    }
+
+    @Test
+    void testRescheduleFromCallback() throws Exception {
+        timer = new HashedWheelTimer("test-timer", TimeUnit.MILLISECONDS.toNanos(1), 16);
+        CountDownLatch latch = new CountDownLatch(5);
+
+        HashedWheelTimer.Timeout periodic = new HashedWheelTimer.Timeout() {
+            @Override
+            protected void expire(long nowNanos) {
+                latch.countDown();
+                if (latch.getCount() > 0) {
+                    timer.schedule(this, TimeUnit.MILLISECONDS.toNanos(2));
+                }
+            }
+        };
+        timer.schedule(periodic, 0);
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testTickListenerRunsAfterSameTickExpiries() throws Exception {
+        timer = new HashedWheelTimer("test-timer", TimeUnit.MILLISECONDS.toNanos(1), 64);
+        AtomicInteger fired = new AtomicInteger();
+        AtomicInteger firedBeforeListener = new AtomicInteger(-1);
+        CountDownLatch latch = new CountDownLatch(1);
+        timer.setTickListener(() -> {
+            firedBeforeListener.compareAndSet(-1, fired.get());
+            latch.countDown();
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 3; i++) {
+            timer.scheduleAt(new TestTimeout(fired::incrementAndGet), deadline);
+        }
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedBeforeListener.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testInvalidWheelSize() {
+        assertThatThrownBy(() -> new HashedWheelTimer("bad", 1000, 100))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("power of two");
+    }
+
+    private static final class TestTimeout extends HashedWheelTimer.Timeout {
+        private final Runnable action;
+
+        TestTimeout(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        protected void expire(long nowNanos) {
+            action.run();
+        }
+    }
+}
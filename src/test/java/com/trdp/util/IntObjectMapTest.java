@@ -0,0 +1,61 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.assertj.core.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertThat(map.put(1000, "a")).isNull();
+        assertThat(map.put(0, "zero")).isNull();
+        assertThat(map.put(1000, "b")).isEqualTo("a");
+
+        assertThat(map.get(1000)).isEqualTo("b");
+        assertThat(map.get(0)).isEqualTo("zero");
+        assertThat(map.get(42)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(1000)).isEqualTo("b");
+        assertThat(map.containsKey(1000)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        IntObjectMap<Integer> map = new IntObjectMap<>(4);
+        Map<Integer, Integer> reference = new HashMap<>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(512);
+            if (random.nextBoolean()) {
+                assertThat(map.put(key, i)).isEqualTo(reference.put(key, i));
+            } else {
+                assertThat(map.remove(key)).isEqualTo(reference.remove(key));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(reference.size());
+        for (int key = 0; key < 512; key++) {
+            assertThat(map.get(key)).isEqualTo(reference.get(key));
+        }
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "one");
+
+        IntObjectMap<String> copy = map.copy();
+        copy.put(2, "two");
+
+        assertThat(map.containsKey(2)).isFalse();
+        assertThat(copy.keys()).containsExactlyInAnyOrder(1, 2);
+    }
+}
@@ -0,0 +1,32 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+import java.util.concurrent.ThreadFactory;
+
+class ThreadFactoriesTest {
+
+    @Test
+    void testPlatformThreadsAreNumberedDaemons() {
+        ThreadFactory factory = ThreadFactories.platform("test-worker");
+
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertThat(first.getName()).isEqualTo("test-worker-0");
+        assertThat(second.getName()).isEqualTo("test-worker-1");
+        assertThat(first.isDaemon()).isTrue();
+    }
+
+    @Test
+    void testVirtualThreadsFollowRuntimeSupport() throws Exception {
+        if (!ThreadFactories.virtualThreadsSupported()) {
+            assertThatThrownBy(() -> ThreadFactories.virtual("test-virtual"))
+                .isInstanceOf(UnsupportedOperationException.class);
+            return;
+        }
+        Thread thread = ThreadFactories.virtual("test-virtual").newThread(() -> { });
+        assertThat(thread.getName()).isEqualTo("test-virtual-0");
+        assertThat(thread.isDaemon()).isTrue();
+    }
+}
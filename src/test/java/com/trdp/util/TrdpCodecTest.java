@@ -0,0 +1,145 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+
+class TrdpCodecTest {
+    
+    record DoorStatus(
+        @TrdpField(order = 0, type = TrdpDataType.BOOL8) boolean closed,
+        @TrdpField(order = 1, type = TrdpDataType.UINT8) int carNumber,
+        @TrdpField(order = 2, type = TrdpDataType.REAL32) float speed,
+        @TrdpField(order = 3, type = TrdpDataType.TIMEDATE64) Instant timestamp) {
+    }
+    
+    static class BrakeStatus {
+        @TrdpField(order = 1, type = TrdpDataType.UINT16)
+        int pressure;
+        @TrdpField(order = 0, type = TrdpDataType.INT32)
+        int counter;
+        @TrdpField(order = 2, type = TrdpDataType.UINT32, align = 4)
+        long odometer;
+        @TrdpField(order = 3, type = TrdpDataType.INT16, length = 4)
+        short[] cylinders = new short[4];
+        @TrdpField(order = 4, type = TrdpDataType.CHAR8, length = 8)
+        String name;
+        @TrdpField(order = 5, type = TrdpDataType.REAL64)
+        double position;
+        
+        int notEncoded;
+    }
+    
+    static class FinalField {
+        @TrdpField(order = 0, type = TrdpDataType.INT8)
+        final byte value = 1;
+    }
+    
+    static class InstantArray {
+        @TrdpField(order = 0, type = TrdpDataType.TIMEDATE64, length = 2)
+        Instant[] timestamps;
+    }
+    
+    @Test
+    void testRecordMatchesDatasetEncoding() {
+        Instant timestamp = Instant.parse("2024-01-01T12:00:00.123456Z");
+        DoorStatus status = new DoorStatus(true, 3, 88.5f, timestamp);
+        TrdpCodec<DoorStatus> codec = TrdpCodec.of(DoorStatus.class);
+        
+        byte[] encoded = codec.encode(status);
+        byte[] expected = new TrdpDataset()
+            .addBool8("closed", true)
+            .addUInt8("carNumber", 3)
+            .addReal32("speed", 88.5f)
+            .addTimeDate64("timestamp", timestamp)
+            .encode();
+        
+        assertThat(codec.getSize()).isEqualTo(1 + 1 + 4 + 8);
+        assertThat(encoded).isEqualTo(expected);
+        assertThat(codec.decode(encoded, 0)).isEqualTo(status);
+        assertThat(TrdpCodec.of(DoorStatus.class)).isSameAs(codec);
+    }
+    
+    @Test
+    void testMutableClassRoundTripWithAlignment() {
+        BrakeStatus status = new BrakeStatus();
+        status.counter = -7;
+        status.pressure = 65000;
+        status.odometer = 4_000_000_000L;
+        status.cylinders = new short[] {1, -2, 3, -4};
+        status.name = "brake";
+        status.position = 52.520008;
+        status.notEncoded = 99;
+        TrdpCodec<BrakeStatus> codec = TrdpCodec.of(BrakeStatus.class);
+        
+        // counter(4) + pressure(2) + 2 padding + odometer(4) + cylinders(8) + name(8) + position(8)
+        assertThat(codec.getSize()).isEqualTo(36);
+        
+        byte[] encoded = codec.encode(status);
+        List<TrdpDataset.FieldDefinition> schema = List.of(
+            new TrdpDataset.FieldDefinition("counter", TrdpDataType.INT32),
+            new TrdpDataset.FieldDefinition("pressure", TrdpDataType.UINT16));
+        TrdpDataset dataset = TrdpDataset.decode(encoded, schema);
+        assertThat(dataset.getValue("counter")).isEqualTo(-7);
+        assertThat(dataset.getValue("pressure")).isEqualTo(65000);
+        
+        BrakeStatus decoded = codec.decode(encoded, 0);
+        assertThat(decoded.counter).isEqualTo(-7);
+        assertThat(decoded.pressure).isEqualTo(65000);
+        assertThat(decoded.odometer).isEqualTo(4_000_000_000L);
+        assertThat(decoded.cylinders).containsExactly(1, -2, 3, -4);
+        assertThat(decoded.name).isEqualTo("brake");
+        assertThat(decoded.position).isEqualTo(52.520008);
+        assertThat(decoded.notEncoded).isZero();
+    }
+    
+    @Test
+    void testDecodeIntoReusesInstanceAndArrays() {
+        TrdpCodec<BrakeStatus> codec = TrdpCodec.of(BrakeStatus.class);
+        BrakeStatus source = new BrakeStatus();
+        source.counter = 42;
+        source.cylinders = new short[] {5, 6, 7, 8};
+        source.name = "";
+        
+        ByteBuffer buffer = ByteBuffer.allocateDirect(codec.getSize() + 4);
+        codec.encode(source, buffer, 4);
+        
+        BrakeStatus target = new BrakeStatus();
+        short[] cylinders = target.cylinders;
+        codec.decodeInto(buffer, 4, target);
+        
+        assertThat(target.counter).isEqualTo(42);
+        assertThat(target.cylinders).isSameAs(cylinders).containsExactly(5, 6, 7, 8);
+        assertThat(buffer.position()).isZero();
+    }
+    
+    @Test
+    void testInvalidDeclarations() {
+        assertThatThrownBy(() -> TrdpCodec.of(FinalField.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("final");
+        assertThatThrownBy(() -> TrdpCodec.of(Object.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("no @TrdpField");
+        assertThatThrownBy(() -> TrdpCodec.of(DoorStatus.class).decodeInto(new byte[14], 0, null))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+    
+    @Test
+    void testRejectsArraysOfObjects() {
+        assertThatThrownBy(() -> TrdpCodec.of(InstantArray.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("timestamps")
+            .hasMessageContaining("primitive");
+    }
+    
+    @Test
+    void testBufferTooSmall() {
+        TrdpCodec<DoorStatus> codec = TrdpCodec.of(DoorStatus.class);
+        
+        assertThatThrownBy(() -> codec.decode(new byte[codec.getSize() - 1], 0))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.*;
+
+class TrdpDatasetLayoutTest {
+    
+    @Test
+    void testOffsetsArePrecomputed() {
+        TrdpDatasetLayout layout = TrdpDatasetLayout.of(
+            new TrdpDataset.FieldDefinition("enabled", TrdpDataType.BOOL8),
+            new TrdpDataset.FieldDefinition("counter", TrdpDataType.INT16),
+            new TrdpDataset.FieldDefinition("position", TrdpDataType.REAL64),
+            new TrdpDataset.FieldDefinition("timestamp", TrdpDataType.TIMEDATE64)
+        );
+        
+        assertThat(layout.getFieldCount()).isEqualTo(4);
+        assertThat(layout.getSize()).isEqualTo(1 + 2 + 8 + 8);
+        assertThat(layout.getOffset(layout.indexOf("counter"))).isEqualTo(1);
+        assertThat(layout.getOffset(layout.indexOf("position"))).isEqualTo(3);
+        assertThat(layout.getOffset(layout.indexOf("timestamp"))).isEqualTo(11);
+        assertThat(layout.getType(2)).isEqualTo(TrdpDataType.REAL64);
+        assertThat(layout.getName(3)).isEqualTo("timestamp");
+    }
+    
+    @Test
+    void testUnknownAndDuplicateNames() {
+        TrdpDatasetLayout layout = TrdpDatasetLayout.of(
+            new TrdpDataset.FieldDefinition("value", TrdpDataType.INT32)
+        );
+        
+        assertThatThrownBy(() -> layout.indexOf("missing"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Field not found");
+        assertThatThrownBy(() -> TrdpDatasetLayout.of(
+                new TrdpDataset.FieldDefinition("value", TrdpDataType.INT32),
+                new TrdpDataset.FieldDefinition("value", TrdpDataType.INT8)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Duplicate field name");
+    }
+}
@@ -143,4 +143,115 @@ class TrdpDatasetTest {
         assertThat((Float) decoded.getValue("speed")).isCloseTo(120.5f, within(0.01f));
         assertThat(decoded.getValue("doorsClosed")).isEqualTo(true);
     }
+    
+    @Test
+    void testPrimitiveAccessors() {
+        TrdpDataset dataset = new TrdpDataset()
+            .addUInt16("trainId", 1234)
+            .addReal64("position", 1523.75)
+            .addUInt32("odometer", 4294967295L)
+            .addInt8("offset", (byte) -5);
+        
+        int position = dataset.indexOf("position");
+        assertThat(dataset.getUInt16(dataset.indexOf("trainId"))).isEqualTo(1234);
+        assertThat(dataset.getReal64(position)).isEqualTo(1523.75);
+        assertThat(dataset.getUInt32(dataset.indexOf("odometer"))).isEqualTo(4294967295L);
+        assertThat(dataset.getInt8(dataset.indexOf("offset"))).isEqualTo((byte) -5);
+        
+        dataset.setReal64(position, -2.5);
+        assertThat(dataset.getValue("position")).isEqualTo(-2.5);
+        
+        assertThatThrownBy(() -> dataset.getInt32(position))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("REAL64");
+        assertThatThrownBy(() -> dataset.setUInt16(0, 70000))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void testTimeDate64EpochMicros() {
+        Instant time = Instant.ofEpochSecond(1_700_000_000L, 123_456_000L);
+        TrdpDataset dataset = new TrdpDataset()
+            .addTimeDate64("time", time)
+            .addTimeDate64EpochMicros("micros", 1_700_000_000_654_321L);
+        
+        assertThat(dataset.getTimeDate64EpochMicros(0)).isEqualTo(1_700_000_000_123_456L);
+        
+        TrdpDecoder decoder = new TrdpDecoder(dataset.encode());
+        assertThat(decoder.getTimeDate64()).isEqualTo(time);
+        assertThat(decoder.getTimeDate64EpochMicros()).isEqualTo(1_700_000_000_654_321L);
+        
+        TrdpDataset decoded = TrdpDataset.decode(dataset.encode(), Arrays.asList(
+            new TrdpDataset.FieldDefinition("time", TrdpDataType.TIMEDATE64),
+            new TrdpDataset.FieldDefinition("micros", TrdpDataType.TIMEDATE64)));
+        assertThat(decoded.getValue("time")).isEqualTo(time);
+        assertThat(decoded.getTimeDate64EpochMicros(1)).isEqualTo(1_700_000_000_654_321L);
+    }
+    
+    @Test
+    void testBoxedTimeDate64KeepsAddedInstant() {
+        Instant time = Instant.ofEpochSecond(1_700_000_000L, 123_456_789L);
+        TrdpDataset dataset = new TrdpDataset().addTimeDate64("time", time);
+        
+        // Boxed accessors return the instant as added, the wire value has microseconds
+        assertThat(dataset.getValue("time")).isSameAs(time);
+        assertThat(dataset.getFields().get(0).getValue()).isSameAs(time);
+        assertThat(dataset.getTimeDate64EpochMicros(0)).isEqualTo(1_700_000_000_123_456L);
+        
+        dataset.setTimeDate64EpochMicros(0, 1_700_000_000_000_001L);
+        assertThat(dataset.getValue("time")).isEqualTo(Instant.ofEpochSecond(1_700_000_000L, 1000L));
+        
+        dataset.clear();
+        dataset.addTimeDate64EpochMicros("time", 5L);
+        assertThat(dataset.getValue("time")).isEqualTo(Instant.ofEpochSecond(0, 5000L));
+    }
+    
+    @Test
+    void testEncodeIntoBufferMatchesEncoder() {
+        TrdpDataset dataset = new TrdpDataset()
+            .addBool8("flag", true)
+            .addChar8("code", 'Z')
+            .addInt16("small", (short) -1000)
+            .addInt32("medium", -100000)
+            .addInt64("large", -10000000000L)
+            .addUInt8("ubyte", 200)
+            .addReal32("float", -3.14f)
+            .addReal64("double", 2.71828);
+        
+        byte[] expected = new TrdpEncoder(dataset.getSize())
+            .putBool8(true)
+            .putChar8('Z')
+            .putInt16((short) -1000)
+            .putInt32(-100000)
+            .putInt64(-10000000000L)
+            .putUInt8(200)
+            .putReal32(-3.14f)
+            .putReal64(2.71828)
+            .toByteArray();
+        
+        byte[] buffer = new byte[dataset.getSize() + 4];
+        int written = dataset.encode(buffer, 4);
+        
+        assertThat(written).isEqualTo(expected.length);
+        assertThat(Arrays.copyOfRange(buffer, 4, buffer.length)).isEqualTo(expected);
+        assertThatThrownBy(() -> dataset.encode(buffer, 5))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+    
+    @Test
+    void testClearAndRefill() {
+        TrdpDataset dataset = new TrdpDataset();
+        for (int i = 0; i < 20; i++) {
+            dataset.addInt32("value" + i, i);
+        }
+        assertThat(dataset.getFieldCount()).isEqualTo(20);
+        assertThat(dataset.getInt32(dataset.indexOf("value19"))).isEqualTo(19);
+        
+        dataset.clear();
+        dataset.addUInt8("only", 7);
+        
+        assertThat(dataset.getFieldCount()).isEqualTo(1);
+        assertThat(dataset.getSize()).isEqualTo(1);
+        assertThat(dataset.encode()).containsExactly(7);
+    }
 }
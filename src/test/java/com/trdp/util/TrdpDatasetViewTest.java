@@ -0,0 +1,86 @@
+package com.trdp.util;
+
+import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import static org.assertj.core.api.Assertions.*;
+
+class TrdpDatasetViewTest {
+    
+    private static final TrdpDatasetLayout LAYOUT = TrdpDatasetLayout.of(
+        new TrdpDataset.FieldDefinition("enabled", TrdpDataType.BOOL8),
+        new TrdpDataset.FieldDefinition("counter", TrdpDataType.INT16),
+        new TrdpDataset.FieldDefinition("carNumber", TrdpDataType.UINT8),
+        new TrdpDataset.FieldDefinition("brakePressure", TrdpDataType.UINT16),
+        new TrdpDataset.FieldDefinition("odometer", TrdpDataType.UINT32),
+        new TrdpDataset.FieldDefinition("distance", TrdpDataType.INT64),
+        new TrdpDataset.FieldDefinition("speed", TrdpDataType.REAL32),
+        new TrdpDataset.FieldDefinition("position", TrdpDataType.REAL64),
+        new TrdpDataset.FieldDefinition("timestamp", TrdpDataType.TIMEDATE64)
+    );
+    
+    private static byte[] encode(Instant timestamp) {
+        return new TrdpDataset()
+            .addBool8("enabled", true)
+            .addInt16("counter", (short) -1000)
+            .addUInt8("carNumber", 200)
+            .addUInt16("brakePressure", 65000)
+            .addUInt32("odometer", 4_000_000_000L)
+            .addInt64("distance", Long.MIN_VALUE + 1)
+            .addReal32("speed", 88.5f)
+            .addReal64("position", 52.520008)
+            .addTimeDate64("timestamp", timestamp)
+            .encode();
+    }
+    
+    @Test
+    void testReadsEveryFieldInPlace() {
+        Instant timestamp = Instant.parse("2024-01-01T12:00:00.123456Z");
+        TrdpDatasetView view = new TrdpDatasetView(LAYOUT).wrap(encode(timestamp));
+        
+        assertThat(view.getBool8(LAYOUT.indexOf("enabled"))).isTrue();
+        assertThat(view.getInt16(LAYOUT.indexOf("counter"))).isEqualTo((short) -1000);
+        assertThat(view.getUInt8(LAYOUT.indexOf("carNumber"))).isEqualTo(200);
+        assertThat(view.getUInt16(LAYOUT.indexOf("brakePressure"))).isEqualTo(65000);
+        assertThat(view.getUInt32(LAYOUT.indexOf("odometer"))).isEqualTo(4_000_000_000L);
+        assertThat(view.getInt64(LAYOUT.indexOf("distance"))).isEqualTo(Long.MIN_VALUE + 1);
+        assertThat(view.getReal32(LAYOUT.indexOf("speed"))).isEqualTo(88.5f);
+        assertThat(view.getReal64(LAYOUT.indexOf("position"))).isEqualTo(52.520008);
+        
+        int field = LAYOUT.indexOf("timestamp");
+        assertThat(view.getTimeDate64Seconds(field)).isEqualTo(timestamp.getEpochSecond());
+        assertThat(view.getTimeDate64Micros(field)).isEqualTo(123456);
+        assertThat(view.getTimeDate64(field)).isEqualTo(timestamp);
+    }
+    
+    @Test
+    void testWrapsBufferRangeAtOffset() {
+        byte[] dataset = encode(Instant.EPOCH);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(dataset.length + 10);
+        buffer.position(7);
+        buffer.put(dataset);
+        buffer.position(7).limit(7 + dataset.length);
+        
+        TrdpDatasetView view = new TrdpDatasetView(LAYOUT).wrap(buffer);
+        
+        assertThat(view.getUInt16(LAYOUT.indexOf("brakePressure"))).isEqualTo(65000);
+        assertThat(buffer.position()).isEqualTo(7);
+    }
+    
+    @Test
+    void testTypeMismatchIsRejected() {
+        TrdpDatasetView view = new TrdpDatasetView(LAYOUT).wrap(encode(Instant.EPOCH));
+        
+        assertThatThrownBy(() -> view.getInt32(LAYOUT.indexOf("speed")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("REAL32");
+    }
+    
+    @Test
+    void testRangeTooShortForLayout() {
+        TrdpDatasetView view = new TrdpDatasetView(LAYOUT);
+        
+        assertThatThrownBy(() -> view.wrap(new byte[LAYOUT.getSize() - 1]))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}